@@ -0,0 +1,118 @@
+import io.LecteurDonnees;
+import simulation.*;
+import robots.*;
+import carte.*;
+import plus_court_chemin.ChampBalayage;
+import plus_court_chemin.ChampDistance;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+/**
+ * Compare la construction des champs de distances par Dijkstra (ChampDistance) et par
+ * balayage (ChampBalayage), avec le noyau scalaire puis avec le noyau vectoriel.
+ * Pour chaque classe de coût, on construit le champ vers l'eau et des champs vers des cases
+ * tirées au hasard, et on vérifie que les trois méthodes donnent les mêmes temps partout.
+ *
+ * Le noyau vectoriel n'est utilisé que si la JVM est lancée avec --add-modules jdk.incubator.vector
+ * (cible exebenchChamps du Makefile) ; sinon les deux lignes de balayage utilisent le noyau scalaire.
+ */
+public class benchChamps {
+    private static final int NB_TOURS = 3;
+
+    public static void main(String[] args) {
+        ChampBalayage scalaire = new ChampBalayage(false);
+        ChampBalayage vectoriel = new ChampBalayage();
+        System.out.println("Noyau vectoriel : " + (vectoriel.estVectoriel() ? "disponible" : "indisponible"));
+        File[] fichiers = new File("cartes").listFiles((dossier, nom) -> nom.endsWith(".map"));
+        Arrays.sort(fichiers);
+        try {
+            for (File fichier : fichiers) {
+                DonneesSimulation donnees = LecteurDonnees.lire(fichier.getPath());
+                mesurer(fichier.getName(), donnees.getCarte(), scalaire, vectoriel, 10);
+            }
+        } catch (FileNotFoundException | DataFormatException e) {
+            e.printStackTrace();
+        }
+        for (int taille : new int[] {200, 500, 1000}) {
+            mesurer("aleatoire-" + taille + "x" + taille, benchChemin.grilleAleatoire(taille, 42), scalaire,
+                    vectoriel, Math.max(1, 2000000 / (taille * taille)));
+        }
+        mesurer("ouverte-1000x1000", benchChemin.grilleOuverte(1000, 42), scalaire, vectoriel, 2);
+    }
+
+    private static void mesurer(String nom, Carte carte, ChampBalayage scalaire, ChampBalayage vectoriel,
+            int nbCibles) {
+        Random aleatoire = new Random(1);
+        List<Case> cibles = new ArrayList<>();
+        for (int k = 0; k < nbCibles; k++) {
+            cibles.add(carte.getCase(aleatoire.nextInt(carte.getNbLignes()), aleatoire.nextInt(carte.getNbColonnes())));
+        }
+        System.out.println("\n" + nom + " (" + carte.getNbLignes() + "x" + carte.getNbColonnes() + ", eau + "
+                + nbCibles + " cibles)");
+        System.out.printf("  %-10s %12s %12s %12s %8s %s%n", "classe", "dijkstra", "scalaire", "vectoriel",
+                "balay.", "");
+        List<CostModel> modeles = new ArrayList<>();
+        for (Robot robot : benchChemin.robotsDeChaqueType(carte)) {
+            if (modeles.contains(robot.getCostModel())) {
+                continue;
+            }
+            modeles.add(robot.getCostModel());
+            CostModel modele = robot.getCostModel();
+            long dureeDijkstra = Long.MAX_VALUE;
+            long dureeScalaire = Long.MAX_VALUE;
+            long dureeVectoriel = Long.MAX_VALUE;
+            boolean identiques = true;
+            long nbIterations = 0;
+            for (int tour = 0; tour < NB_TOURS; tour++) {
+                List<ChampDistance> references = new ArrayList<>();
+                long debut = System.nanoTime();
+                references.add(ChampDistance.versEau(carte, modele));
+                for (Case cible : cibles) {
+                    references.add(ChampDistance.versCase(carte, modele, cible));
+                }
+                dureeDijkstra = Math.min(dureeDijkstra, System.nanoTime() - debut);
+
+                for (ChampBalayage balayage : new ChampBalayage[] {scalaire, vectoriel}) {
+                    List<ChampDistance> champs = new ArrayList<>();
+                    nbIterations = 0;
+                    debut = System.nanoTime();
+                    champs.add(balayage.versEau(carte, modele));
+                    nbIterations += balayage.getNbIterations();
+                    for (Case cible : cibles) {
+                        champs.add(balayage.versCase(carte, modele, cible));
+                        nbIterations += balayage.getNbIterations();
+                    }
+                    long duree = System.nanoTime() - debut;
+                    if (balayage == scalaire) {
+                        dureeScalaire = Math.min(dureeScalaire, duree);
+                    } else {
+                        dureeVectoriel = Math.min(dureeVectoriel, duree);
+                    }
+                    identiques &= memesTemps(carte, references, champs);
+                }
+            }
+            System.out.printf("  %-10s %9.2f ms %9.2f ms %9.2f ms %8.1f %s%n", robot.getClasseRobot(),
+                    dureeDijkstra / 1e6, dureeScalaire / 1e6, dureeVectoriel / 1e6,
+                    nbIterations / (double) (cibles.size() + 1), identiques ? "" : "TEMPS DIFFÉRENTS");
+        }
+    }
+
+    private static boolean memesTemps(Carte carte, List<ChampDistance> references, List<ChampDistance> champs) {
+        for (int k = 0; k < references.size(); k++) {
+            for (int i = 0; i < carte.getNbLignes(); i++) {
+                for (int j = 0; j < carte.getNbColonnes(); j++) {
+                    if (references.get(k).getTemps(i, j) != champs.get(k).getTemps(i, j)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,627 @@
+import io.LecteurDonnees;
+import simulation.*;
+import robots.*;
+import carte.*;
+import plus_court_chemin.aetoile;
+import plus_court_chemin.Accessibilite;
+import plus_court_chemin.CacheChemins;
+import plus_court_chemin.CheminsMultiples;
+import plus_court_chemin.HierarchieChemins;
+import plus_court_chemin.HierarchieContractee;
+import plus_court_chemin.Heuristique;
+import plus_court_chemin.PlanificateurIncremental;
+import plus_court_chemin.TypeFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Stack;
+import java.util.zip.DataFormatException;
+
+/**
+ * Compare les temps de recherche de aetoile selon la file de priorité utilisée,
+ * sur les cartes du dossier cartes/ et sur de grandes grilles générées aléatoirement.
+ * Pour chaque carte, les mêmes requêtes (robot, départ, destination) sont rejouées avec
+ * chaque file et on vérifie que les temps de trajet trouvés sont identiques.
+ * Sur les grandes grilles, on mesure aussi la recherche hiérarchique (HPA*) : temps de
+ * construction, temps par requête et surcoût moyen des trajets par rapport à l'optimum, ainsi que
+ * les hiérarchies de contraction : durée du précalcul, mémoire et temps par requête.
+ */
+public class benchChemin {
+    private static final int NB_TOURS = 3;
+
+    public static void main(String[] args) {
+        File[] fichiers = new File("cartes").listFiles((dossier, nom) -> nom.endsWith(".map"));
+        Arrays.sort(fichiers);
+        try {
+            for (File fichier : fichiers) {
+                DonneesSimulation donnees = LecteurDonnees.lire(fichier.getPath());
+                mesurer(fichier.getName(), donnees.getCarte(), donnees.getRobots(), 2000);
+                mesurerContraction(donnees.getCarte(), donnees.getRobots(), 2000);
+            }
+        } catch (FileNotFoundException | DataFormatException e) {
+            e.printStackTrace();
+        }
+        for (int taille : new int[] {200, 500, 1000}) {
+            Carte carte = grilleAleatoire(taille, 42);
+            Robot[] robots = robotsDeChaqueType(carte);
+            mesurer("aleatoire-" + taille + "x" + taille, carte, robots, 40000000 / (taille * taille));
+            mesurerHierarchie(carte, robots, 40000000 / (taille * taille));
+            mesurerAccessibilite(carte, robots, 40000000 / (taille * taille));
+        }
+        // Carte étroite : une seule colonne de clusters pour la recherche hiérarchique.
+        Carte etroite = grilleAleatoire(400, 12, 42);
+        System.out.println("\naleatoire-400x12 (une colonne de clusters)");
+        mesurerHierarchie(etroite, robotsDeChaqueType(etroite), 2000);
+        // Le précalcul des hiérarchies de contraction est trop long pour les plus grandes grilles.
+        for (int taille : new int[] {100, 200}) {
+            Carte carte = grilleAleatoire(taille, 42);
+            System.out.println("\naleatoire-" + taille + "x" + taille + " (hiérarchies de contraction)");
+            mesurerContraction(carte, robotsDeChaqueType(carte), 2000);
+        }
+        Carte ouverte = grilleOuverte(1000, 42);
+        mesurer("ouverte-1000x1000", ouverte, robotsDeChaqueType(ouverte), 40);
+        Carte replanification = grilleAleatoire(300, 42);
+        mesurerReplanification(replanification, robotsDeChaqueType(replanification)[2]);
+        try {
+            // Sur cette carte, les cases sont si petites que tous les déplacements durent 0 s.
+            Carte desert = LecteurDonnees.lire("cartes/desertOfDeath-20x20.map").getCarte();
+            for (Robot robot : robotsDeChaqueType(desert)) {
+                mesurerReplanification(desert, robot);
+            }
+        } catch (FileNotFoundException | DataFormatException e) {
+            e.printStackTrace();
+        }
+        mesurerCiblesMultiples(grilleAleatoire(300, 42), 20);
+        mesurerCache(grilleAleatoire(300, 42), 20, 50);
+    }
+
+    /**
+     * Simule des tours du chef pompier : à chaque tour, chaque robot demande son temps de trajet
+     * vers chaque incendie, puis un seul robot avance d'une case ; une case change de nature
+     * tous les dix tours. On compare aetoile seul et aetoile derrière un CacheChemins.
+     */
+    private static void mesurerCache(Carte carte, int nbIncendies, int nbTours) {
+        Random aleatoire = new Random(1);
+        int nbColonnes = carte.getNbColonnes();
+        List<Case> incendies = new ArrayList<>();
+        for (int k = 0; k < nbIncendies; k++) {
+            incendies.add(carte.getCase(aleatoire.nextInt(carte.getNbLignes()), aleatoire.nextInt(nbColonnes)));
+        }
+        Robot[] robots = robotsDeChaqueType(carte);
+        for (Robot robot : robots) {
+            robot.setLigne(aleatoire.nextInt(carte.getNbLignes()));
+            robot.setColonne(aleatoire.nextInt(nbColonnes));
+        }
+        CacheChemins cache = new CacheChemins(robots.length * nbIncendies * 2);
+        NatureTerrain[] natures = NatureTerrain.values();
+        long dureeSans = 0;
+        long dureeAvec = 0;
+        for (int tour = 0; tour < nbTours; tour++) {
+            for (Robot robot : robots) {
+                for (Case incendie : incendies) {
+                    long debut = System.nanoTime();
+                    aetoile sans = new aetoile();
+                    sans.aEtoileSearch(carte, incendie, robot);
+                    dureeSans += System.nanoTime() - debut;
+                    debut = System.nanoTime();
+                    aetoile avec = new aetoile();
+                    avec.setCache(cache);
+                    avec.aEtoileSearch(carte, incendie, robot);
+                    dureeAvec += System.nanoTime() - debut;
+                    if (sans.getTime() != avec.getTime()) {
+                        System.out.println("  ERREUR : le cache ne rend pas le même temps de trajet");
+                    }
+                }
+            }
+            Robot robot = robots[tour % robots.length];
+            Case position = carte.getCase(robot.getLigne(), robot.getColonne());
+            Direction direction = Direction.values()[aleatoire.nextInt(4)];
+            if (carte.voisinExiste(position, direction)) {
+                Case suivante = carte.getVoisin(position, direction);
+                robot.setLigne(suivante.getLigne());
+                robot.setColonne(suivante.getColonne());
+            }
+            if (tour % 10 == 9) {
+                int i = aleatoire.nextInt(carte.getNbLignes());
+                int j = aleatoire.nextInt(nbColonnes);
+                carte.setCase(new Case(i, j, natures[aleatoire.nextInt(natures.length)]), i, j);
+            }
+        }
+        System.out.println("\ncache de trajets (" + carte.getNbLignes() + "x" + nbColonnes + ", " + robots.length
+                + " robots, " + nbIncendies + " incendies, " + nbTours + " tours)");
+        System.out.printf("  %-12s %10.2f ms%n", "sans cache", dureeSans / 1e6);
+        System.out.printf("  %-12s %10.2f ms%n", "avec cache", dureeAvec / 1e6);
+        System.out.println("  " + cache);
+    }
+
+    /**
+     * Chaque robot cherche ses temps de trajet vers un même ensemble de cibles, comme le chef
+     * pompier vers les incendies : une recherche aetoile par cible, puis une seule recherche
+     * vers toutes les cibles.
+     */
+    private static void mesurerCiblesMultiples(Carte carte, int nbCibles) {
+        Random aleatoire = new Random(1);
+        int nbColonnes = carte.getNbColonnes();
+        List<Case> cibles = new ArrayList<>();
+        for (int k = 0; k < nbCibles; k++) {
+            cibles.add(carte.getCase(aleatoire.nextInt(carte.getNbLignes()), aleatoire.nextInt(nbColonnes)));
+        }
+        Robot[] robots = robotsDeChaqueType(carte);
+        long dureeSeparee = 0;
+        long dureeMultiple = 0;
+        for (int tour = 0; tour < NB_TOURS; tour++) {
+            dureeSeparee = 0;
+            dureeMultiple = 0;
+            for (Robot robot : robots) {
+                robot.setLigne(aleatoire.nextInt(carte.getNbLignes()));
+                robot.setColonne(aleatoire.nextInt(nbColonnes));
+                int[] temps = new int[nbCibles];
+                long debut = System.nanoTime();
+                for (int k = 0; k < nbCibles; k++) {
+                    aetoile recherche = new aetoile();
+                    recherche.aEtoileSearch(carte, cibles.get(k), robot);
+                    temps[k] = recherche.getTime();
+                }
+                dureeSeparee += System.nanoTime() - debut;
+                debut = System.nanoTime();
+                CheminsMultiples resultat = new aetoile().rechercheVersCibles(carte, cibles, robot);
+                dureeMultiple += System.nanoTime() - debut;
+                for (int k = 0; k < nbCibles; k++) {
+                    if (resultat.getTemps(cibles.get(k)) != temps[k]) {
+                        System.out.println("  ERREUR : la recherche multiple ne trouve pas les mêmes temps de trajet");
+                    }
+                }
+            }
+        }
+        System.out.println("\n" + nbCibles + " cibles par robot (" + carte.getNbLignes() + "x" + nbColonnes
+                + ", " + robots.length + " robots)");
+        System.out.printf("  %-12s %10.2f ms%n", "une par cible", dureeSeparee / 1e6);
+        System.out.printf("  %-12s %10.2f ms%n", "multiple", dureeMultiple / 1e6);
+    }
+
+    /**
+     * Un robot suit son chemin pas à pas pendant que des cases changent de nature près de lui ;
+     * à chaque pas on recalcule le trajet, avec aetoile depuis zéro puis avec
+     * PlanificateurIncremental, et on vérifie que les temps sont les mêmes.
+     */
+    private static void mesurerReplanification(Carte carte, Robot robot) {
+        int nbColonnes = carte.getNbColonnes();
+        Random aleatoire = new Random(1);
+        Case destination = carte.getCase(carte.getNbLignes() - 1, nbColonnes - 1);
+        robot.setLigne(0);
+        robot.setColonne(0);
+        PlanificateurIncremental planificateur = new PlanificateurIncremental(carte, robot.getCostModel(),
+                carte.getCase(0, 0), destination);
+        NatureTerrain[] natures = NatureTerrain.values();
+        long dureeComplete = 0;
+        long dureeIncrementale = 0;
+        int nbPas = 0;
+        while (nbPas < 300) {
+            long debut = System.nanoTime();
+            int tempsIncremental = planificateur.calculerChemin();
+            Stack<Direction> chemin = planificateur.getChemin();
+            dureeIncrementale += System.nanoTime() - debut;
+            debut = System.nanoTime();
+            aetoile recherche = new aetoile();
+            recherche.aEtoileSearch(carte, destination, robot);
+            dureeComplete += System.nanoTime() - debut;
+            if (recherche.getTime() != tempsIncremental) {
+                System.out.println("  ERREUR : la replanification incrémentale ne trouve pas le même temps");
+            }
+            if (chemin == null || chemin.size() <= 1) {
+                break;
+            }
+            Case suivante = carte.getVoisin(carte.getCase(robot.getLigne(), robot.getColonne()), chemin.pop());
+            robot.setLigne(suivante.getLigne());
+            robot.setColonne(suivante.getColonne());
+            planificateur.deplacerDepart(suivante);
+            nbPas++;
+            // Une case change de nature dans les environs du robot.
+            int i = Math.max(0, Math.min(carte.getNbLignes() - 1, robot.getLigne() + aleatoire.nextInt(11) - 5));
+            int j = Math.max(0, Math.min(nbColonnes - 1, robot.getColonne() + aleatoire.nextInt(11) - 5));
+            carte.setCase(new Case(i, j, natures[aleatoire.nextInt(natures.length)]), i, j);
+        }
+        planificateur.detacher();
+        System.out.println("\nreplanification pas à pas (" + carte.getNbLignes() + "x" + nbColonnes + ", "
+                + robot.getClasseRobot() + ", " + nbPas + " pas)");
+        System.out.printf("  %-12s %10.2f µs/pas%n", "aetoile", dureeComplete / 1000.0 / Math.max(1, nbPas));
+        System.out.printf("  %-12s %10.2f µs/pas%n", "D* Lite", dureeIncrementale / 1000.0 / Math.max(1, nbPas));
+    }
+
+    private static void mesurer(String nom, Carte carte, Robot[] robots, int nbRequetes) {
+        Random aleatoire = new Random(1);
+        int nbCases = carte.getNbLignes() * carte.getNbColonnes();
+        int[] departs = new int[nbRequetes];
+        int[] arrivees = new int[nbRequetes];
+        int[] indicesRobots = new int[nbRequetes];
+        for (int k = 0; k < nbRequetes; k++) {
+            departs[k] = aleatoire.nextInt(nbCases);
+            arrivees[k] = aleatoire.nextInt(nbCases);
+            indicesRobots[k] = aleatoire.nextInt(robots.length);
+        }
+
+        System.out.println("\n" + nom + " (" + carte.getNbLignes() + "x" + carte.getNbColonnes() + ", "
+                + nbRequetes + " requêtes)");
+        long[] reference = null;
+        for (TypeFile typeFile : TypeFile.values()) {
+            reference = mesurerMode(typeFile.toString(), carte, robots, departs, arrivees, indicesRobots,
+                    typeFile, false, reference);
+        }
+        // Les robots à coût uniforme (drone, roues) passent par la recherche par points de saut.
+        mesurerMode("DIAL+SAUTS", carte, robots, departs, arrivees, indicesRobots, TypeFile.DIAL, true, reference);
+        // Heuristique des repères : le précalcul est fait au premier tour, qui n'est pas retenu.
+        mesurerMode("DIAL+REPERES", carte, robots, departs, arrivees, indicesRobots, TypeFile.DIAL,
+                Heuristique.REPERES, false, false, reference);
+        mesurerMode("DIAL+BIDIR", carte, robots, departs, arrivees, indicesRobots, TypeFile.DIAL,
+                Heuristique.MANHATTAN, false, true, reference);
+        comparerDeveloppes(carte, robots, departs, arrivees, indicesRobots);
+        for (double epsilon : new double[] {1.2, 2}) {
+            mesurerPondere(carte, robots, departs, arrivees, indicesRobots, epsilon, reference);
+        }
+
+        // Même comparaison restreinte aux requêtes des robots à coût uniforme.
+        int nbUniformes = 0;
+        for (int k = 0; k < nbRequetes; k++) {
+            if (robots[indicesRobots[k]].getCostModel().estUniforme()) {
+                departs[nbUniformes] = departs[k];
+                arrivees[nbUniformes] = arrivees[k];
+                indicesRobots[nbUniformes] = indicesRobots[k];
+                nbUniformes++;
+            }
+        }
+        if (nbUniformes > 0) {
+            departs = Arrays.copyOf(departs, nbUniformes);
+            arrivees = Arrays.copyOf(arrivees, nbUniformes);
+            indicesRobots = Arrays.copyOf(indicesRobots, nbUniformes);
+            long[] uniformes = mesurerMode("uniformes", carte, robots, departs, arrivees, indicesRobots,
+                    TypeFile.DIAL, false, null);
+            mesurerMode("  +SAUTS", carte, robots, departs, arrivees, indicesRobots, TypeFile.DIAL, true, uniformes);
+        }
+    }
+
+    /**
+     * Composantes connexes par classe de coût : temps de calcul, puis pour des couples tirés au
+     * hasard, temps de aetoile et de estAtteignable sur les couples inaccessibles.
+     */
+    private static void mesurerAccessibilite(Carte carte, Robot[] robots, int nbRequetes) {
+        long debut = System.nanoTime();
+        int nbComposantes = 0;
+        Map<CostModel, Accessibilite> parModele = new HashMap<>();
+        for (Robot robot : robots) {
+            if (!parModele.containsKey(robot.getCostModel())) {
+                Accessibilite accessibilite = Accessibilite.pour(carte, robot.getCostModel());
+                parModele.put(robot.getCostModel(), accessibilite);
+                nbComposantes += accessibilite.getNbComposantes();
+            }
+        }
+        System.out.printf("  %-12s %10.2f ms de calcul, %d composantes%n", "composantes",
+                (System.nanoTime() - debut) / 1e6, nbComposantes);
+
+        Random aleatoire = new Random(2);
+        int nbColonnes = carte.getNbColonnes();
+        int nbCases = carte.getNbLignes() * nbColonnes;
+        long dureeRecherche = 0;
+        long dureeTest = 0;
+        int nbInaccessibles = 0;
+        for (int k = 0; k < nbRequetes; k++) {
+            int depart = aleatoire.nextInt(nbCases);
+            int arrivee = aleatoire.nextInt(nbCases);
+            Robot robot = robots[aleatoire.nextInt(robots.length)];
+            Case caseDepart = carte.getCase(depart / nbColonnes, depart % nbColonnes);
+            Case caseArrivee = carte.getCase(arrivee / nbColonnes, arrivee % nbColonnes);
+            Accessibilite accessibilite = parModele.get(robot.getCostModel());
+            long t = System.nanoTime();
+            boolean atteignable = accessibilite.estAtteignable(caseDepart, caseArrivee);
+            long dureeAtteignable = System.nanoTime() - t;
+            t = System.nanoTime();
+            int temps = chercher(carte, robot, depart, arrivee, TypeFile.DIAL, Heuristique.MANHATTAN, true, false,
+                    null);
+            long dureeAetoile = System.nanoTime() - t;
+            if (!atteignable && temps != -1) {
+                System.out.println("  ERREUR : un couple accessible est déclaré inaccessible");
+            }
+            if (temps == -1 && !atteignable) {
+                nbInaccessibles++;
+                dureeRecherche += dureeAetoile;
+                dureeTest += dureeAtteignable;
+            }
+        }
+        if (nbInaccessibles > 0) {
+            System.out.printf("  %-12s %10.2f µs/requête (aetoile), %.3f µs (estAtteignable), %d couples%n",
+                    "inaccessible", dureeRecherche / 1000.0 / nbInaccessibles, dureeTest / 1000.0 / nbInaccessibles,
+                    nbInaccessibles);
+        }
+    }
+
+    /**
+     * Nombre moyen de cases développées par requête, par A* et par la recherche bidirectionnelle.
+     */
+    private static void comparerDeveloppes(Carte carte, Robot[] robots, int[] departs, int[] arrivees,
+            int[] indicesRobots) {
+        long nbAetoile = 0;
+        long nbBidirectionnelle = 0;
+        for (int k = 0; k < departs.length; k++) {
+            Robot robot = robots[indicesRobots[k]];
+            nbAetoile += rechercher(carte, robot, departs[k], arrivees[k], TypeFile.DIAL, Heuristique.MANHATTAN,
+                    false, false, 1, null).getNbDeveloppes();
+            nbBidirectionnelle += rechercher(carte, robot, departs[k], arrivees[k], TypeFile.DIAL,
+                    Heuristique.MANHATTAN, false, true, 1, null).getNbDeveloppes();
+        }
+        System.out.printf("  %-12s %10.1f cases (A*), %.1f cases (bidirectionnelle)%n", "développées",
+                (double) nbAetoile / departs.length, (double) nbBidirectionnelle / departs.length);
+    }
+
+    /**
+     * A* pondéré : temps par requête, cases développées et surcoût par rapport aux temps exacts
+     * de référence, qui ne doit jamais dépasser le facteur epsilon.
+     */
+    private static void mesurerPondere(Carte carte, Robot[] robots, int[] departs, int[] arrivees,
+            int[] indicesRobots, double epsilon, long[] reference) {
+        int nbRequetes = departs.length;
+        long meilleur = Long.MAX_VALUE;
+        long nbDeveloppes = 0;
+        double surcout = 0;
+        double pire = 1;
+        int nbTrajets = 0;
+        for (int tour = 0; tour < NB_TOURS; tour++) {
+            long debut = System.nanoTime();
+            for (int k = 0; k < nbRequetes; k++) {
+                aetoile recherche = rechercher(carte, robots[indicesRobots[k]], departs[k], arrivees[k],
+                        TypeFile.DIAL, Heuristique.MANHATTAN, false, false, epsilon, null);
+                if (tour == 0) {
+                    nbDeveloppes += recherche.getNbDeveloppes();
+                    if (reference[k] > 0) {
+                        double rapport = (double) recherche.getTime() / reference[k];
+                        surcout += rapport - 1;
+                        pire = Math.max(pire, rapport);
+                        nbTrajets++;
+                    }
+                    if ((recherche.getTime() == -1) != (reference[k] == -1) || pire > epsilon) {
+                        System.out.println("  ERREUR : A* pondéré hors de la borne epsilon = " + epsilon);
+                    }
+                }
+            }
+            meilleur = Math.min(meilleur, System.nanoTime() - debut);
+        }
+        System.out.printf("  %-12s %10.2f µs/requête, %.1f cases, surcoût moyen %.2f %%, pire %.2f %%%n",
+                "EPS " + epsilon, meilleur / 1000.0 / nbRequetes, (double) nbDeveloppes / nbRequetes,
+                100 * surcout / Math.max(1, nbTrajets), 100 * (pire - 1));
+    }
+
+    private static long[] mesurerMode(String nom, Carte carte, Robot[] robots, int[] departs, int[] arrivees,
+            int[] indicesRobots, TypeFile typeFile, boolean sauts, long[] reference) {
+        return mesurerMode(nom, carte, robots, departs, arrivees, indicesRobots, typeFile, Heuristique.MANHATTAN,
+                sauts, false, reference);
+    }
+
+    private static long[] mesurerMode(String nom, Carte carte, Robot[] robots, int[] departs, int[] arrivees,
+            int[] indicesRobots, TypeFile typeFile, Heuristique heuristique, boolean sauts, boolean bidirectionnelle,
+            long[] reference) {
+        int nbRequetes = departs.length;
+        long[] temps = new long[nbRequetes];
+        long meilleur = Long.MAX_VALUE;
+        for (int tour = 0; tour < NB_TOURS; tour++) {
+            long debut = System.nanoTime();
+            for (int k = 0; k < nbRequetes; k++) {
+                temps[k] = chercher(carte, robots[indicesRobots[k]], departs[k], arrivees[k], typeFile, heuristique,
+                        sauts, bidirectionnelle, null);
+            }
+            meilleur = Math.min(meilleur, System.nanoTime() - debut);
+        }
+        if (reference != null && !Arrays.equals(reference, temps)) {
+            System.out.println("  ERREUR : " + nom + " ne trouve pas les mêmes temps de trajet");
+        }
+        System.out.printf("  %-12s %10.2f µs/requête%n", nom, meilleur / 1000.0 / nbRequetes);
+        return reference == null ? temps : reference;
+    }
+
+    private static void mesurerHierarchie(Carte carte, Robot[] robots, int nbRequetes) {
+        long debut = System.nanoTime();
+        Map<CostModel, HierarchieChemins> hierarchies = new HashMap<>();
+        int nbNoeuds = 0;
+        for (Robot robot : robots) {
+            if (!hierarchies.containsKey(robot.getCostModel())) {
+                HierarchieChemins hierarchie = new HierarchieChemins(carte, robot.getCostModel());
+                hierarchies.put(robot.getCostModel(), hierarchie);
+                nbNoeuds += hierarchie.getNbNoeuds();
+            }
+        }
+        System.out.printf("  %-12s %10.2f ms de construction, %d noeuds%n", "HPA*",
+                (System.nanoTime() - debut) / 1e6, nbNoeuds);
+
+        Random aleatoire = new Random(1);
+        int nbCases = carte.getNbLignes() * carte.getNbColonnes();
+        long meilleur = Long.MAX_VALUE;
+        double surcout = 0;
+        int nbTrajets = 0;
+        for (int tour = 0; tour < NB_TOURS; tour++) {
+            aleatoire.setSeed(1);
+            long total = 0;
+            for (int k = 0; k < nbRequetes; k++) {
+                int depart = aleatoire.nextInt(nbCases);
+                int arrivee = aleatoire.nextInt(nbCases);
+                Robot robot = robots[aleatoire.nextInt(robots.length)];
+                long t = System.nanoTime();
+                int temps = chercher(carte, robot, depart, arrivee, TypeFile.DIAL, Heuristique.MANHATTAN, false,
+                        false, hierarchies.get(robot.getCostModel()));
+                total += System.nanoTime() - t;
+                if (tour == 0 && temps > 0) {
+                    surcout += (double) temps / chercher(carte, robot, depart, arrivee, TypeFile.DIAL, Heuristique.MANHATTAN,
+                            false, false, null) - 1;
+                    nbTrajets++;
+                }
+            }
+            meilleur = Math.min(meilleur, total);
+        }
+        System.out.printf("  %-12s %10.2f µs/requête, surcoût moyen %.2f %%%n", "HPA*",
+                meilleur / 1000.0 / nbRequetes, 100 * surcout / Math.max(1, nbTrajets));
+    }
+
+    /**
+     * Hiérarchies de contraction, par classe de coût : durée du précalcul, taille et mémoire, puis
+     * temps d'une requête (temps de trajet seul, puis déroulement du chemin) comparé à aetoile avec
+     * ses réglages par défaut, et nombre de requêtes à partir duquel le précalcul est rentabilisé.
+     */
+    private static void mesurerContraction(Carte carte, Robot[] robots, int nbRequetes) {
+        Random aleatoire = new Random(1);
+        int nbCases = carte.getNbLignes() * carte.getNbColonnes();
+        int nbColonnes = carte.getNbColonnes();
+        List<CostModel> modeles = new ArrayList<>();
+        for (Robot robot : robots) {
+            if (modeles.contains(robot.getCostModel())) {
+                continue;
+            }
+            modeles.add(robot.getCostModel());
+            HierarchieContractee hierarchie = new HierarchieContractee(carte, robot.getCostModel());
+            System.out.printf("  %-12s %s : %s%n", "CH", robot.getClasseRobot(), hierarchie);
+            int[] departs = new int[nbRequetes];
+            int[] arrivees = new int[nbRequetes];
+            for (int k = 0; k < nbRequetes; k++) {
+                departs[k] = aleatoire.nextInt(nbCases);
+                arrivees[k] = aleatoire.nextInt(nbCases);
+            }
+            long meilleurRequete = Long.MAX_VALUE;
+            long meilleurChemin = Long.MAX_VALUE;
+            long meilleurAetoile = Long.MAX_VALUE;
+            boolean identiques = true;
+            for (int tour = 0; tour < NB_TOURS; tour++) {
+                long requete = 0;
+                long chemin = 0;
+                long etoile = 0;
+                for (int k = 0; k < nbRequetes; k++) {
+                    Case depart = carte.getCase(departs[k] / nbColonnes, departs[k] % nbColonnes);
+                    Case arrivee = carte.getCase(arrivees[k] / nbColonnes, arrivees[k] % nbColonnes);
+                    long t = System.nanoTime();
+                    hierarchie.chercher(depart, arrivee);
+                    requete += System.nanoTime() - t;
+                    t = System.nanoTime();
+                    hierarchie.getChemin();
+                    chemin += System.nanoTime() - t;
+                    t = System.nanoTime();
+                    int temps = chercher(carte, robot, departs[k], arrivees[k], TypeFile.TAS_BINAIRE,
+                            Heuristique.MANHATTAN, true, false, null);
+                    etoile += System.nanoTime() - t;
+                    identiques &= temps == hierarchie.getTime();
+                }
+                meilleurRequete = Math.min(meilleurRequete, requete);
+                meilleurChemin = Math.min(meilleurChemin, chemin);
+                meilleurAetoile = Math.min(meilleurAetoile, etoile);
+            }
+            double gain = (meilleurAetoile - meilleurRequete - meilleurChemin) / 1000.0 / nbRequetes;
+            System.out.printf("  %-12s %10.2f µs/requête + %.2f µs/chemin, aetoile %.2f µs/requête%s, %s%n", "",
+                    meilleurRequete / 1000.0 / nbRequetes, meilleurChemin / 1000.0 / nbRequetes,
+                    meilleurAetoile / 1000.0 / nbRequetes, identiques ? "" : " TEMPS DIFFÉRENTS",
+                    gain > 0 ? String.format("rentabilisé après %.0f requêtes", hierarchie.getDureePretraitement() * 1000 / gain)
+                            : "jamais rentabilisé");
+        }
+    }
+
+    private static int chercher(Carte carte, Robot robot, int depart, int arrivee, TypeFile typeFile,
+            Heuristique heuristique, boolean sauts, boolean bidirectionnelle, HierarchieChemins hierarchie) {
+        return rechercher(carte, robot, depart, arrivee, typeFile, heuristique, sauts, bidirectionnelle, 1,
+                hierarchie).getTime();
+    }
+
+    private static aetoile rechercher(Carte carte, Robot robot, int depart, int arrivee, TypeFile typeFile,
+            Heuristique heuristique, boolean sauts, boolean bidirectionnelle, double epsilon,
+            HierarchieChemins hierarchie) {
+        int nbColonnes = carte.getNbColonnes();
+        int ligne = robot.getLigne();
+        int colonne = robot.getColonne();
+        robot.setLigne(depart / nbColonnes);
+        robot.setColonne(depart % nbColonnes);
+        aetoile recherche = new aetoile();
+        recherche.setTypeFile(typeFile);
+        recherche.setHeuristique(heuristique);
+        recherche.setRechercheParSauts(sauts);
+        recherche.setRechercheBidirectionnelle(bidirectionnelle);
+        recherche.setEpsilon(epsilon);
+        recherche.setHierarchie(hierarchie);
+        recherche.aEtoileSearch(carte, carte.getCase(arrivee / nbColonnes, arrivee % nbColonnes), robot);
+        robot.setLigne(ligne);
+        robot.setColonne(colonne);
+        return recherche;
+    }
+
+    /**
+     * Génère une carte carrée dont les terrains sont tirés au hasard par plaques,
+     * pour obtenir des zones praticables reliées par des couloirs.
+     */
+    static Carte grilleAleatoire(int taille, long graine) {
+        return grilleAleatoire(taille, taille, graine);
+    }
+
+    /**
+     * Génère une carte rectangulaire tirée au hasard comme grilleAleatoire(int, long).
+     */
+    static Carte grilleAleatoire(int nbLignes, int nbColonnes, long graine) {
+        Random aleatoire = new Random(graine);
+        Carte carte = new Carte(nbLignes, nbColonnes, 10000);
+        NatureTerrain[] natures = NatureTerrain.values();
+        for (int i = 0; i < nbLignes; i++) {
+            for (int j = 0; j < nbColonnes; j++) {
+                NatureTerrain nature = NatureTerrain.TERRAIN_LIBRE;
+                int tirage = aleatoire.nextInt(100);
+                if (tirage < 30) {
+                    nature = natures[aleatoire.nextInt(natures.length)];
+                } else if (i > 0 && tirage < 70) {
+                    nature = carte.getCase(i - 1, j).getNature();
+                }
+                carte.setCase(new Case(i, j, nature), i, j);
+                if (nature == NatureTerrain.EAU) {
+                    carte.ajouterEau(carte.getCase(i, j));
+                }
+            }
+        }
+        return carte;
+    }
+
+    /**
+     * Génère une carte carrée de terrain libre parsemée de blocs rectangulaires de forêt,
+     * de roche ou d'eau, qui couvrent environ un cinquième de la surface.
+     */
+    static Carte grilleOuverte(int taille, long graine) {
+        Random aleatoire = new Random(graine);
+        NatureTerrain[] obstacles = {NatureTerrain.FORET, NatureTerrain.ROCHE, NatureTerrain.EAU};
+        NatureTerrain[][] natures = new NatureTerrain[taille][taille];
+        for (NatureTerrain[] ligne : natures) {
+            Arrays.fill(ligne, NatureTerrain.TERRAIN_LIBRE);
+        }
+        int nbBlocs = taille * taille / 500;
+        for (int b = 0; b < nbBlocs; b++) {
+            int hauteur = 1 + aleatoire.nextInt(20);
+            int largeur = 1 + aleatoire.nextInt(20);
+            int i0 = aleatoire.nextInt(taille - hauteur + 1);
+            int j0 = aleatoire.nextInt(taille - largeur + 1);
+            NatureTerrain nature = obstacles[aleatoire.nextInt(obstacles.length)];
+            for (int i = i0; i < i0 + hauteur; i++) {
+                Arrays.fill(natures[i], j0, j0 + largeur, nature);
+            }
+        }
+        Carte carte = new Carte(taille, taille, 10000);
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                carte.setCase(new Case(i, j, natures[i][j]), i, j);
+                if (natures[i][j] == NatureTerrain.EAU) {
+                    carte.ajouterEau(carte.getCase(i, j));
+                }
+            }
+        }
+        return carte;
+    }
+
+    static Robot[] robotsDeChaqueType(Carte carte) {
+        return new Robot[] {
+            new Drone(0, 0, 100, 0, carte, classeRobot.DRONE),
+            new Roue(0, 0, 80, 1, carte, classeRobot.ROUE),
+            new Chenille(0, 0, 60, 2, carte, classeRobot.CHENILLE),
+            new Pattes(0, 0, 3, carte, classeRobot.PATTES)
+        };
+    }
+}
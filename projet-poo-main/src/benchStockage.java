@@ -0,0 +1,265 @@
+import io.LecteurDonnees;
+import robots.*;
+import carte.*;
+import plus_court_chemin.Accessibilite;
+import plus_court_chemin.aetoile;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.zip.DataFormatException;
+
+/**
+ * Compare une carte dont le terrain est un tableau du tas Java et la même carte projetée
+ * depuis un fichier (StockageProjete) : temps de recherche de aetoile, avec vérification que
+ * les temps de trajet sont identiques. Mesure ensuite, sur une carte de 20000 x 20000 cases
+ * projetée, le temps d'ouverture et la mémoire résidente du processus avant et après le
+ * déplacement d'un robot, pour vérifier que seules les pages touchées sont chargées.
+ *
+ * Compare enfin la mémoire occupée par le terrain selon le stockage : l'ancien tableau Case[][]
+ * d'objets, un octet par case (StockageTableau) et les plages de StockageRLE, sur les cartes du
+ * dossier cartes/ agrandies à 4000 x 4000 cases et plus (chaque case devient un carré de cases),
+ * ainsi que les temps de lecture d'une case et de construction de l'accessibilité, qui lit le
+ * terrain plage par plage.
+ */
+public class benchStockage {
+
+    public static void main(String[] args) throws IOException, DataFormatException {
+        for (String nom : new String[] {"spiralOfMadness-50x50.map", "desertOfDeath-20x20.map"}) {
+            Carte modele = LecteurDonnees.lire("cartes/" + nom).getCarte();
+            for (int taille : new int[] {4000, 16000}) {
+                comparerMemoire(nom, modele, taille);
+            }
+        }
+        Path dossier = Files.createTempDirectory("terrain");
+        try {
+            comparer(benchChemin.grilleAleatoire(1000, 42), dossier.resolve("aleatoire-1000.terrain"), 200);
+            grandeCarte(dossier.resolve("plaine-20000.terrain"), 20000);
+        } finally {
+            try (var fichiers = Files.list(dossier)) {
+                for (Path fichier : (Iterable<Path>) fichiers::iterator) {
+                    Files.delete(fichier);
+                }
+            }
+            Files.delete(dossier);
+        }
+    }
+
+    private static void comparer(Carte carte, Path fichier, int nbRequetes) throws IOException {
+        ecrireTerrain(carte, fichier);
+        Carte projetee = new Carte(carte.getNbLignes(), carte.getNbColonnes(), carte.getTailleCases(),
+                StockageProjete.ouvrir(fichier, 0, carte.getNbLignes() * carte.getNbColonnes(),
+                        FileChannel.MapMode.READ_ONLY));
+        System.out.println("\n" + fichier.getFileName() + " (" + carte.getNbLignes() + "x" + carte.getNbColonnes()
+                + ", " + nbRequetes + " requêtes par classe)");
+        System.out.printf("  %-10s %14s %14s %s%n", "classe", "tableau", "projeté", "");
+        Robot[] robotsTableau = benchChemin.robotsDeChaqueType(carte);
+        Robot[] robotsProjetes = benchChemin.robotsDeChaqueType(projetee);
+        for (int r = 0; r < robotsTableau.length; r++) {
+            Random aleatoire = new Random(r);
+            int[] requetes = new int[4 * nbRequetes];
+            for (int k = 0; k < requetes.length; k++) {
+                requetes[k] = aleatoire.nextInt(k % 2 == 0 ? carte.getNbLignes() : carte.getNbColonnes());
+            }
+            // un premier passage pour la compilation à la volée, puis la mesure
+            chercher(carte, robotsTableau[r], requetes, null);
+            int[] temps = new int[nbRequetes];
+            long dureeTableau = chercher(carte, robotsTableau[r], requetes, temps);
+            int[] tempsProjetes = new int[nbRequetes];
+            chercher(projetee, robotsProjetes[r], requetes, null);
+            long dureeProjetee = chercher(projetee, robotsProjetes[r], requetes, tempsProjetes);
+            System.out.printf("  %-10s %9.1f µs/r %9.1f µs/r %s%n", robotsTableau[r].getClasseRobot(),
+                    dureeTableau / 1e3 / nbRequetes, dureeProjetee / 1e3 / nbRequetes,
+                    java.util.Arrays.equals(temps, tempsProjetes) ? "" : "TEMPS DIFFÉRENTS");
+        }
+    }
+
+    private static long chercher(Carte carte, Robot robot, int[] requetes, int[] temps) {
+        aetoile recherche = new aetoile();
+        long debut = System.nanoTime();
+        for (int k = 0; 4 * k < requetes.length; k++) {
+            robot.setLigne(requetes[4 * k]);
+            robot.setColonne(requetes[4 * k + 1]);
+            recherche.aEtoileSearch(carte, carte.getCase(requetes[4 * k + 2], requetes[4 * k + 3]), robot);
+            if (temps != null) {
+                temps[k] = recherche.getTime();
+            }
+        }
+        return System.nanoTime() - debut;
+    }
+
+    private static void grandeCarte(Path fichier, int taille) throws IOException {
+        StockageProjete.creer(fichier, taille * taille, NatureTerrain.TERRAIN_LIBRE);
+        long residentAvant = memoireResidente();
+        long debut = System.nanoTime();
+        Carte carte = new Carte(taille, taille, 10000,
+                StockageProjete.ouvrir(fichier, 0, taille * taille, FileChannel.MapMode.READ_WRITE));
+        long dureeOuverture = System.nanoTime() - debut;
+        // un lac au milieu de la carte, et un robot à roues qui tourne autour pour s'y remplir
+        int centre = taille / 2;
+        for (int i = centre - 50; i < centre + 50; i++) {
+            for (int j = centre - 50; j < centre + 50; j++) {
+                carte.setNature(i, j, NatureTerrain.EAU);
+            }
+        }
+        Robot robot = new Roue(centre - 51, centre - 51, 80, 1, carte, classeRobot.ROUE);
+        Direction[] tour = {Direction.EST, Direction.SUD, Direction.OUEST, Direction.NORD};
+        int nbDeplacements = 0;
+        int nbRemplissages = 0;
+        debut = System.nanoTime();
+        for (Direction direction : tour) {
+            for (int pas = 0; pas < 101; pas++) {
+                robot.deplacer(direction);
+                nbDeplacements++;
+                if (carte.estProcheEau(robot.getLigne(), robot.getColonne())) {
+                    robot.remplir(carte.getCase(robot.getLigne(), robot.getColonne()));
+                    nbRemplissages++;
+                }
+            }
+        }
+        long dureeTour = System.nanoTime() - debut;
+        long residentApres = memoireResidente();
+        System.out.println("\nplaine " + taille + "x" + taille + " projetée (" + (long) taille * taille / (1 << 20)
+                + " Mio de terrain)");
+        System.out.printf("  ouverture %.2f ms, %d déplacements et %d remplissages en %.2f ms%n",
+                dureeOuverture / 1e6, nbDeplacements, nbRemplissages, dureeTour / 1e6);
+        if (residentAvant >= 0) {
+            System.out.printf("  mémoire résidente : %d Mio avant l'ouverture, %d Mio après le tour du lac%n",
+                    residentAvant >> 20, residentApres >> 20);
+        }
+    }
+
+    private static void comparerMemoire(String nom, Carte modele, int taille) {
+        System.out.println("\n" + nom + " agrandie à " + taille + "x" + taille);
+        int nbCases = taille * taille;
+        if (taille <= 4000) {
+            long avant = memoireUtilisee();
+            Case[][] objets = new Case[taille][taille];
+            for (int i = 0; i < taille; i++) {
+                for (int j = 0; j < taille; j++) {
+                    objets[i][j] = new Case(i, j, agrandie(modele, taille, i, j));
+                }
+            }
+            long occupee = memoireUtilisee() - avant;
+            System.out.printf("  %-16s %10.1f Mio %8.2f octets/case%n", "Case[][]", occupee / 1048576.0,
+                    occupee / (double) nbCases);
+            Reference.reachabilityFence(objets);
+        }
+        StockageTableau tableau = null;
+        StockageRLE plages = null;
+        for (int k = 0; k < 2; k++) {
+            long avant = memoireUtilisee();
+            StockageTerrain stockage = (k == 0) ? new StockageTableau(nbCases, NatureTerrain.TERRAIN_LIBRE)
+                    : new StockageRLE(taille, taille, NatureTerrain.TERRAIN_LIBRE);
+            for (int i = 0; i < taille; i++) {
+                for (int j = 0; j < taille; j++) {
+                    stockage.ecrire(i * taille + j, (byte) agrandie(modele, taille, i, j).ordinal());
+                }
+            }
+            if (k == 0) {
+                tableau = (StockageTableau) stockage;
+            } else {
+                plages = (StockageRLE) stockage;
+                plages.compacter();
+            }
+            long occupee = memoireUtilisee() - avant;
+            System.out.printf("  %-16s %10.1f Mio %8.3f octets/case%s%n", stockage.getClass().getSimpleName(),
+                    occupee / 1048576.0, occupee / (double) nbCases,
+                    k == 0 ? "" : " (" + plages.getNbPlages() + " plages)");
+        }
+        Random aleatoire = new Random(7);
+        int[] positions = new int[2 * 1000000];
+        for (int k = 0; k < positions.length; k++) {
+            positions[k] = aleatoire.nextInt(taille);
+        }
+        CostModel roues = new Roue(0, 0, 80, 1, modele, classeRobot.ROUE).getCostModel();
+        for (StockageTerrain stockage : new StockageTerrain[] {tableau, plages}) {
+            Carte carte = new Carte(taille, taille, 10000, stockage);
+            long lecture = mesurer(() -> {
+                int somme = 0;
+                for (int k = 0; k < positions.length; k += 2) {
+                    somme += carte.getNatureOrdinal(positions[k], positions[k + 1]);
+                }
+                return somme;
+            });
+            // au-delà, les composantes (un int par case) ne tiennent plus dans le tas (-Xmx2g dans le Makefile)
+            long accessibilite = taille > 4000 ? -1 : mesurer(() -> {
+                // une carte neuve à chaque fois, pour ne pas relire l'accessibilité en cache
+                Carte copie = new Carte(taille, taille, 10000, stockage);
+                return Accessibilite.pour(copie, roues).hashCode();
+            });
+            System.out.printf("  %-16s lecture %6.1f ns/case%s%n", stockage.getClass().getSimpleName(),
+                    lecture / (positions.length / 2.0), accessibilite < 0 ? ""
+                            : String.format(", accessibilité des roues %8.1f ms", accessibilite / 1e6));
+        }
+    }
+
+    // Nature d'une case de la carte agrandie : chaque case du modèle devient un carré de cases.
+    private static NatureTerrain agrandie(Carte modele, int taille, int i, int j) {
+        return modele.getNature((int) ((long) i * modele.getNbLignes() / taille),
+                (int) ((long) j * modele.getNbColonnes() / taille));
+    }
+
+    // Meilleure durée (en ns) de trois exécutions.
+    private static long mesurer(IntSupplier calcul) {
+        long meilleure = Long.MAX_VALUE;
+        int resultat = 0;
+        for (int tour = 0; tour < 3; tour++) {
+            long debut = System.nanoTime();
+            resultat += calcul.getAsInt();
+            meilleure = Math.min(meilleure, System.nanoTime() - debut);
+        }
+        if (resultat == 42) {
+            System.out.print("");
+        }
+        return meilleure;
+    }
+
+    private static long memoireUtilisee() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 3; k++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Écrit la nature de chaque case, un octet par case, dans l'ordre des identifiants de case.
+    private static void ecrireTerrain(Carte carte, Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer ligne = ByteBuffer.allocate(carte.getNbColonnes());
+            for (int i = 0; i < carte.getNbLignes(); i++) {
+                ligne.clear();
+                for (int j = 0; j < carte.getNbColonnes(); j++) {
+                    ligne.put((byte) carte.getNatureOrdinal(i, j));
+                }
+                ligne.flip();
+                while (ligne.hasRemaining()) {
+                    canal.write(ligne);
+                }
+            }
+        }
+    }
+
+    // Taille résidente du processus lue dans /proc (Linux), ou -1 si elle n'est pas disponible.
+    private static long memoireResidente() {
+        try {
+            List<String> lignes = Files.readAllLines(Path.of("/proc/self/status"));
+            for (String ligne : lignes) {
+                if (ligne.startsWith("VmRSS:")) {
+                    return Long.parseLong(ligne.replaceAll("[^0-9]", "")) << 10;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // pas de /proc : on n'affiche pas la mémoire résidente
+        }
+        return -1;
+    }
+}
@@ -1,6 +1,9 @@
 package carte;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -8,44 +11,181 @@ import java.util.List;
  * qui peuvent contenir des incendies ou être adjacentes à des sources d'eau.
  */
 public class Carte {
+    private static final NatureTerrain[] NATURES = NatureTerrain.values();
+
     private int nbLignes;
     private int nbColonnes;
     private int tailleCases;
+    // Nature de chaque case, rangée par identifiant ligne * nbColonnes + colonne : un octet par case.
+    private StockageTerrain natures;
+    // Cases canoniques, créées à la première demande ; une ligne n'est allouée que si l'une de ses cases est demandée.
     private Case[][] cases;
+    // Cases sur lesquelles peut se tenir un robot, indexées par le masque des natures de terrain
+    // qui lui sont accessibles (bit k pour la nature d'ordinal k) ; créées à la première demande.
+    private BitSet[] praticables;
+    // Cases dont au moins une voisine (nord, sud, est, ouest) est de l'eau : un robot terrestre s'y remplit.
+    // Construit à la première demande, et jamais si le terrain n'est pas résident en mémoire.
+    private BitSet procheEau;
     private List<Incendie> incendies;  
-    private List<Case> caseseau;
+    // Index des incendies par case : table à adressage ouvert (sondage linéaire) associant
+    // l'identifiant d'une case au rang de son incendie dans la liste incendies.
+    private int[] casesIndexees;
+    private int[] rangsIndexes;
+    private int nbIndexes;
+    private int decalage;
+    // Incendies qui brûlent encore, rangés de façon compacte : un incendie éteint est
+    // remplacé par le dernier de la liste.
+    private List<Incendie> incendiesActifs;
+    private List<Incendie> vueIncendiesActifs;
+    private List<Case> caseseau; // null tant que les cases d'eau n'ont pas été cherchées dans le terrain
+    private int version; // Incrémenté à chaque modification du terrain.
+    private List<ObservateurCarte> observateurs;
 
     /**
      * Constructeur de la classe Carte.
      * Initialise la carte avec un nombre de lignes, de colonnes et une taille de case,
-     * puis crée toutes les cases comme étant des terrains libres.
+     * toutes les cases étant initialement des terrains libres.
      *
      * @param nbLignes Le nombre de lignes de la carte.
      * @param nbColonnes Le nombre de colonnes de la carte.
      * @param tailleCases La taille de chaque case sur la carte.
      */
     public Carte(int nbLignes, int nbColonnes, int tailleCases) {
+        this(nbLignes, nbColonnes, tailleCases, new StockageTableau(nombreDeCases(nbLignes, nbColonnes),
+                NatureTerrain.TERRAIN_LIBRE));
+        this.caseseau = new ArrayList<>();
+    }
+
+    /**
+     * Crée une carte dont le terrain est lu dans un stockage existant, par exemple un fichier
+     * projeté en mémoire (voir StockageProjete). La création ne parcourt pas le terrain : la
+     * liste des cases d'eau n'est cherchée qu'au premier appel à getCasesEau.
+     *
+     * @param nbLignes Le nombre de lignes de la carte.
+     * @param nbColonnes Le nombre de colonnes de la carte.
+     * @param tailleCases La taille de chaque case sur la carte.
+     * @param stockage Le stockage du terrain, d'une case par octet.
+     * @throws IllegalArgumentException Si la taille du stockage ne correspond pas aux dimensions de la carte.
+     */
+    public Carte(int nbLignes, int nbColonnes, int tailleCases, StockageTerrain stockage) {
+        if (stockage.getTaille() != nombreDeCases(nbLignes, nbColonnes)) {
+            throw new IllegalArgumentException("Le stockage contient " + stockage.getTaille()
+                    + " cases au lieu de " + nbLignes + " x " + nbColonnes + ".");
+        }
         this.nbLignes = nbLignes;
         this.nbColonnes = nbColonnes;
         this.tailleCases = tailleCases;
-        this.cases = new Case[nbLignes][nbColonnes];
+        this.natures = stockage;
+        this.cases = new Case[nbLignes][];
+        this.praticables = new BitSet[1 << NATURES.length];
         this.incendies = new ArrayList<>();
-        this.caseseau = new ArrayList<>();
-        
-        for (int i = 0; i < nbLignes; i++) {
-            for (int j = 0; j < nbColonnes; j++) {
-                this.cases[i][j] = new Case(i, j, NatureTerrain.TERRAIN_LIBRE); 
-            }
+        this.incendiesActifs = new ArrayList<>();
+        this.vueIncendiesActifs = Collections.unmodifiableList(this.incendiesActifs);
+        this.casesIndexees = new int[16];
+        this.rangsIndexes = new int[16];
+        this.decalage = 32 - 4;
+        Arrays.fill(this.casesIndexees, -1);
+        this.observateurs = new ArrayList<>();
+    }
+
+    // Les cases sont identifiées par un int : la carte ne peut pas dépasser Integer.MAX_VALUE cases.
+    private static int nombreDeCases(int nbLignes, int nbColonnes) {
+        long nbCases = (long) nbLignes * nbColonnes;
+        if (nbLignes < 0 || nbColonnes < 0 || nbCases > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dimensions de carte invalides : " + nbLignes + " x " + nbColonnes);
         }
+        return (int) nbCases;
     }
 
     /**
-     * Ajoute un incendie à la liste des incendies sur la carte.
+     * Ajoute un incendie à la liste des incendies sur la carte. La carte est ensuite prévenue
+     * par l'incendie lorsqu'il s'éteint ou se rallume, pour tenir à jour la liste des incendies actifs.
      *
      * @param incendie L'incendie à ajouter.
      */
     public void ajouterIncendie(Incendie incendie) {
+        incendie.setCarte(this);
         this.incendies.add(incendie);
+        int cellule = incendie.getLigne() * nbColonnes + incendie.getColonne();
+        // Comme avec l'ancien parcours de la liste, c'est le premier incendie d'une case qui est retenu.
+        if (rangIndexe(cellule) == -1) {
+            indexer(cellule, this.incendies.size() - 1);
+        }
+        if (incendie.getLitres() != 0) {
+            activer(incendie);
+        }
+    }
+
+    /**
+     * Appelée par un incendie de la carte dont la quantité d'eau nécessaire vient de passer
+     * à zéro ou d'en repartir.
+     *
+     * @param incendie L'incendie modifié.
+     */
+    void etatIncendieModifie(Incendie incendie) {
+        boolean actif = incendie.getRangActif() != -1;
+        if (incendie.getLitres() != 0 && !actif) {
+            activer(incendie);
+        } else if (incendie.getLitres() == 0 && actif) {
+            desactiver(incendie);
+        }
+    }
+
+    private void activer(Incendie incendie) {
+        incendie.setRangActif(this.incendiesActifs.size());
+        this.incendiesActifs.add(incendie);
+    }
+
+    private void desactiver(Incendie incendie) {
+        int rang = incendie.getRangActif();
+        Incendie dernier = this.incendiesActifs.remove(this.incendiesActifs.size() - 1);
+        if (dernier != incendie) {
+            this.incendiesActifs.set(rang, dernier);
+            dernier.setRangActif(rang);
+        }
+        incendie.setRangActif(-1);
+    }
+
+    private int position(int cellule) {
+        return (cellule * 0x9E3779B9) >>> this.decalage;
+    }
+
+    private int rangIndexe(int cellule) {
+        int masque = this.casesIndexees.length - 1;
+        for (int p = position(cellule); ; p = (p + 1) & masque) {
+            int occupant = this.casesIndexees[p];
+            if (occupant == cellule) {
+                return this.rangsIndexes[p];
+            }
+            if (occupant == -1) {
+                return -1;
+            }
+        }
+    }
+
+    private void indexer(int cellule, int rang) {
+        if (2 * (this.nbIndexes + 1) > this.casesIndexees.length) {
+            int[] anciennesCases = this.casesIndexees;
+            int[] anciensRangs = this.rangsIndexes;
+            this.casesIndexees = new int[2 * anciennesCases.length];
+            this.rangsIndexes = new int[2 * anciennesCases.length];
+            this.decalage--;
+            this.nbIndexes = 0;
+            Arrays.fill(this.casesIndexees, -1);
+            for (int p = 0; p < anciennesCases.length; p++) {
+                if (anciennesCases[p] != -1) {
+                    indexer(anciennesCases[p], anciensRangs[p]);
+                }
+            }
+        }
+        int masque = this.casesIndexees.length - 1;
+        int p = position(cellule);
+        while (this.casesIndexees[p] != -1) {
+            p = (p + 1) & masque;
+        }
+        this.casesIndexees[p] = cellule;
+        this.rangsIndexes[p] = rang;
+        this.nbIndexes++;
     }
 
     /**
@@ -54,18 +194,67 @@ public class Carte {
      * @param eau La case contenant de l'eau à ajouter.
      */
     public void ajouterEau(Case eau){
-        this.caseseau.add(eau);
+        getCasesEau().add(eau);
     }
 
     /**
      * Retourne la case située aux coordonnées spécifiées (ligne et colonne).
+     * La case retournée est canonique : deux appels pour la même position renvoient
+     * le même objet tant que la case n'a pas été modifiée.
      *
      * @param ligne La ligne de la case.
      * @param colonne La colonne de la case.
      * @return La case située à la position donnée.
      */
     public Case getCase(int ligne, int colonne) {
-        return this.cases[ligne][colonne];
+        Case[] rangee = this.cases[ligne];
+        if (rangee == null) {
+            rangee = new Case[nbColonnes];
+            this.cases[ligne] = rangee;
+        }
+        Case resultat = rangee[colonne];
+        if (resultat == null) {
+            resultat = new Case(ligne, colonne, getNature(ligne, colonne));
+            rangee[colonne] = resultat;
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne la nature du terrain d'une case, sans passer par un objet Case.
+     *
+     * @param ligne La ligne de la case.
+     * @param colonne La colonne de la case.
+     * @return La nature du terrain de la case.
+     */
+    public NatureTerrain getNature(int ligne, int colonne) {
+        return NATURES[this.natures.lire(ligne * nbColonnes + colonne)];
+    }
+
+    /**
+     * Retourne la colonne qui suit la plage de cases de même nature commençant à la case donnée,
+     * sur la même ligne. Avec un stockage compressé par plages (StockageRLE), la réponse ne
+     * demande pas de parcourir la plage.
+     *
+     * @param ligne La ligne de la case.
+     * @param colonne La colonne de la première case de la plage.
+     * @return La première colonne après la plage, au plus nbColonnes.
+     */
+    public int finUniforme(int ligne, int colonne) {
+        int debutLigne = ligne * nbColonnes;
+        return this.natures.finUniforme(debutLigne + colonne, debutLigne + nbColonnes) - debutLigne;
+    }
+
+    /**
+     * Retourne le rang (ordinal) de la nature du terrain d'une case. C'est l'accès à
+     * utiliser dans les boucles des recherches de chemin, indexées par les durées du CostModel.
+     *
+     * @param ligne La ligne de la case.
+     * @param colonne La colonne de la case.
+     * @return L'ordinal de la nature du terrain de la case.
+     */
+    public int getNatureOrdinal(int ligne, int colonne) {
+        return this.natures.lire(ligne * nbColonnes + colonne);
     }
 
     /**
@@ -101,6 +290,15 @@ public class Carte {
      * @return La liste des cases d'eau.
      */
     public List<Case> getCasesEau() {
+        if (caseseau == null) {
+            caseseau = new ArrayList<>();
+            int eau = NatureTerrain.EAU.ordinal();
+            for (int cellule = 0; cellule < natures.getTaille(); cellule++) {
+                if (natures.lire(cellule) == eau) {
+                    caseseau.add(getCase(cellule / nbColonnes, cellule % nbColonnes));
+                }
+            }
+        }
         return caseseau;
     }
 
@@ -130,7 +328,8 @@ public class Carte {
 
     /**
      * Retourne la case voisine dans la direction spécifiée si elle existe,
-     * sinon retourne la case source.
+     * sinon retourne la case source. La case voisine est la case canonique de la carte :
+     * aucun objet n'est créé une fois qu'elle a déjà été demandée.
      *
      * @param src La case source.
      * @param dir La direction dans laquelle récupérer la case voisine.
@@ -142,13 +341,13 @@ public class Carte {
             int colonne = src.getColonne();
             switch (dir) {
                 case NORD:
-                    return new Case(ligne - 1, colonne, cases[ligne - 1][colonne].getNature());
+                    return getCase(ligne - 1, colonne);
                 case SUD:
-                    return new Case(ligne + 1, colonne, cases[ligne + 1][colonne].getNature());
+                    return getCase(ligne + 1, colonne);
                 case EST:
-                    return new Case(ligne, colonne + 1, cases[ligne][colonne + 1].getNature());
+                    return getCase(ligne, colonne + 1);
                 case OUEST:
-                    return new Case(ligne, colonne - 1, cases[ligne][colonne - 1].getNature());
+                    return getCase(ligne, colonne - 1);
             }
         }
         return src;
@@ -156,6 +355,7 @@ public class Carte {
 
     /**
      * Modifie la case située aux coordonnées spécifiées par la nouvelle case.
+     * Seule la nature du terrain de la nouvelle case est conservée.
      *
      * @param nouvelleCase La nouvelle case à insérer.
      * @param ligne La ligne de la case à modifier.
@@ -163,13 +363,159 @@ public class Carte {
      * @throws IndexOutOfBoundsException Si les coordonnées sont en dehors des limites de la carte.
      */
     public void setCase(Case nouvelleCase, int ligne, int colonne) {
+        setNature(ligne, colonne, nouvelleCase.getNature());
+    }
+
+    /**
+     * Modifie la nature du terrain de la case située aux coordonnées spécifiées.
+     * La case canonique précédente, si elle avait été créée, est remplacée à la prochaine demande.
+     *
+     * @param ligne La ligne de la case à modifier.
+     * @param colonne La colonne de la case à modifier.
+     * @param nature La nouvelle nature du terrain.
+     * @throws IndexOutOfBoundsException Si les coordonnées sont en dehors des limites de la carte.
+     */
+    public void setNature(int ligne, int colonne, NatureTerrain nature) {
         if (ligne >= 0 && ligne < nbLignes && colonne >= 0 && colonne < nbColonnes) {
-            cases[ligne][colonne] = nouvelleCase;
+            int cellule = ligne * nbColonnes + colonne;
+            boolean etaitEau = natures.lire(cellule) == NatureTerrain.EAU.ordinal();
+            natures.ecrire(cellule, (byte) nature.ordinal());
+            if (cases[ligne] != null) {
+                cases[ligne][colonne] = null;
+            }
+            for (int masque = 0; masque < praticables.length; masque++) {
+                if (praticables[masque] != null) {
+                    praticables[masque].set(cellule, (masque >> nature.ordinal() & 1) != 0);
+                }
+            }
+            if (procheEau != null && etaitEau != (nature == NatureTerrain.EAU)) {
+                // Seules les quatre voisines de la case peuvent changer de voisinage d'eau.
+                if (ligne > 0) {
+                    procheEau.set(cellule - nbColonnes, aUneVoisineEau(ligne - 1, colonne));
+                }
+                if (ligne < nbLignes - 1) {
+                    procheEau.set(cellule + nbColonnes, aUneVoisineEau(ligne + 1, colonne));
+                }
+                if (colonne > 0) {
+                    procheEau.set(cellule - 1, aUneVoisineEau(ligne, colonne - 1));
+                }
+                if (colonne < nbColonnes - 1) {
+                    procheEau.set(cellule + 1, aUneVoisineEau(ligne, colonne + 1));
+                }
+            }
+            version++;
+            for (ObservateurCarte observateur : observateurs) {
+                observateur.caseModifiee(ligne, colonne);
+            }
         } else {
             throw new IndexOutOfBoundsException("Position (" + ligne + ", " + colonne + ") en dehors des limites de la carte.");
         }
     }
 
+    private boolean aUneVoisineEau(int ligne, int colonne) {
+        int eau = NatureTerrain.EAU.ordinal();
+        int cellule = ligne * nbColonnes + colonne;
+        return (ligne > 0 && natures.lire(cellule - nbColonnes) == eau)
+                || (ligne < nbLignes - 1 && natures.lire(cellule + nbColonnes) == eau)
+                || (colonne > 0 && natures.lire(cellule - 1) == eau)
+                || (colonne < nbColonnes - 1 && natures.lire(cellule + 1) == eau);
+    }
+
+    /**
+     * Indique si une case a au moins une voisine (nord, sud, est ou ouest) qui est de l'eau,
+     * c'est-à-dire si un robot terrestre peut s'y remplir. La réponse est lue dans un index
+     * tenu à jour à chaque modification du terrain ; si le terrain n'est pas résident en mémoire,
+     * les quatre voisines sont lues directement.
+     *
+     * @param ligne La ligne de la case.
+     * @param colonne La colonne de la case.
+     * @return true si une case voisine est de l'eau, false sinon.
+     */
+    public boolean estProcheEau(int ligne, int colonne) {
+        if (procheEau == null) {
+            if (!natures.estResident()) {
+                return aUneVoisineEau(ligne, colonne);
+            }
+            procheEau = new BitSet(natures.getTaille());
+            for (int i = 0; i < nbLignes; i++) {
+                for (int j = 0; j < nbColonnes; j++) {
+                    if (aUneVoisineEau(i, j)) {
+                        procheEau.set(i * nbColonnes + j);
+                    }
+                }
+            }
+        }
+        return procheEau.get(ligne * nbColonnes + colonne);
+    }
+
+    /**
+     * Indique si la nature d'une case fait partie du masque donné, où le bit k représente la
+     * nature d'ordinal k. La réponse est lue dans l'ensemble getPraticables(masqueNatures) si le
+     * terrain est résident en mémoire, et directement dans le terrain sinon.
+     *
+     * @param masqueNatures Le masque des natures de terrain accessibles.
+     * @param ligne La ligne de la case.
+     * @param colonne La colonne de la case.
+     * @return true si la case est praticable pour ce masque, false sinon.
+     */
+    public boolean estPraticable(int masqueNatures, int ligne, int colonne) {
+        if (!natures.estResident()) {
+            return (masqueNatures >> getNatureOrdinal(ligne, colonne) & 1) != 0;
+        }
+        return getPraticables(masqueNatures).get(ligne * nbColonnes + colonne);
+    }
+
+    /**
+     * Retourne l'ensemble des cases (par identifiant ligne * nbColonnes + colonne) dont la nature
+     * fait partie du masque donné, où le bit k représente la nature d'ordinal k. Chaque classe de
+     * robots correspond à un masque : l'ensemble est construit à la première demande, puis tenu à
+     * jour à chaque modification du terrain. Il est partagé et ne doit pas être modifié.
+     *
+     * @param masqueNatures Le masque des natures de terrain accessibles.
+     * @return L'ensemble des cases praticables pour ce masque.
+     */
+    public BitSet getPraticables(int masqueNatures) {
+        BitSet resultat = praticables[masqueNatures];
+        if (resultat == null) {
+            resultat = new BitSet(natures.getTaille());
+            for (int cellule = 0; cellule < natures.getTaille(); cellule++) {
+                if ((masqueNatures >> natures.lire(cellule) & 1) != 0) {
+                    resultat.set(cellule);
+                }
+            }
+            praticables[masqueNatures] = resultat;
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne le numéro de version du terrain de la carte. Il change à chaque appel
+     * à setCase, ce qui permet aux calculs mis en cache de savoir s'ils sont encore valides.
+     *
+     * @return Le numéro de version du terrain.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Enregistre un observateur prévenu à chaque modification d'une case.
+     *
+     * @param observateur L'observateur à ajouter.
+     */
+    public void ajouterObservateur(ObservateurCarte observateur) {
+        observateurs.add(observateur);
+    }
+
+    /**
+     * Retire un observateur précédemment enregistré.
+     *
+     * @param observateur L'observateur à retirer.
+     */
+    public void retirerObservateur(ObservateurCarte observateur) {
+        observateurs.remove(observateur);
+    }
+
     /**
      * Retourne la liste des incendies présents sur la carte.
      *
@@ -179,18 +525,48 @@ public class Carte {
         return incendies;
     }
 
+    /**
+     * Retourne les incendies qui brûlent encore (quantité d'eau nécessaire non nulle),
+     * sans ordre particulier. La liste n'est pas modifiable et suit l'état des incendies.
+     *
+     * @return La liste des incendies actifs.
+     */
+    public List<Incendie> getIncendiesActifs() {
+        return vueIncendiesActifs;
+    }
+
+    /**
+     * Indique si au moins un incendie de la carte brûle encore, en temps constant.
+     *
+     * @return true s'il reste un incendie actif, false sinon.
+     */
+    public boolean resteDesIncendies() {
+        return !incendiesActifs.isEmpty();
+    }
+
     /**
      * Vérifie si un incendie est présent sur la case spécifiée.
+     * La recherche passe par l'index des incendies par case, sans parcourir la liste.
      *
      * @param c La case à vérifier.
      * @return L'incendie présent sur la case, ou null si aucun incendie n'est présent.
      */
     public Incendie incendieSurCase(Case c) {
-        for (Incendie incendie : incendies) {
-            if (incendie.getLigne() == c.getLigne() && incendie.getColonne() == c.getColonne()) {
-                return incendie;
-            }
+        return incendieSurCase(c.getLigne(), c.getColonne());
+    }
+
+    /**
+     * Vérifie si un incendie est présent sur la case située aux coordonnées spécifiées.
+     *
+     * @param ligne La ligne de la case.
+     * @param colonne La colonne de la case.
+     * @return L'incendie présent sur la case, ou null si aucun incendie n'est présent.
+     */
+    public Incendie incendieSurCase(int ligne, int colonne) {
+        if (ligne < 0 || ligne >= nbLignes || colonne < 0 || colonne >= nbColonnes) {
+            return null;
         }
-        return null;
+        int rang = rangIndexe(ligne * nbColonnes + colonne);
+        return rang == -1 ? null : incendies.get(rang);
     }
 }
@@ -7,6 +7,8 @@ package carte;
 public class Incendie {
     private Case position;            
     private int litresNecessaires;    
+    private Carte carte;              // carte prévenue quand l'incendie s'éteint ou se rallume
+    private int rangActif = -1;       // rang dans la liste des incendies actifs de la carte
     /**
      * Constructeur de la classe Incendie.
      * 
@@ -38,11 +40,28 @@ public class Incendie {
 
     /**
      * Définit la quantité d'eau nécessaire pour éteindre l'incendie.
+     * Si l'incendie s'éteint (ou se rallume), la carte à laquelle il appartient en est prévenue.
      *
      * @param litresNecessaires La nouvelle quantité d'eau nécessaire.
      */
     public void setLitres(int litresNecessaires) {
+        boolean actifAvant = this.litresNecessaires != 0;
         this.litresNecessaires = litresNecessaires;
+        if (this.carte != null && actifAvant != (litresNecessaires != 0)) {
+            this.carte.etatIncendieModifie(this);
+        }
+    }
+
+    void setCarte(Carte carte) {
+        this.carte = carte;
+    }
+
+    int getRangActif() {
+        return this.rangActif;
+    }
+
+    void setRangActif(int rangActif) {
+        this.rangActif = rangActif;
     }
 
     /**
@@ -0,0 +1,16 @@
+package carte;
+
+/**
+ * L'interface ObservateurCarte permet d'être prévenu des modifications du terrain d'une carte,
+ * par exemple pour mettre à jour localement des calculs de chemins mis en cache.
+ */
+public interface ObservateurCarte {
+
+    /**
+     * Appelée après le remplacement d'une case de la carte.
+     *
+     * @param ligne   La ligne de la case modifiée.
+     * @param colonne La colonne de la case modifiée.
+     */
+    void caseModifiee(int ligne, int colonne);
+}
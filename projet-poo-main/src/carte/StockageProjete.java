@@ -0,0 +1,125 @@
+package carte;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * La classe StockageProjete lit le terrain directement dans un fichier projeté en mémoire
+ * (FileChannel.map), à raison d'un octet par case. L'ouverture ne lit rien : c'est le système
+ * qui charge les pages du fichier à mesure que les robots et les recherches de chemin touchent
+ * les cases correspondantes, et qui peut les libérer ensuite. Les cartes de plusieurs centaines
+ * de millions de cases tiennent ainsi hors du tas Java.
+ *
+ * Le fichier est projeté par tranches de 1 Gio, la taille d'un MappedByteBuffer étant limitée à
+ * 2 Gio. Les octets ne sont pas vérifiés à l'ouverture, ce qui demanderait de tout lire : un octet
+ * qui n'est pas l'ordinal d'une NatureTerrain provoque une erreur à la lecture de la case.
+ */
+public final class StockageProjete implements StockageTerrain {
+
+    private static final int BITS_TRANCHE = 30;
+    private static final int MASQUE_TRANCHE = (1 << BITS_TRANCHE) - 1;
+
+    private final MappedByteBuffer[] tranches;
+    private final int taille;
+
+    private StockageProjete(MappedByteBuffer[] tranches, int taille) {
+        this.tranches = tranches;
+        this.taille = taille;
+    }
+
+    /**
+     * Projette en mémoire le terrain d'un fichier existant.
+     *
+     * @param fichier Le fichier contenant un octet par case.
+     * @param debut   La position dans le fichier du premier octet de terrain (après un en-tête éventuel).
+     * @param taille  Le nombre de cases.
+     * @param mode    Le mode de projection : READ_ONLY, READ_WRITE (les modifications de la carte sont
+     *                écrites dans le fichier) ou PRIVATE (elles restent propres au processus).
+     * @return Le stockage projeté.
+     * @throws IOException Si le fichier ne peut pas être ouvert ou s'il est trop court.
+     */
+    public static StockageProjete ouvrir(Path fichier, long debut, int taille, FileChannel.MapMode mode)
+            throws IOException {
+        // FileChannel.map exige un canal ouvert en écriture pour PRIVATE, même si le fichier n'est jamais modifié.
+        StandardOpenOption[] options = (mode != FileChannel.MapMode.READ_ONLY)
+                ? new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[] {StandardOpenOption.READ};
+        try (FileChannel canal = FileChannel.open(fichier, options)) {
+            if (canal.size() < debut + taille) {
+                throw new IOException("Fichier " + fichier + " trop court : " + canal.size() + " octets pour "
+                        + taille + " cases à partir de la position " + debut);
+            }
+            MappedByteBuffer[] tranches = new MappedByteBuffer[(int) (((long) taille + MASQUE_TRANCHE) >> BITS_TRANCHE)];
+            for (int t = 0; t < tranches.length; t++) {
+                long position = (long) t << BITS_TRANCHE;
+                long longueur = Math.min(1L << BITS_TRANCHE, taille - position);
+                tranches[t] = canal.map(mode, debut + position, longueur);
+            }
+            // La projection reste valide une fois le canal fermé.
+            return new StockageProjete(tranches, taille);
+        }
+    }
+
+    /**
+     * Crée (ou écrase) un fichier de terrain dont toutes les cases ont la même nature,
+     * puis le projette en lecture et écriture.
+     *
+     * @param fichier Le fichier à créer.
+     * @param taille  Le nombre de cases.
+     * @param nature  La nature de toutes les cases.
+     * @return Le stockage projeté sur le nouveau fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public static StockageProjete creer(Path fichier, int taille, NatureTerrain nature) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] bloc = new byte[1 << 20];
+            Arrays.fill(bloc, (byte) nature.ordinal());
+            ByteBuffer tampon = ByteBuffer.wrap(bloc);
+            for (long ecrits = 0; ecrits < taille; ecrits += bloc.length) {
+                tampon.clear().limit((int) Math.min(bloc.length, taille - ecrits));
+                while (tampon.hasRemaining()) {
+                    canal.write(tampon);
+                }
+            }
+        }
+        return ouvrir(fichier, 0, taille, FileChannel.MapMode.READ_WRITE);
+    }
+
+    /**
+     * Demande l'écriture sur le disque des modifications faites en mode READ_WRITE.
+     */
+    public void forcer() {
+        for (MappedByteBuffer tranche : this.tranches) {
+            if (!tranche.isReadOnly()) {
+                tranche.force();
+            }
+        }
+    }
+
+    @Override
+    public int getTaille() {
+        return this.taille;
+    }
+
+    @Override
+    public byte lire(int cellule) {
+        return this.tranches[cellule >>> BITS_TRANCHE].get(cellule & MASQUE_TRANCHE);
+    }
+
+    @Override
+    public void ecrire(int cellule, byte ordinal) {
+        this.tranches[cellule >>> BITS_TRANCHE].put(cellule & MASQUE_TRANCHE, ordinal);
+    }
+
+    @Override
+    public boolean estResident() {
+        return false;
+    }
+}
@@ -0,0 +1,181 @@
+package carte;
+
+import java.util.Arrays;
+
+/**
+ * La classe StockageRLE compresse le terrain ligne par ligne en plages de cases de même nature
+ * (codage par plages, ou run-length encoding). Les grandes cartes faites surtout de longues
+ * plaines, de lacs ou de déserts tiennent ainsi en quelques octets par plage au lieu d'un octet
+ * par case.
+ *
+ * Chaque plage est un entier : la colonne de sa première case, décalée de trois bits, suivie de
+ * l'ordinal de sa nature. Les plages d'une ligne sont triées par colonne, si bien que la nature
+ * d'une case s'obtient par une recherche dichotomique dans sa ligne, en O(log du nombre de plages).
+ * Une modification découpe ou fusionne les plages de la ligne ; écrire les cases d'une ligne de
+ * gauche à droite, comme le fait la lecture d'une carte, ne coûte qu'un ajout en fin de ligne.
+ */
+public final class StockageRLE implements StockageTerrain {
+
+    private static final int BITS_NATURE = 3;
+    private static final int MASQUE_NATURE = (1 << BITS_NATURE) - 1;
+
+    private final int nbColonnes;
+    private final int taille;
+    private final int[][] plages;
+    private final int[] nbPlages;
+
+    /**
+     * Crée un stockage dont toutes les cases ont la même nature : une seule plage par ligne.
+     *
+     * @param nbLignes   Le nombre de lignes.
+     * @param nbColonnes Le nombre de colonnes, au plus 2^28 pour que la colonne tienne dans une plage.
+     * @param nature     La nature initiale de toutes les cases.
+     */
+    public StockageRLE(int nbLignes, int nbColonnes, NatureTerrain nature) {
+        if (nbColonnes > 1 << (31 - BITS_NATURE)) {
+            throw new IllegalArgumentException("Trop de colonnes pour un stockage par plages : " + nbColonnes);
+        }
+        this.nbColonnes = nbColonnes;
+        this.taille = Math.multiplyExact(nbLignes, nbColonnes);
+        this.plages = new int[nbLignes][];
+        this.nbPlages = new int[nbLignes];
+        for (int i = 0; i < nbLignes; i++) {
+            this.plages[i] = new int[] {nature.ordinal()};
+            this.nbPlages[i] = 1;
+        }
+    }
+
+    @Override
+    public int getTaille() {
+        return this.taille;
+    }
+
+    @Override
+    public byte lire(int cellule) {
+        int ligne = cellule / this.nbColonnes;
+        return (byte) (this.plages[ligne][plage(ligne, cellule - ligne * this.nbColonnes)] & MASQUE_NATURE);
+    }
+
+    // Rang de la plage de la ligne qui contient la colonne donnée.
+    private int plage(int ligne, int colonne) {
+        // Aucune plage n'a la nature MASQUE_NATURE : la clé n'est jamais trouvée et le point
+        // d'insertion suit la dernière plage qui commence au plus tard à cette colonne.
+        int position = Arrays.binarySearch(this.plages[ligne], 0, this.nbPlages[ligne],
+                colonne << BITS_NATURE | MASQUE_NATURE);
+        return -position - 2;
+    }
+
+    private int debut(int[] plagesLigne, int rang) {
+        return plagesLigne[rang] >>> BITS_NATURE;
+    }
+
+    @Override
+    public int finUniforme(int cellule, int limite) {
+        int ligne = cellule / this.nbColonnes;
+        int rang = plage(ligne, cellule - ligne * this.nbColonnes);
+        int fin = rang + 1 < this.nbPlages[ligne] ? debut(this.plages[ligne], rang + 1) : this.nbColonnes;
+        return Math.min(limite, ligne * this.nbColonnes + fin);
+    }
+
+    @Override
+    public void ecrire(int cellule, byte ordinal) {
+        int ligne = cellule / this.nbColonnes;
+        int colonne = cellule - ligne * this.nbColonnes;
+        int[] plagesLigne = this.plages[ligne];
+        int n = this.nbPlages[ligne];
+        int rang = plage(ligne, colonne);
+        if ((plagesLigne[rang] & MASQUE_NATURE) == ordinal) {
+            return;
+        }
+        int debutPlage = debut(plagesLigne, rang);
+        int finPlage = rang + 1 < n ? debut(plagesLigne, rang + 1) : this.nbColonnes;
+        boolean commePrecedente = colonne == debutPlage && rang > 0
+                && (plagesLigne[rang - 1] & MASQUE_NATURE) == ordinal;
+        boolean commeSuivante = colonne == finPlage - 1 && rang + 1 < n
+                && (plagesLigne[rang + 1] & MASQUE_NATURE) == ordinal;
+        int ancienne = plagesLigne[rang] & MASQUE_NATURE;
+        int nouvelle = colonne << BITS_NATURE | ordinal;
+        int apres = (colonne + 1) << BITS_NATURE | ancienne;
+        if (debutPlage == finPlage - 1) {
+            // La plage ne contient que cette case : elle change de nature, et fusionne avec ses voisines.
+            if (commePrecedente && commeSuivante) {
+                supprimer(ligne, rang, 2);
+            } else if (commePrecedente) {
+                supprimer(ligne, rang, 1);
+            } else if (commeSuivante) {
+                supprimer(ligne, rang + 1, 1);
+                this.plages[ligne][rang] = nouvelle;
+            } else {
+                plagesLigne[rang] = nouvelle;
+            }
+        } else if (colonne == debutPlage) {
+            // Première case de la plage : elle passe à la plage précédente ou en forme une nouvelle.
+            if (commePrecedente) {
+                plagesLigne[rang] = apres;
+            } else {
+                inserer(ligne, rang, nouvelle);
+                this.plages[ligne][rang + 1] = apres;
+            }
+        } else if (colonne == finPlage - 1) {
+            // Dernière case de la plage : elle passe à la plage suivante ou en forme une nouvelle.
+            if (commeSuivante) {
+                plagesLigne[rang + 1] = nouvelle;
+            } else {
+                inserer(ligne, rang + 1, nouvelle);
+            }
+        } else {
+            // Case au milieu de la plage : elle la coupe en trois.
+            inserer(ligne, rang + 1, nouvelle);
+            inserer(ligne, rang + 2, apres);
+        }
+    }
+
+    private void inserer(int ligne, int rang, int plage) {
+        int n = this.nbPlages[ligne];
+        int[] plagesLigne = this.plages[ligne];
+        if (n == plagesLigne.length) {
+            plagesLigne = Arrays.copyOf(plagesLigne, n + (n >> 1) + 1);
+            this.plages[ligne] = plagesLigne;
+        }
+        System.arraycopy(plagesLigne, rang, plagesLigne, rang + 1, n - rang);
+        plagesLigne[rang] = plage;
+        this.nbPlages[ligne] = n + 1;
+    }
+
+    private void supprimer(int ligne, int rang, int nombre) {
+        int n = this.nbPlages[ligne];
+        int[] plagesLigne = this.plages[ligne];
+        System.arraycopy(plagesLigne, rang + nombre, plagesLigne, rang, n - rang - nombre);
+        this.nbPlages[ligne] = n - nombre;
+    }
+
+    /**
+     * Libère la place réservée en fin de ligne pour les plages à venir. À appeler une fois la
+     * carte remplie, si elle ne doit plus guère être modifiée.
+     */
+    public void compacter() {
+        for (int i = 0; i < this.plages.length; i++) {
+            if (this.plages[i].length != this.nbPlages[i]) {
+                this.plages[i] = Arrays.copyOf(this.plages[i], this.nbPlages[i]);
+            }
+        }
+    }
+
+    /**
+     * Retourne le nombre total de plages, pour estimer la place occupée (quatre octets par plage).
+     *
+     * @return Le nombre de plages de toutes les lignes.
+     */
+    public long getNbPlages() {
+        long total = 0;
+        for (int n : this.nbPlages) {
+            total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public boolean estResident() {
+        return true;
+    }
+}
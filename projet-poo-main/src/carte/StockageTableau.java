@@ -0,0 +1,43 @@
+package carte;
+
+import java.util.Arrays;
+
+/**
+ * La classe StockageTableau range le terrain dans un tableau d'octets du tas Java.
+ * C'est le stockage par défaut des cartes lues depuis un fichier texte.
+ */
+public final class StockageTableau implements StockageTerrain {
+
+    private final byte[] natures;
+
+    /**
+     * Crée un stockage dont toutes les cases ont la même nature.
+     *
+     * @param taille Le nombre de cases.
+     * @param nature La nature initiale de toutes les cases.
+     */
+    public StockageTableau(int taille, NatureTerrain nature) {
+        this.natures = new byte[taille];
+        Arrays.fill(this.natures, (byte) nature.ordinal());
+    }
+
+    @Override
+    public int getTaille() {
+        return this.natures.length;
+    }
+
+    @Override
+    public byte lire(int cellule) {
+        return this.natures[cellule];
+    }
+
+    @Override
+    public void ecrire(int cellule, byte ordinal) {
+        this.natures[cellule] = ordinal;
+    }
+
+    @Override
+    public boolean estResident() {
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package carte;
+
+/**
+ * L'interface StockageTerrain décrit la façon dont une carte range la nature du terrain
+ * de ses cases : un octet par case (l'ordinal de la NatureTerrain), adressé par l'identifiant
+ * ligne * nbColonnes + colonne.
+ */
+public interface StockageTerrain {
+
+    /**
+     * Retourne le nombre de cases stockées.
+     *
+     * @return Le nombre de cases.
+     */
+    int getTaille();
+
+    /**
+     * Lit l'ordinal de la nature du terrain d'une case.
+     *
+     * @param cellule L'identifiant de la case.
+     * @return L'ordinal de la nature du terrain.
+     */
+    byte lire(int cellule);
+
+    /**
+     * Modifie l'ordinal de la nature du terrain d'une case.
+     *
+     * @param cellule L'identifiant de la case.
+     * @param ordinal Le nouvel ordinal de la nature du terrain.
+     */
+    void ecrire(int cellule, byte ordinal);
+
+    /**
+     * Retourne la fin de la plage de cases de même nature qui commence à une case : le plus petit
+     * identifiant après la case dont la nature diffère, sans dépasser la limite donnée. Un stockage
+     * compressé par plages répond sans parcourir les cases, ce qui permet de traiter une plage
+     * uniforme en une seule étape.
+     *
+     * @param cellule L'identifiant de la première case de la plage.
+     * @param limite  L'identifiant (exclu) où arrêter la plage, au plus la fin de la ligne de la case.
+     * @return L'identifiant qui suit la dernière case de la plage.
+     */
+    default int finUniforme(int cellule, int limite) {
+        byte nature = lire(cellule);
+        int fin = cellule + 1;
+        while (fin < limite && lire(fin) == nature) {
+            fin++;
+        }
+        return fin;
+    }
+
+    /**
+     * Indique si tout le terrain est déjà en mémoire. Si ce n'est pas le cas (fichier projeté),
+     * la carte ne construit pas d'index couvrant toutes les cases, ce qui l'obligerait à lire
+     * le terrain en entier ; elle lit alors directement les cases demandées.
+     *
+     * @return true si parcourir tout le terrain ne coûte aucun accès au disque, false sinon.
+     */
+    boolean estResident();
+}
@@ -0,0 +1,29 @@
+import io.EcrivainBlocs;
+import io.LecteurDonnees;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compresse un fichier de données texte (.map) par blocs indépendants (voir EcrivainBlocs), que
+ * LecteurDonnees décompresse en parallèle pendant la lecture, puis relit le fichier produit.
+ *
+ * Usage : java compresserCarte entree.map sortie.mapz [tailleBloc]
+ */
+public class compresserCarte {
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage : java compresserCarte entree.map sortie.mapz [tailleBloc]");
+            System.exit(1);
+        }
+        int tailleBloc = args.length == 3 ? Integer.parseInt(args[2]) : EcrivainBlocs.TAILLE_BLOC;
+        long debut = System.nanoTime();
+        EcrivainBlocs.compresser(Path.of(args[0]), Path.of(args[1]), tailleBloc);
+        long compresse = System.nanoTime();
+        LecteurDonnees.lire(args[1]);
+        long relu = System.nanoTime();
+
+        System.out.printf("%s (%d octets) -> %s (%d octets)%n", args[0], Files.size(Path.of(args[0])),
+                args[1], Files.size(Path.of(args[1])));
+        System.out.printf("compression %.1f ms, relecture %.1f ms%n", (compresse - debut) / 1e6, (relu - compresse) / 1e6);
+    }
+}
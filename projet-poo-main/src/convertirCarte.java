@@ -0,0 +1,35 @@
+import io.EcrivainBinaire;
+import io.LecteurBinaire;
+import io.LecteurDonnees;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import simulation.DonneesSimulation;
+
+/**
+ * Convertit un fichier de données texte (.map) au format binaire projetable (voir LecteurBinaire),
+ * puis relit le fichier produit en vérifiant sa somme de contrôle.
+ *
+ * Usage : java convertirCarte entree.map sortie.carte
+ */
+public class convertirCarte {
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.out.println("Usage : java convertirCarte entree.map sortie.carte");
+            System.exit(1);
+        }
+        long debut = System.nanoTime();
+        DonneesSimulation donnees = LecteurDonnees.lire(args[0]);
+        long lu = System.nanoTime();
+        EcrivainBinaire.ecrire(donnees, Path.of(args[1]));
+        long ecrit = System.nanoTime();
+        LecteurBinaire.lire(args[1], true);
+        long verifie = System.nanoTime();
+        LecteurBinaire.lire(args[1]);
+        long relu = System.nanoTime();
+
+        System.out.printf("%s (%d octets) -> %s (%d octets)%n", args[0], Files.size(Path.of(args[0])),
+                args[1], Files.size(Path.of(args[1])));
+        System.out.printf("lecture texte %.1f ms, écriture %.1f ms, relecture vérifiée %.1f ms, ouverture %.2f ms%n",
+                (lu - debut) / 1e6, (ecrit - lu) / 1e6, (verifie - ecrit) / 1e6, (relu - verifie) / 1e6);
+    }
+}
@@ -0,0 +1,233 @@
+package io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * La classe DecoupageTerrain découpe la fin d'un fichier de données, à partir de la première case
+ * du terrain, en tranches qui commencent toutes au début d'une ligne, pour que LecteurDonnees lise
+ * les cases de chaque tranche sur un thread différent du ForkJoinPool commun.
+ *
+ * Chaque case occupe une ligne du fichier ; les lignes vides et les commentaires n'en sont pas.
+ * Un premier passage parallèle compte, dans chaque tranche, les lignes qui portent une case et
+ * les fins de ligne : on en déduit l'identifiant de la première case de chaque tranche et le
+ * numéro de sa première ligne, donc où écrire chaque case et quelle ligne citer en cas d'erreur.
+ * Le résultat ne dépend ni du nombre de threads ni de l'ordre dans lequel les tranches sont lues.
+ */
+final class DecoupageTerrain {
+
+    // Taille, en octets, à partir de laquelle il vaut la peine de lire le terrain en parallèle.
+    private static final long SEUIL = 1L << 22;
+
+    private static final long TRANCHE_MIN = 1L << 20;
+    private static final long TRANCHE_MAX = 1L << 25;
+
+    private final FileChannel canal;
+    private final long[] bornes;
+    // Pour chaque tranche : nombre de cases, identifiant de la première case, numéro de la première ligne.
+    private final int[] nbCases;
+    private final long[] premiereCase;
+    private final int[] premiereLigne;
+
+    /**
+     * Indique s'il vaut la peine de lire en parallèle un terrain qui occupe le nombre d'octets donné :
+     * le comptage préalable des cases est un passage de plus sur le fichier, rentable seulement
+     * pour un grand terrain et avec plusieurs threads.
+     */
+    static boolean vautLaPeine(long nbOctets) {
+        return nbOctets >= SEUIL && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Découpe le fichier à partir d'une position, puis compte les cases de chaque tranche.
+     *
+     * @param canal Le canal du fichier, qui n'est lu que par des lectures positionnées.
+     * @param debut La position de la première case.
+     * @param ligne Le numéro de la ligne qui commence à cette position.
+     */
+    DecoupageTerrain(FileChannel canal, long debut, int ligne) throws IOException {
+        this.canal = canal;
+        this.bornes = decouper(canal, debut);
+        int nbTranches = this.bornes.length - 1;
+        this.nbCases = new int[nbTranches];
+        int[] nbFinsLigne = new int[nbTranches];
+        enParallele(nbTranches, t -> {
+            Lexeur lexeur = lexeur(t, 1);
+            int n = 0;
+            while (lexeur.resteUnMot()) {
+                n++;
+                lexeur.passerLigne();
+            }
+            this.nbCases[t] = n;
+            nbFinsLigne[t] = lexeur.getLigne() - 1;
+        });
+        this.premiereCase = new long[nbTranches + 1];
+        this.premiereLigne = new int[nbTranches + 1];
+        this.premiereLigne[0] = ligne;
+        for (int t = 0; t < nbTranches; t++) {
+            this.premiereCase[t + 1] = this.premiereCase[t] + this.nbCases[t];
+            this.premiereLigne[t + 1] = this.premiereLigne[t] + nbFinsLigne[t];
+        }
+    }
+
+    // Bornes des tranches : la première est la position de départ, la dernière la taille du fichier,
+    // les autres suivent immédiatement une fin de ligne.
+    private static long[] decouper(FileChannel canal, long debut) throws IOException {
+        long taille = canal.size();
+        long parThread = (taille - debut) / (8L * ForkJoinPool.getCommonPoolParallelism());
+        long pas = Math.max(TRANCHE_MIN, Math.min(TRANCHE_MAX, parThread));
+        long[] bornes = new long[(int) ((taille - debut) / pas) + 2];
+        int n = 0;
+        bornes[n++] = debut;
+        ByteBuffer tampon = ByteBuffer.allocate(256);
+        for (long cible = debut + pas; cible < taille; cible = Math.max(cible + pas, bornes[n - 1] + 1)) {
+            long borne = finDeLigne(canal, cible, tampon);
+            if (borne >= taille) {
+                break;
+            }
+            bornes[n++] = borne;
+        }
+        bornes[n++] = taille;
+        long[] resultat = new long[n];
+        System.arraycopy(bornes, 0, resultat, 0, n);
+        return resultat;
+    }
+
+    // Position qui suit la première fin de ligne à partir d'une position, ou la taille du fichier.
+    private static long finDeLigne(FileChannel canal, long position, ByteBuffer tampon) throws IOException {
+        while (true) {
+            tampon.clear();
+            int lus = canal.read(tampon, position);
+            if (lus < 0) {
+                return canal.size();
+            }
+            for (int k = 0; k < lus; k++) {
+                if (tampon.get(k) == '\n') {
+                    return position + k + 1;
+                }
+            }
+            position += lus;
+        }
+    }
+
+    int getNbTranches() {
+        return this.nbCases.length;
+    }
+
+    int getNbCases(int tranche) {
+        return this.nbCases[tranche];
+    }
+
+    long getPremiereCase(int tranche) {
+        return this.premiereCase[tranche];
+    }
+
+    long getDebut(int tranche) {
+        return this.bornes[tranche];
+    }
+
+    /**
+     * Retourne le nombre total de lignes portant une case jusqu'à la fin du fichier
+     * (y compris celles des incendies et des robots, qui suivent le terrain).
+     */
+    long getNbCasesTotal() {
+        return this.premiereCase[getNbTranches()];
+    }
+
+    /**
+     * Retourne le numéro de la ligne atteinte à la fin du fichier.
+     */
+    int getLigneFinale() {
+        return this.premiereLigne[getNbTranches()];
+    }
+
+    /**
+     * Crée un lexeur qui lit une tranche, en numérotant les lignes comme dans le fichier.
+     */
+    Lexeur lexeur(int tranche) {
+        return lexeur(tranche, this.premiereLigne[tranche]);
+    }
+
+    private Lexeur lexeur(int tranche, int ligne) {
+        return new Lexeur(new CanalTranche(this.canal, this.bornes[tranche], this.bornes[tranche + 1]), ligne);
+    }
+
+    /**
+     * Exécute une action pour chaque tranche sur le ForkJoinPool commun, et attend qu'elles soient toutes finies.
+     */
+    static void enParallele(int nbTranches, IntConsumer action) {
+        if (nbTranches > 0) {
+            ForkJoinPool.commonPool().invoke(new Tranches(action, 0, nbTranches));
+        }
+    }
+
+    // Partage récursivement un intervalle de tranches en deux moitiés exécutées en parallèle.
+    private static final class Tranches extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+        private final int debut;
+        private final int fin;
+
+        Tranches(IntConsumer action, int debut, int fin) {
+            this.action = action;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.fin - this.debut == 1) {
+                this.action.accept(this.debut);
+            } else {
+                int milieu = (this.debut + this.fin) >>> 1;
+                invokeAll(new Tranches(this.action, this.debut, milieu), new Tranches(this.action, milieu, this.fin));
+            }
+        }
+    }
+
+    // Canal qui lit une plage du fichier par lectures positionnées : plusieurs threads partagent le FileChannel.
+    private static final class CanalTranche implements ReadableByteChannel {
+        private final FileChannel canal;
+        private final long fin;
+        private long position;
+
+        CanalTranche(FileChannel canal, long debut, long fin) {
+            this.canal = canal;
+            this.position = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            if (this.position >= this.fin) {
+                return -1;
+            }
+            int limite = destination.limit();
+            destination.limit(destination.position() + (int) Math.min(destination.remaining(), this.fin - this.position));
+            try {
+                int lus = this.canal.read(destination, this.position);
+                if (lus > 0) {
+                    this.position += lus;
+                }
+                return lus;
+            } finally {
+                destination.limit(limite);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.canal.isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io;
+
+import carte.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import robots.*;
+import simulation.*;
+
+/**
+ * La classe EcrivainBinaire écrit des données de simulation au format binaire décrit dans
+ * LecteurBinaire : un en-tête, un octet par case, les tables d'incendies et de robots, puis
+ * une somme de contrôle CRC32.
+ */
+public class EcrivainBinaire {
+
+    private EcrivainBinaire() {
+    }
+
+    /**
+     * Écrit (ou écrase) un fichier binaire contenant la carte, les incendies et les robots.
+     * Les incendies sont écrits avec leur quantité d'eau restante (les incendies éteints sont omis),
+     * les robots à leur position courante.
+     *
+     * @param donnees Les données de simulation à écrire.
+     * @param fichier Le fichier à créer.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public static void ecrire(DonneesSimulation donnees, Path fichier) throws IOException {
+        Carte carte = donnees.getCarte();
+        Incendie[] incendies = donnees.getIncendies();
+        Robot[] robots = donnees.getRobots();
+        int nbIncendies = 0;
+        for (Incendie incendie : incendies) {
+            if (incendie.getLitres() > 0) {
+                nbIncendies++;
+            }
+        }
+        CRC32 somme = new CRC32();
+        try (OutputStream sortieFichier = Files.newOutputStream(fichier)) {
+            DataOutputStream sortie = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(sortieFichier, 1 << 16), somme));
+            sortie.write(LecteurBinaire.SIGNATURE);
+            sortie.writeInt(LecteurBinaire.VERSION);
+            sortie.writeInt(carte.getNbLignes());
+            sortie.writeInt(carte.getNbColonnes());
+            sortie.writeInt(carte.getTailleCases());
+            sortie.writeInt(nbIncendies);
+            sortie.writeInt(robots.length);
+            sortie.writeInt(0);
+
+            byte[] ligne = new byte[carte.getNbColonnes()];
+            for (int i = 0; i < carte.getNbLignes(); i++) {
+                for (int j = 0; j < ligne.length; j++) {
+                    ligne[j] = (byte) carte.getNatureOrdinal(i, j);
+                }
+                sortie.write(ligne);
+            }
+
+            for (Incendie incendie : incendies) {
+                if (incendie.getLitres() <= 0) {
+                    continue;
+                }
+                sortie.writeInt(incendie.getLigne());
+                sortie.writeInt(incendie.getColonne());
+                sortie.writeInt(incendie.getLitres());
+            }
+            for (Robot robot : robots) {
+                sortie.writeInt(robot.getLigne());
+                sortie.writeInt(robot.getColonne());
+                sortie.writeInt(robot.getClasseRobot().ordinal());
+                // Vitesse de base : aucun robot n'est ralenti sur un terrain libre.
+                sortie.writeDouble(robot.getVitesse(NatureTerrain.TERRAIN_LIBRE));
+            }
+
+            sortie.flush();
+            // La somme couvre tout ce qui précède : on l'écrit sans la faire entrer dans le calcul.
+            new DataOutputStream(sortieFichier).writeInt((int) somme.getValue());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * La classe EcrivainBlocs compresse un fichier de données texte au format par blocs décrit dans
+ * LecteurBlocs : le fichier est découpé en blocs de taille fixe, compressés indépendamment les uns
+ * des autres pour pouvoir être décompressés en parallèle. Les blocs sont eux aussi compressés en
+ * parallèle, avec au plus deux blocs par thread en mémoire à la fois.
+ */
+public class EcrivainBlocs {
+
+    /** Taille par défaut d'un bloc décompressé : 1 Mio. */
+    public static final int TAILLE_BLOC = 1 << 20;
+
+    private EcrivainBlocs() {
+    }
+
+    /**
+     * Retourne la taille maximale d'un bloc compressé, Deflate pouvant légèrement agrandir des données
+     * incompressibles ; un bloc annoncé plus grand est refusé à la lecture.
+     */
+    static int longueurCompresseeMax(int tailleBloc) {
+        return tailleBloc + (tailleBloc >> 3) + 64;
+    }
+
+    /**
+     * Compresse un fichier par blocs de 1 Mio.
+     *
+     * @param entree Le fichier à compresser.
+     * @param sortie Le fichier compressé à créer (ou écraser).
+     * @throws IOException Si un des fichiers ne peut pas être lu ou écrit.
+     */
+    public static void compresser(Path entree, Path sortie) throws IOException {
+        compresser(entree, sortie, TAILLE_BLOC);
+    }
+
+    /**
+     * Compresse un fichier par blocs de la taille donnée.
+     *
+     * @param entree     Le fichier à compresser.
+     * @param sortie     Le fichier compressé à créer (ou écraser).
+     * @param tailleBloc La taille d'un bloc décompressé : des blocs plus grands compressent un peu mieux,
+     *                   mais la lecture garde plus de mémoire et commence plus tard.
+     * @throws IOException Si un des fichiers ne peut pas être lu ou écrit.
+     */
+    public static void compresser(Path entree, Path sortie, int tailleBloc) throws IOException {
+        if (tailleBloc <= 0) {
+            throw new IllegalArgumentException("Taille de bloc invalide : " + tailleBloc);
+        }
+        int fenetre = 2 * ForkJoinPool.getCommonPoolParallelism();
+        ArrayDeque<Future<byte[]>> enCours = new ArrayDeque<>();
+        try (InputStream lecture = Files.newInputStream(entree);
+                DataOutputStream ecriture = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(sortie), 1 << 16))) {
+            ecriture.write(LecteurBlocs.SIGNATURE);
+            ecriture.writeInt(LecteurBlocs.VERSION);
+            ecriture.writeInt(tailleBloc);
+            while (true) {
+                byte[] bloc = lecture.readNBytes(tailleBloc);
+                if (bloc.length == 0) {
+                    break;
+                }
+                if (enCours.size() == fenetre) {
+                    ecriture.write(LecteurBlocs.attendre(enCours.poll()));
+                }
+                enCours.add(ForkJoinPool.commonPool().submit(() -> compresserBloc(bloc)));
+            }
+            while (!enCours.isEmpty()) {
+                ecriture.write(LecteurBlocs.attendre(enCours.poll()));
+            }
+            ecriture.write(new byte[3 * Integer.BYTES]);
+        } finally {
+            for (Future<byte[]> bloc : enCours) {
+                bloc.cancel(false);
+            }
+        }
+    }
+
+    // Retourne le bloc compressé, précédé de son en-tête (longueurs et CRC32).
+    private static byte[] compresserBloc(byte[] bloc) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(bloc);
+            deflater.finish();
+            byte[] resultat = new byte[3 * Integer.BYTES + longueurCompresseeMax(bloc.length)];
+            int n = 3 * Integer.BYTES;
+            while (!deflater.finished()) {
+                n += deflater.deflate(resultat, n, resultat.length - n);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bloc);
+            ecrireEntier(resultat, 0, n - 3 * Integer.BYTES);
+            ecrireEntier(resultat, Integer.BYTES, bloc.length);
+            ecrireEntier(resultat, 2 * Integer.BYTES, (int) crc.getValue());
+            return Arrays.copyOf(resultat, n);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void ecrireEntier(byte[] octets, int position, int valeur) {
+        octets[position] = (byte) (valeur >>> 24);
+        octets[position + 1] = (byte) (valeur >>> 16);
+        octets[position + 2] = (byte) (valeur >>> 8);
+        octets[position + 3] = (byte) valeur;
+    }
+}
@@ -0,0 +1,205 @@
+package io;
+
+import carte.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import robots.*;
+import simulation.*;
+
+/**
+ * La classe LecteurBinaire lit un fichier de données au format binaire écrit par EcrivainBinaire.
+ * Le terrain n'est pas lu : il est projeté en mémoire directement depuis le fichier (voir
+ * StockageProjete), si bien que l'ouverture d'une très grande carte ne prend que le temps de
+ * lire l'en-tête et les tables d'incendies et de robots.
+ *
+ * Le format (entiers et réels en gros-boutiste) :
+ * <pre>
+ *  0  signature      4 octets : 0x89 'C' 'R' 'T'
+ *  4  version        int
+ *  8  nbLignes       int
+ * 12  nbColonnes     int
+ * 16  tailleCases    int
+ * 20  nbIncendies    int
+ * 24  nbRobots       int
+ * 28  réservé        int (0)
+ * 32  terrain        nbLignes * nbColonnes octets, l'ordinal de la NatureTerrain de chaque case, ligne par ligne
+ *  .  incendies      nbIncendies fois : ligne int, colonne int, intensité int
+ *  .  robots         nbRobots fois : ligne int, colonne int, classeRobot (ordinal) int, vitesse double
+ *  .  somme          int, CRC32 de tous les octets qui précèdent
+ * </pre>
+ * Le terrain occupe un octet par case, et non un demi-octet, pour pouvoir être projeté tel quel.
+ */
+public class LecteurBinaire {
+
+    static final byte[] SIGNATURE = {(byte) 0x89, 'C', 'R', 'T'};
+    static final int VERSION = 1;
+    static final int TAILLE_ENTETE = 32;
+    static final int TAILLE_INCENDIE = 12;
+    static final int TAILLE_ROBOT = 20;
+
+    /**
+     * Lit et retourne les donnees de simulation d'un fichier binaire, sans vérifier la somme de
+     * contrôle du terrain. La carte est projetée en mode PRIVATE : ses modifications restent propres
+     * au processus et ne sont pas écrites dans le fichier (READ_ONLY si le fichier n'est pas modifiable).
+     *
+     * @param fichierDonnees nom du fichier à lire
+     * @return une instance de DonneesSimulation contenant les objets créés
+     */
+    public static DonneesSimulation lire(String fichierDonnees) throws IOException, DataFormatException {
+        return lire(fichierDonnees, false);
+    }
+
+    /**
+     * Lit et retourne les donnees de simulation d'un fichier binaire.
+     *
+     * @param fichierDonnees nom du fichier à lire
+     * @param verifier       true pour relire tout le fichier et vérifier sa somme de contrôle et la
+     *                       nature de chaque case, ce qui fait perdre l'intérêt de la projection
+     * @return une instance de DonneesSimulation contenant les objets créés
+     */
+    public static DonneesSimulation lire(String fichierDonnees, boolean verifier)
+            throws IOException, DataFormatException {
+        Path fichier = Path.of(fichierDonnees);
+        try (FileChannel canal = FileChannel.open(fichier)) {
+            ByteBuffer entete = lireBloc(canal, 0, TAILLE_ENTETE);
+            byte[] signature = new byte[SIGNATURE.length];
+            entete.get(signature);
+            if (!Arrays.equals(signature, SIGNATURE)) {
+                throw new DataFormatException("Signature invalide : ce n'est pas un fichier de carte binaire.");
+            }
+            int version = entete.getInt();
+            if (version != VERSION) {
+                throw new DataFormatException("Version " + version + " non prise en charge (attendu : " + VERSION + ").");
+            }
+            int nbLignes = entete.getInt();
+            int nbColonnes = entete.getInt();
+            int tailleCases = entete.getInt();
+            int nbIncendies = entete.getInt();
+            int nbRobots = entete.getInt();
+            if (nbLignes < 0 || nbColonnes < 0 || nbIncendies < 0 || nbRobots < 0
+                    || (long) nbLignes * nbColonnes > Integer.MAX_VALUE) {
+                throw new DataFormatException("En-tête invalide : " + nbLignes + " x " + nbColonnes + ", "
+                        + nbIncendies + " incendies, " + nbRobots + " robots.");
+            }
+            int taille = nbLignes * nbColonnes;
+            long debutTables = TAILLE_ENTETE + (long) taille;
+            long tailleTables = (long) nbIncendies * TAILLE_INCENDIE + (long) nbRobots * TAILLE_ROBOT;
+            long tailleAttendue = debutTables + tailleTables + Integer.BYTES;
+            if (canal.size() != tailleAttendue) {
+                throw new DataFormatException("Fichier de " + canal.size() + " octets au lieu de "
+                        + tailleAttendue + " : fichier tronqué ou corrompu.");
+            }
+            if (tailleTables > Integer.MAX_VALUE - Integer.BYTES) {
+                throw new DataFormatException("Trop d'incendies ou de robots : " + nbIncendies + ", " + nbRobots + ".");
+            }
+            ByteBuffer tables = lireBloc(canal, debutTables, (int) tailleTables + Integer.BYTES);
+            if (verifier) {
+                verifierSomme(canal, taille, tables);
+            }
+
+            FileChannel.MapMode mode = Files.isWritable(fichier)
+                    ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY;
+            Carte carte = new Carte(nbLignes, nbColonnes, tailleCases,
+                    StockageProjete.ouvrir(fichier, TAILLE_ENTETE, taille, mode));
+
+            Incendie[] incendies = new Incendie[nbIncendies];
+            for (int i = 0; i < nbIncendies; i++) {
+                int lig = tables.getInt();
+                int col = tables.getInt();
+                int intensite = tables.getInt();
+                verifierPosition(carte, lig, col, "incendie " + i);
+                if (intensite <= 0) {
+                    throw new DataFormatException("L'intensité de l'incendie doit être > 0 (incendie " + i + ")");
+                }
+                incendies[i] = new Incendie(carte.getCase(lig, col), intensite);
+                carte.ajouterIncendie(incendies[i]);  // Ajout des incendies à la carte
+            }
+
+            Robot[] robots = new Robot[nbRobots];
+            classeRobot[] classes = classeRobot.values();
+            for (int i = 0; i < nbRobots; i++) {
+                int lig = tables.getInt();
+                int col = tables.getInt();
+                int classe = tables.getInt();
+                double vitesse = tables.getDouble();
+                verifierPosition(carte, lig, col, "robot " + i);
+                if (classe < 0 || classe >= classes.length) {
+                    throw new DataFormatException("Type de robot inconnu: " + classe + " (robot " + i + ")");
+                }
+                robots[i] = creerRobot(classes[classe], lig, col, vitesse, i, carte);
+            }
+            return new DonneesSimulation(carte, incendies, robots);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(fichierDonnees);
+        }
+    }
+
+    private static Robot creerRobot(classeRobot classe, int lig, int col, double vitesse, int i, Carte carte) {
+        switch (classe) {
+            case DRONE:
+                return new Drone(lig, col, vitesse, i, carte, classe);
+            case ROUE:
+                return new Roue(lig, col, vitesse, i, carte, classe);
+            case CHENILLE:
+                return new Chenille(lig, col, vitesse, i, carte, classe);
+            default:
+                return new Pattes(lig, col, i, carte, classe);  // Les pattes n'ont pas de vitesse
+        }
+    }
+
+    private static void verifierPosition(Carte carte, int lig, int col, String element) throws DataFormatException {
+        if (lig < 0 || lig >= carte.getNbLignes() || col < 0 || col >= carte.getNbColonnes()) {
+            throw new DataFormatException("Position (" + lig + ", " + col + ") hors de la carte (" + element + ")");
+        }
+    }
+
+    // Lit un bloc du fichier à une position donnée ; le tampon est prêt à être lu.
+    private static ByteBuffer lireBloc(FileChannel canal, long position, int taille)
+            throws IOException, DataFormatException {
+        ByteBuffer bloc = ByteBuffer.allocate(taille);
+        while (bloc.hasRemaining()) {
+            if (canal.read(bloc, position + bloc.position()) < 0) {
+                throw new DataFormatException("Fichier tronqué : " + taille + " octets attendus à la position " + position + ".");
+            }
+        }
+        return bloc.flip();
+    }
+
+    // Relit tout le fichier par blocs pour vérifier la somme de contrôle et la nature de chaque case.
+    private static void verifierSomme(FileChannel canal, int taille, ByteBuffer tables)
+            throws IOException, DataFormatException {
+        CRC32 somme = new CRC32();
+        ByteBuffer bloc = ByteBuffer.allocate(1 << 16);
+        long fin = TAILLE_ENTETE + (long) taille;
+        int nbNatures = NatureTerrain.values().length;
+        for (long position = 0; position < fin; ) {
+            bloc.clear().limit((int) Math.min(bloc.capacity(), fin - position));
+            while (bloc.hasRemaining()) {
+                if (canal.read(bloc, position + bloc.position()) < 0) {
+                    throw new DataFormatException("Fichier tronqué pendant la vérification.");
+                }
+            }
+            byte[] octets = bloc.array();
+            for (int k = (int) Math.max(0, TAILLE_ENTETE - position); k < bloc.limit(); k++) {
+                if ((octets[k] & 0xFF) >= nbNatures) {
+                    throw new DataFormatException("Nature de terrain inconnue: " + (octets[k] & 0xFF)
+                            + " (case " + (position + k - TAILLE_ENTETE) + ")");
+                }
+            }
+            somme.update(octets, 0, bloc.limit());
+            position += bloc.limit();
+        }
+        somme.update(tables.array(), 0, tables.limit() - Integer.BYTES);
+        int attendue = tables.getInt(tables.limit() - Integer.BYTES);
+        if ((int) somme.getValue() != attendue) {
+            throw new DataFormatException("Somme de contrôle invalide : fichier corrompu.");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * La classe LecteurBlocs décompresse un fichier au format par blocs écrit par EcrivainBlocs, et
+ * présente son contenu comme un canal que LecteurDonnees lit au fil de l'eau. Chaque bloc est
+ * compressé indépendamment des autres (Deflate brut) : pendant que le lecteur découpe un bloc,
+ * les suivants sont décompressés en parallèle sur le ForkJoinPool commun. Une fenêtre bornée
+ * limite le nombre de blocs lus d'avance, si bien que la mémoire occupée ne dépend que de la
+ * taille des blocs et non de celle du fichier.
+ *
+ * Le format (entiers en gros-boutiste) :
+ * <pre>
+ *  0  signature      4 octets : 0x89 'C' 'R' 'Z'
+ *  4  version        int
+ *  8  tailleBloc     int, taille maximale d'un bloc décompressé
+ * 12  blocs          pour chaque bloc : longueur compressée int, longueur décompressée int,
+ *                    CRC32 du bloc décompressé int, puis les données compressées
+ *  .  fin            un bloc de longueurs nulles (12 octets à zéro)
+ * </pre>
+ */
+final class LecteurBlocs implements ReadableByteChannel {
+
+    static final byte[] SIGNATURE = {(byte) 0x89, 'C', 'R', 'Z'};
+    static final int VERSION = 1;
+
+    private final DataInputStream source;
+    private final int tailleBloc;
+    private final int fenetre;
+    private final ArrayDeque<Future<byte[]>> enCours = new ArrayDeque<>();
+    private boolean finSource;
+    private ByteBuffer courant = ByteBuffer.allocate(0);
+
+    /**
+     * Crée le canal du contenu décompressé d'un fichier par blocs, lu depuis son début.
+     *
+     * @param canal Le canal du fichier compressé, placé au début du fichier.
+     * @throws IOException Si l'en-tête est invalide.
+     */
+    LecteurBlocs(ReadableByteChannel canal) throws IOException {
+        this.source = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+        byte[] signature = new byte[SIGNATURE.length];
+        this.source.readFully(signature);
+        if (!Arrays.equals(signature, SIGNATURE)) {
+            throw new ZipException("Signature invalide : ce n'est pas un fichier compressé par blocs.");
+        }
+        int version = this.source.readInt();
+        if (version != VERSION) {
+            throw new ZipException("Version " + version + " du format par blocs non prise en charge.");
+        }
+        this.tailleBloc = this.source.readInt();
+        if (this.tailleBloc <= 0) {
+            throw new ZipException("Taille de bloc invalide : " + this.tailleBloc);
+        }
+        this.fenetre = 2 * ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    @Override
+    public int read(ByteBuffer destination) throws IOException {
+        while (!this.courant.hasRemaining()) {
+            remplirFenetre();
+            Future<byte[]> bloc = this.enCours.poll();
+            if (bloc == null) {
+                return -1;
+            }
+            this.courant = ByteBuffer.wrap(attendre(bloc));
+        }
+        int n = Math.min(destination.remaining(), this.courant.remaining());
+        int limite = this.courant.limit();
+        this.courant.limit(this.courant.position() + n);
+        destination.put(this.courant);
+        this.courant.limit(limite);
+        return n;
+    }
+
+    // Lit les blocs compressés suivants et lance leur décompression, jusqu'à remplir la fenêtre.
+    private void remplirFenetre() throws IOException {
+        while (!this.finSource && this.enCours.size() < this.fenetre) {
+            int longueurCompressee = this.source.readInt();
+            int longueur = this.source.readInt();
+            int somme = this.source.readInt();
+            if (longueurCompressee == 0 && longueur == 0) {
+                this.finSource = true;
+                return;
+            }
+            if (longueur <= 0 || longueur > this.tailleBloc || longueurCompressee <= 0
+                    || longueurCompressee > EcrivainBlocs.longueurCompresseeMax(this.tailleBloc)) {
+                throw new ZipException("Bloc invalide : " + longueurCompressee + " octets compressés pour "
+                        + longueur + " octets.");
+            }
+            byte[] donnees = new byte[longueurCompressee];
+            this.source.readFully(donnees);
+            this.enCours.add(ForkJoinPool.commonPool().submit(() -> decompresser(donnees, longueur, somme)));
+        }
+    }
+
+    private static byte[] decompresser(byte[] donnees, int longueur, int somme) throws ZipException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(donnees);
+            byte[] bloc = new byte[longueur];
+            int n = 0;
+            while (n < longueur && !inflater.finished()) {
+                int lus = inflater.inflate(bloc, n, longueur - n);
+                if (lus == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += lus;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bloc, 0, n);
+            if (n != longueur || (int) crc.getValue() != somme) {
+                throw new ZipException("Bloc corrompu.");
+            }
+            return bloc;
+        } catch (DataFormatException e) {
+            throw new ZipException("Bloc corrompu : " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Attend la fin d'une tâche de (dé)compression et retourne son résultat.
+     */
+    static byte[] attendre(Future<byte[]> bloc) throws IOException {
+        try {
+            return bloc.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            // Le ForkJoinPool enveloppe l'exception de la tâche : on remonte jusqu'à l'erreur d'entrée-sortie.
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<byte[]> bloc : this.enCours) {
+            bloc.cancel(false);
+        }
+        this.enCours.clear();
+        this.source.close();
+    }
+}
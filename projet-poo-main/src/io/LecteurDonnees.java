@@ -2,17 +2,45 @@ package io;
 
 import carte.*;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
 import robots.*;
 import simulation.*;
 
+/**
+ * La classe LecteurDonnees lit un fichier de données texte (carte, incendies, robots).
+ * Le fichier est découpé octet par octet par un Lexeur propre à chaque lecture : plusieurs
+ * fichiers peuvent être lus en même temps. Les messages d'erreur indiquent la ligne fautive.
+ * Un fichier compressé avec gzip ou par blocs (voir EcrivainBlocs) est décompressé à mesure
+ * qu'il est lu, sans être écrit sur le disque ni gardé entièrement en mémoire.
+ */
 public class LecteurDonnees {
 
-    private static Scanner scanner;
+    private static final byte[][] NATURES = new byte[NatureTerrain.values().length][];
+    private static final byte[] SIGNATURE_GZIP = {(byte) 0x1f, (byte) 0x8b};
+
+    static {
+        for (NatureTerrain nature : NatureTerrain.values()) {
+            NATURES[nature.ordinal()] = octets(nature.name());
+        }
+    }
+
+    private final FileChannel canal;
+    private final ReadableByteChannel contenu; // Le canal du fichier, ou celui de son contenu décompressé.
+    private final Lexeur lexeur;
 
     /**
-     * Lit et retourne les donnees de simulation (Carte, Incendies, Robots)
+     * Lit et retourne les donnees de simulation (Carte, Incendies, Robots).
+     * Un fichier au format binaire (voir LecteurBinaire) est reconnu à sa signature et projeté en mémoire ;
+     * un fichier compressé (gzip ou par blocs) est décompressé au fil de la lecture.
      * @param fichierDonnees nom du fichier à lire
      * @return une instance de DonneesSimulation contenant les objets créés
      */
@@ -20,13 +48,29 @@ public class LecteurDonnees {
             throws FileNotFoundException, DataFormatException {
         System.out.println("\n == Lecture du fichier " + fichierDonnees);
         LecteurDonnees lecteur = new LecteurDonnees(fichierDonnees);
-
-        // Lire et créer les objets pour la simulation
-        Carte carte = lecteur.lireCarte();
-        Incendie[] incendies = lecteur.lireIncendies(carte);
-        Robot[] robots = lecteur.lireRobots(carte);
-
-        scanner.close();
+        if (lecteur.estBinaire()) {
+            lecteur.fermer();
+            try {
+                DonneesSimulation donnees = LecteurBinaire.lire(fichierDonnees);
+                System.out.println("\n == Lecture terminee");
+                return donnees;
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Carte carte;
+        Incendie[] incendies;
+        Robot[] robots;
+        try {
+            // Lire et créer les objets pour la simulation
+            carte = lecteur.lireCarte();
+            incendies = lecteur.lireIncendies(carte);
+            robots = lecteur.lireRobots(carte);
+        } finally {
+            lecteur.fermer();
+        }
         System.out.println("\n == Lecture terminee");
 
         // Retourner une instance de DonneesSimulation
@@ -35,8 +79,104 @@ public class LecteurDonnees {
 
     // Constructeur prive
     private LecteurDonnees(String fichierDonnees) throws FileNotFoundException {
-        scanner = new Scanner(new File(fichierDonnees));
-        scanner.useLocale(Locale.US);
+        this(ouvrir(fichierDonnees));
+    }
+
+    private LecteurDonnees(FileChannel canal) {
+        this.canal = canal;
+        this.contenu = contenu(canal);
+        this.lexeur = new Lexeur(this.contenu);
+    }
+
+    // Lecteur d'une partie du fichier (voir lireCasesEnParallele), dont le canal n'est pas utilisé.
+    private LecteurDonnees(FileChannel canal, Lexeur lexeur) {
+        this.canal = canal;
+        this.contenu = canal;
+        this.lexeur = lexeur;
+    }
+
+    // Reconnaît un fichier compressé à ses premiers octets et retourne le canal de son contenu
+    // décompressé (gzip, lu au fil de l'eau, ou blocs, décompressés en parallèle), sinon le canal lui-même.
+    private static ReadableByteChannel contenu(FileChannel canal) {
+        try {
+            if (commencePar(canal, SIGNATURE_GZIP)) {
+                return Channels.newChannel(new GZIPInputStream(Channels.newInputStream(canal), 1 << 16));
+            }
+            if (commencePar(canal, LecteurBlocs.SIGNATURE)) {
+                return new LecteurBlocs(canal);
+            }
+            return canal;
+        } catch (IOException e) {
+            fermer(canal);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Indique si un fichier commence par une signature, sans déplacer la position du canal.
+     */
+    private static boolean commencePar(FileChannel canal, byte[] signature) throws IOException {
+        ByteBuffer debut = ByteBuffer.allocate(signature.length);
+        while (debut.hasRemaining()) {
+            if (canal.read(debut, debut.position()) < 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(debut.array(), signature);
+    }
+
+    private static FileChannel ouvrir(String fichierDonnees) throws FileNotFoundException {
+        try {
+            return FileChannel.open(Path.of(fichierDonnees));
+        } catch (IOException e) {
+            throw new FileNotFoundException(fichierDonnees + " (" + e.getClass().getSimpleName() + ")");
+        }
+    }
+
+    private long tailleFichier() {
+        try {
+            return this.canal.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean estBinaire() {
+        try {
+            return commencePar(this.canal, LecteurBinaire.SIGNATURE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void fermer() {
+        if (this.contenu != this.canal) {
+            fermer(this.contenu);
+        }
+        fermer(this.canal);
+    }
+
+    private static void fermer(Channel canal) {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // rien à faire : le fichier a déjà été lu en entier
+        }
+    }
+
+    private static byte[] octets(String motCle) {
+        return motCle.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Construit l'exception d'une erreur de format, en ajoutant au message le numéro de la ligne en cours.
+     */
+    private DataFormatException erreur(String message) {
+        return erreur(message, lexeur.getLigne());
+    }
+
+    private DataFormatException erreur(String message, int ligne) {
+        return new DataFormatException(message + " (ligne " + ligne + ")");
     }
 
     /**
@@ -46,9 +186,14 @@ public class LecteurDonnees {
     private Carte lireCarte() throws DataFormatException {
     ignorerCommentaires();
     try {
-        int nbLignes = scanner.nextInt();
-        int nbColonnes = scanner.nextInt();
-        int tailleCases = scanner.nextInt(); 
+        int nbLignes = lexeur.lireEntier();
+        int nbColonnes = lexeur.lireEntier();
+        int tailleCases = lexeur.lireEntier(); 
+        long taille = (long) nbLignes * nbColonnes;
+        if (nbLignes >= 0 && nbColonnes >= 0 && taille > 0 && taille <= Integer.MAX_VALUE
+                && this.contenu == this.canal && DecoupageTerrain.vautLaPeine(tailleFichier() - lexeur.getPosition())) {
+            return lireCasesEnParallele(nbLignes, nbColonnes, tailleCases);
+        }
         Carte carte = new Carte(nbLignes, nbColonnes, tailleCases);
 
         for (int lig = 0; lig < nbLignes; lig++) {
@@ -59,43 +204,136 @@ public class LecteurDonnees {
         return carte;
 
     } catch (NoSuchElementException e) {
-        throw new DataFormatException("Format invalide. Attendu: nbLignes nbColonnes tailleCases");
+        throw erreur("Format invalide. Attendu: nbLignes nbColonnes tailleCases");
     }
 }
 
     private void lireCase(Carte carte,int lig, int col) throws DataFormatException {
         ignorerCommentaires();
-        String chaineNature = new String();
-        //		NatureTerrain nature;
 
         try {
-            chaineNature = scanner.next();
-            NatureTerrain nature = NatureTerrain.valueOf(chaineNature.toUpperCase());
-            // si NatureTerrain est un Enum, vous pouvez recuperer la valeur
-            // de l'enum a partir d'une String avec:
-            //			NatureTerrain nature = NatureTerrain.valueOf(chaineNature);
-            
+            lexeur.lireMot();
+            NatureTerrain nature = lireNature();
             verifieLigneTerminee();
-            Case nouvelleCase = new Case(lig, col, nature);
-            carte.setCase(nouvelleCase, lig, col);
+            carte.setNature(lig, col, nature);
             if(nature == NatureTerrain.EAU){
-                carte.ajouterEau(nouvelleCase);
+                carte.ajouterEau(carte.getCase(lig, col));
             }
 
 
         } catch (NoSuchElementException e) {
-            throw new DataFormatException("format de case invalide. "
+            throw erreur("format de case invalide. "
                     + "Attendu: nature altitude [valeur_specifique]");
         }
     }
 
+    /**
+     * Lit les cases d'un grand terrain en parallèle : le reste du fichier est découpé en tranches
+     * de lignes (voir DecoupageTerrain), dont les cases sont lues chacune par un LecteurDonnees
+     * propre et écrites directement dans le stockage de la carte. La carte, les erreurs et leurs
+     * numéros de ligne sont les mêmes qu'avec une lecture case par case ; si plusieurs tranches
+     * contiennent une erreur, c'est celle de la première qui est signalée.
+     */
+    private Carte lireCasesEnParallele(int nbLignes, int nbColonnes, int tailleCases) throws DataFormatException {
+        int taille = nbLignes * nbColonnes;
+        DecoupageTerrain decoupage;
+        try {
+            decoupage = new DecoupageTerrain(this.canal, lexeur.getPosition(), lexeur.getLigne());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StockageTableau stockage = new StockageTableau(taille, NatureTerrain.TERRAIN_LIBRE);
+        int nbTranches = decoupage.getNbTranches();
+        DataFormatException[] erreurs = new DataFormatException[nbTranches];
+        long[] fin = new long[2];
+        DecoupageTerrain.enParallele(nbTranches, t -> {
+            long premiere = decoupage.getPremiereCase(t);
+            if (premiere >= taille) {
+                return;  // Tranche des incendies et des robots, lue ensuite par ce lecteur
+            }
+            int nombre = (int) Math.min(decoupage.getNbCases(t), taille - premiere);
+            LecteurDonnees lecteur = new LecteurDonnees(null, decoupage.lexeur(t));
+            try {
+                lecteur.lireNatures(stockage, (int) premiere, nombre);
+            } catch (DataFormatException e) {
+                erreurs[t] = e;
+                return;
+            }
+            if (premiere + nombre == taille) {
+                // Seule la tranche de la dernière case écrit ici.
+                fin[0] = decoupage.getDebut(t) + lecteur.lexeur.getPosition();
+                fin[1] = lecteur.lexeur.getLigne();
+            }
+        });
+        for (DataFormatException erreur : erreurs) {
+            if (erreur != null) {
+                throw erreur;
+            }
+        }
+        if (decoupage.getNbCasesTotal() < taille) {
+            throw erreur("format de case invalide. "
+                    + "Attendu: nature altitude [valeur_specifique]", decoupage.getLigneFinale());
+        }
+        // Reprendre la lecture séquentielle après la dernière case.
+        try {
+            this.canal.position(fin[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lexeur.reprendre(fin[0], (int) fin[1]);
+        return new Carte(nbLignes, nbColonnes, tailleCases, stockage);
+    }
+
+    /**
+     * Lit des cases consécutives, une par ligne, et range leur nature dans un stockage.
+     */
+    private void lireNatures(StockageTerrain stockage, int premiere, int nombre) throws DataFormatException {
+        for (int k = 0; k < nombre; k++) {
+            ignorerCommentaires();
+            lexeur.lireMot();
+            NatureTerrain nature = lireNature();
+            verifieLigneTerminee();
+            stockage.ecrire(premiere + k, (byte) nature.ordinal());
+        }
+    }
+
+    /**
+     * Reconnaît la nature de terrain du mot courant d'après sa première lettre, puis vérifie le mot entier.
+     */
+    private NatureTerrain lireNature() throws DataFormatException {
+        NatureTerrain nature;
+        switch (lexeur.initialeMot()) {
+            case 'E':
+                nature = NatureTerrain.EAU;
+                break;
+            case 'F':
+                nature = NatureTerrain.FORET;
+                break;
+            case 'R':
+                nature = NatureTerrain.ROCHE;
+                break;
+            case 'T':
+                nature = NatureTerrain.TERRAIN_LIBRE;
+                break;
+            case 'H':
+                nature = NatureTerrain.HABITAT;
+                break;
+            default:
+                nature = null;
+        }
+        if (nature == null || !lexeur.motEgal(NATURES[nature.ordinal()])) {
+            throw erreur("Nature de terrain inconnue: " + lexeur.motEnTexte());
+        }
+        return nature;
+    }
+
     /**
      * Lit et retourne un tableau d'Incendies.
      */
     private Incendie[] lireIncendies(Carte carte) throws DataFormatException {
     ignorerCommentaires();
     try {
-        int nbIncendies = scanner.nextInt();
+        int nbIncendies = lexeur.lireEntier();
         Incendie[] incendies = new Incendie[nbIncendies];
 
         for (int i = 0; i < nbIncendies; i++) {
@@ -106,7 +344,7 @@ public class LecteurDonnees {
         return incendies;
 
     } catch (NoSuchElementException e) {
-        throw new DataFormatException("Format invalide. Attendu: nbIncendies");
+        throw erreur("Format invalide. Attendu: nbIncendies");
     }
 }
 
@@ -116,7 +354,7 @@ public class LecteurDonnees {
     private Robot[] lireRobots(Carte carte) throws DataFormatException {
         ignorerCommentaires();
         try {
-            int nbRobots = scanner.nextInt();
+            int nbRobots = lexeur.lireEntier();
             Robot[] robots = new Robot[nbRobots]; 
             for (int i = 0; i < nbRobots; i++) {
                 robots[i] = lireRobot(i,carte);
@@ -124,18 +362,18 @@ public class LecteurDonnees {
             return robots;
 
         } catch (NoSuchElementException e) {
-            throw new DataFormatException("Format invalide. Attendu: nbRobots");
+            throw erreur("Format invalide. Attendu: nbRobots");
         }
     }
 
     private Incendie lireIncendie(int i,Carte carte) throws DataFormatException {
         ignorerCommentaires();
         try {
-            int lig = scanner.nextInt();
-            int col = scanner.nextInt();
-            int intensite = scanner.nextInt();
+            int lig = lexeur.lireEntier();
+            int col = lexeur.lireEntier();
+            int intensite = lexeur.lireEntier();
             if (intensite <= 0) {
-                throw new DataFormatException("L'intensité de l'incendie doit être > 0");
+                throw erreur("L'intensité de l'incendie doit être > 0");
             }
             verifieLigneTerminee();
         
@@ -143,7 +381,7 @@ public class LecteurDonnees {
             return new Incendie(position, intensite);
 
         } catch (NoSuchElementException e) {
-            throw new DataFormatException("Format d'incendie invalide. Attendu: ligne, colonne, intensité.");
+            throw erreur("Format d'incendie invalide. Attendu: ligne, colonne, intensité.");
         }
     }
 
@@ -151,61 +389,58 @@ public class LecteurDonnees {
      * Lit et crée un Robot.
      */
 private Robot lireRobot(int i, Carte carte) throws DataFormatException {
+    ignorerCommentaires();
     try {
-        int lig = scanner.nextInt();
-        int col = scanner.nextInt();
-        String type = scanner.next();
+        int lig = lexeur.lireEntier();
+        int col = lexeur.lireEntier();
+        lexeur.lireMot();
+        String type = lexeur.motEnTexte();
+        int ligneType = lexeur.getLigne();
 
-        double vitesse = 0;
-        String s = scanner.findInLine("(\\d+(\\.\\d+)?)");  // Gère les doubles
-        if (s == null) {
-        } else {
-            vitesse = Double.parseDouble(s);
-        }
+        double vitesse = lexeur.lireDecimalOptionnel();  // Gère les doubles, NaN si absente
+        boolean vitesseDonnee = !Double.isNaN(vitesse);
         verifieLigneTerminee();
 
         // Création du robot selon son type en passant la carte en argument
         switch (type.toUpperCase()) {
             case "DRONE":
-                if (s == null) {
+                if (!vitesseDonnee) {
                     vitesse = 100.0;  // Par défaut si vitesse non spécifiée
                 }
                 return new Drone(lig, col, vitesse, i, carte, classeRobot.DRONE);  // Passe carte
             case "ROUES":
-                if (s == null) {
+                if (!vitesseDonnee) {
                     vitesse = 80.0;  // Par défaut si vitesse non spécifiée
                 }
                 return new Roue(lig, col, vitesse, i, carte, classeRobot.ROUE);  // Passe carte
             case "CHENILLES":
-                if (s == null) {
+                if (!vitesseDonnee) {
                     vitesse = 60.0;  // Par défaut si vitesse non spécifiée
                 }
                 return new Chenille(lig, col, vitesse, i, carte, classeRobot.CHENILLE);  // Passe carte
             case "PATTES":
                 return new Pattes(lig, col, i, carte, classeRobot.PATTES);  // Les pattes n'ont pas de vitesse
             default:
-                throw new DataFormatException("Type de robot inconnu: " + type);
+                throw erreur("Type de robot inconnu: " + type, ligneType);
         }
     } catch (NoSuchElementException e) {
-        throw new DataFormatException("Format de robot invalide. Attendu: ligne, colonne, type, vitesse.");
+        throw erreur("Format de robot invalide. Attendu: ligne, colonne, type, vitesse.");
     }
 }
 
 
 
     private void ignorerCommentaires() {
-        while (scanner.hasNext("#.*")) {
-            scanner.nextLine();
-        }
+        lexeur.ignorerCommentaires();
     }
 
     /**
-     * Verifie qu'il n'y a plus rien a lire sur cette ligne (int ou float).
-     * @throws ExceptionFormatDonnees
+     * Verifie qu'il n'y a plus rien a lire sur cette ligne, sinon un commentaire.
+     * @throws DataFormatException
      */
     private void verifieLigneTerminee() throws DataFormatException {
-        if (scanner.findInLine("(\\d+)") != null) {
-            throw new DataFormatException("format invalide, donnees en trop.");
+        if (!lexeur.terminerLigne()) {
+            throw erreur("format invalide, donnees en trop.");
         }
     }
 }
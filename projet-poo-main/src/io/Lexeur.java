@@ -0,0 +1,312 @@
+package io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * La classe Lexeur découpe un fichier de données en mots séparés par des blancs, en lisant
+ * directement les octets d'un canal par blocs, sans expression régulière et sans créer de
+ * String par mot : le mot courant est copié dans un petit tableau réutilisé, que l'appelant
+ * compare aux mots-clés attendus. Elle compte les lignes pour les messages d'erreur.
+ *
+ * Comme Scanner, elle signale un mot manquant par une NoSuchElementException et un mot qui
+ * n'est pas un entier par une InputMismatchException. Chaque lecteur a son propre Lexeur :
+ * plusieurs fichiers peuvent être lus en même temps par des threads différents.
+ */
+final class Lexeur {
+
+    private static final int TAILLE_BLOC = 1 << 16;
+
+    private final ReadableByteChannel canal;
+    private final byte[] octets = new byte[TAILLE_BLOC];
+    private final ByteBuffer tampon = ByteBuffer.wrap(this.octets);
+    private int position;
+    private int limite;
+    private boolean finCanal;
+    private long lus; // Nombre d'octets lus dans le canal depuis le début de la lecture.
+    private int ligne;
+
+    private byte[] mot = new byte[32];
+    private int longueurMot;
+
+    Lexeur(ReadableByteChannel canal) {
+        this(canal, 1);
+    }
+
+    /**
+     * Crée un lexeur qui lit un canal à partir de la ligne donnée du fichier, pour que les
+     * numéros de ligne restent ceux du fichier quand le canal n'en couvre qu'une partie.
+     */
+    Lexeur(ReadableByteChannel canal, int ligne) {
+        this.canal = canal;
+        this.ligne = ligne;
+    }
+
+    /**
+     * Retourne le numéro (à partir de 1) de la ligne en cours de lecture.
+     */
+    int getLigne() {
+        return this.ligne;
+    }
+
+    /**
+     * Retourne le nombre d'octets consommés depuis le début de la lecture.
+     */
+    long getPosition() {
+        return this.lus - (this.limite - this.position);
+    }
+
+    /**
+     * Oublie les octets lus d'avance, pour reprendre la lecture là où l'appelant a replacé le canal.
+     *
+     * @param position La position du canal, comptée comme getPosition.
+     * @param ligne    Le numéro de la ligne qui commence à cette position.
+     */
+    void reprendre(long position, int ligne) {
+        this.position = 0;
+        this.limite = 0;
+        this.finCanal = false;
+        this.lus = position;
+        this.ligne = ligne;
+    }
+
+    /**
+     * Retourne l'octet suivant sans le consommer, ou -1 à la fin du fichier.
+     */
+    private int suivant() {
+        if (this.position == this.limite && !remplir()) {
+            return -1;
+        }
+        return this.octets[this.position] & 0xFF;
+    }
+
+    private void avancer() {
+        if (this.octets[this.position++] == '\n') {
+            this.ligne++;
+        }
+    }
+
+    private boolean remplir() {
+        if (this.finCanal) {
+            return false;
+        }
+        try {
+            this.tampon.clear();
+            int nbLus;
+            do {
+                nbLus = this.canal.read(this.tampon);
+            } while (nbLus == 0);
+            if (nbLus < 0) {
+                this.finCanal = true;
+                return false;
+            }
+            this.position = 0;
+            this.limite = nbLus;
+            this.lus += nbLus;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean estBlanc(int octet) {
+        return octet == ' ' || octet == '\n' || octet == '\r' || octet == '\t' || octet == '\f' || octet == 0x0B;
+    }
+
+    private static boolean estChiffre(int octet) {
+        return octet >= '0' && octet <= '9';
+    }
+
+    private int sauterBlancs() {
+        int octet = suivant();
+        while (octet != -1 && estBlanc(octet)) {
+            avancer();
+            octet = suivant();
+        }
+        return octet;
+    }
+
+    private void sauterLigne() {
+        int octet = suivant();
+        while (octet != -1 && octet != '\n') {
+            avancer();
+            octet = suivant();
+        }
+        if (octet == '\n') {
+            avancer();
+        }
+    }
+
+    /**
+     * Saute les blancs et les lignes de commentaire (commençant par #) qui précèdent le mot suivant.
+     */
+    void ignorerCommentaires() {
+        while (sauterBlancs() == '#') {
+            sauterLigne();
+        }
+    }
+
+    /**
+     * Saute les blancs et les commentaires, puis indique s'il reste un mot dans le fichier.
+     */
+    boolean resteUnMot() {
+        ignorerCommentaires();
+        return suivant() != -1;
+    }
+
+    /**
+     * Passe à la ligne suivante sans examiner la fin de la ligne courante.
+     */
+    void passerLigne() {
+        sauterLigne();
+    }
+
+    /**
+     * Lit le mot suivant dans le tableau du mot courant.
+     *
+     * @throws NoSuchElementException S'il n'y a plus de mot dans le fichier.
+     */
+    void lireMot() {
+        int octet = sauterBlancs();
+        if (octet == -1) {
+            throw new NoSuchElementException();
+        }
+        this.longueurMot = 0;
+        while (octet != -1 && !estBlanc(octet)) {
+            if (this.longueurMot == this.mot.length) {
+                this.mot = Arrays.copyOf(this.mot, 2 * this.mot.length);
+            }
+            this.mot[this.longueurMot++] = (byte) octet;
+            avancer();
+            octet = suivant();
+        }
+    }
+
+    /**
+     * Retourne le premier octet du mot courant, en majuscule s'il s'agit d'une lettre ASCII.
+     */
+    int initialeMot() {
+        int octet = this.mot[0] & 0xFF;
+        return (octet >= 'a' && octet <= 'z') ? octet - ('a' - 'A') : octet;
+    }
+
+    /**
+     * Compare le mot courant à un mot-clé écrit en majuscules ASCII, sans tenir compte de la casse.
+     */
+    boolean motEgal(byte[] motCle) {
+        if (this.longueurMot != motCle.length) {
+            return false;
+        }
+        for (int k = 0; k < motCle.length; k++) {
+            int octet = this.mot[k];
+            if (octet >= 'a' && octet <= 'z') {
+                octet -= 'a' - 'A';
+            }
+            if (octet != motCle[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne le mot courant sous forme de texte, pour un message d'erreur.
+     */
+    String motEnTexte() {
+        return new String(this.mot, 0, this.longueurMot, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lit un entier, éventuellement signé, en sautant les blancs et les fins de ligne qui le précèdent.
+     *
+     * @throws NoSuchElementException S'il n'y a plus de mot dans le fichier.
+     * @throws InputMismatchException Si le mot suivant n'est pas un entier.
+     */
+    int lireEntier() {
+        int octet = sauterBlancs();
+        if (octet == -1) {
+            throw new NoSuchElementException();
+        }
+        boolean negatif = octet == '-';
+        if (octet == '-' || octet == '+') {
+            avancer();
+            octet = suivant();
+        }
+        if (!estChiffre(octet)) {
+            throw new InputMismatchException();
+        }
+        long valeur = 0;
+        while (estChiffre(octet)) {
+            valeur = 10 * valeur + (octet - '0');
+            if (valeur > 1L + Integer.MAX_VALUE) {
+                throw new InputMismatchException();
+            }
+            avancer();
+            octet = suivant();
+        }
+        if (octet != -1 && !estBlanc(octet)) {
+            throw new InputMismatchException();
+        }
+        valeur = negatif ? -valeur : valeur;
+        if (valeur > Integer.MAX_VALUE) {
+            throw new InputMismatchException();
+        }
+        return (int) valeur;
+    }
+
+    /**
+     * Lit, sur la ligne courante, un nombre décimal optionnel (chiffres, éventuellement suivis
+     * d'un point et de chiffres).
+     *
+     * @return Le nombre lu, ou NaN si la suite de la ligne ne commence pas par un chiffre.
+     */
+    double lireDecimalOptionnel() {
+        int octet = sauterEspaces();
+        if (!estChiffre(octet)) {
+            return Double.NaN;
+        }
+        // Quelques nombres par fichier seulement (les vitesses des robots) : on passe par Double.parseDouble.
+        StringBuilder nombre = new StringBuilder();
+        while (estChiffre(octet)) {
+            nombre.append((char) octet);
+            avancer();
+            octet = suivant();
+            if (octet == '.' && nombre.indexOf(".") < 0) {
+                nombre.append('.');
+                avancer();
+                octet = suivant();
+            }
+        }
+        return Double.parseDouble(nombre.toString());
+    }
+
+    // Saute les espaces et tabulations de la ligne courante, sans passer à la ligne suivante.
+    private int sauterEspaces() {
+        int octet = suivant();
+        while (octet == ' ' || octet == '\t' || octet == '\f' || octet == 0x0B) {
+            avancer();
+            octet = suivant();
+        }
+        return octet;
+    }
+
+    /**
+     * Vérifie que la ligne courante ne contient plus rien, sinon un commentaire, et passe à la ligne suivante.
+     *
+     * @return true si la ligne était terminée, false s'il restait des données (la ligne n'est alors pas consommée).
+     */
+    boolean terminerLigne() {
+        int octet = sauterEspaces();
+        if (octet == -1 || octet == '\n' || octet == '\r' || octet == '#') {
+            sauterLigne();
+            return true;
+        }
+        return false;
+    }
+}
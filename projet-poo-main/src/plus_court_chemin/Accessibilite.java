@@ -0,0 +1,259 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import robots.CostModel;
+
+/**
+ * La classe Accessibilite répond, pour une carte et une classe de coût, à la question « ce robot
+ * peut-il seulement atteindre cette case ? » sans lancer de recherche de chemin.
+ *
+ * Chaque ligne de la carte est rangée dans des mots de 64 bits, un bit par case praticable, ce qui
+ * permet de la découper en plages de cases praticables 64 cases à la fois. Au chargement, ces plages
+ * sont regroupées en composantes connexes ; deux cases sont mutuellement accessibles si elles sont
+ * dans la même composante.
+ *
+ * Une case est praticable si au moins un déplacement permet d'y entrer. Si une durée arrondie à 0 m/s
+ * interdit un passage entre deux cases praticables, les composantes surestiment ce qui est accessible :
+ * une réponse négative reste sûre, une réponse positive n'est qu'une présomption.
+ * Les composantes sont gardées en cache par carte et par classe de coût et recalculées quand la
+ * version de la carte change.
+ */
+public final class Accessibilite {
+
+    private static final Map<Carte, Map<CostModel, Accessibilite>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int version;
+    private final int nbLignes;
+    private final int nbColonnes;
+    private final int nbMots;
+    // praticable[ligne * nbMots + k] : bit b pour la colonne 64 k + b.
+    private final long[] praticable;
+    // Numéro de composante de chaque case praticable, -1 pour les autres.
+    private final int[] composante;
+    private int nbComposantes;
+
+    private Accessibilite(Carte carte, CostModel modele) {
+        this.version = carte.getVersion();
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        this.nbMots = (this.nbColonnes + 63) >>> 6;
+        boolean[] terrainPraticable = new boolean[CostModel.NB_TERRAINS];
+        for (int arrivee = 0; arrivee < CostModel.NB_TERRAINS; arrivee++) {
+            for (int depart = 0; depart < CostModel.NB_TERRAINS; depart++) {
+                terrainPraticable[arrivee] |= modele.getDuree(depart, arrivee) != -1;
+            }
+        }
+        this.praticable = new long[this.nbLignes * this.nbMots];
+        // Le terrain est lu par plages de cases de même nature, mises à 1 mot par mot.
+        for (int i = 0; i < this.nbLignes; i++) {
+            for (int j = 0; j < this.nbColonnes; ) {
+                int fin = carte.finUniforme(i, j);
+                if (terrainPraticable[carte.getNatureOrdinal(i, j)]) {
+                    marquer(i * this.nbMots, j, fin);
+                }
+                j = fin;
+            }
+        }
+        this.composante = new int[this.nbLignes * this.nbColonnes];
+        Arrays.fill(this.composante, -1);
+        calculerComposantes();
+    }
+
+    // Met à 1 les bits des colonnes debut (incluse) à fin (exclue) de la ligne commençant au mot base.
+    private void marquer(int base, int debut, int fin) {
+        int premier = debut >>> 6;
+        int dernier = (fin - 1) >>> 6;
+        long masqueDebut = -1L << debut;
+        long masqueFin = -1L >>> (-fin & 63);
+        if (premier == dernier) {
+            this.praticable[base + premier] |= masqueDebut & masqueFin;
+            return;
+        }
+        this.praticable[base + premier] |= masqueDebut;
+        Arrays.fill(this.praticable, base + premier + 1, base + dernier, -1L);
+        this.praticable[base + dernier] |= masqueFin;
+    }
+
+    /**
+     * Retourne l'accessibilité d'une carte pour une classe de coût, en la calculant si nécessaire.
+     *
+     * @param carte  La carte.
+     * @param modele La table des durées de déplacement.
+     * @return Les composantes à jour.
+     */
+    public static Accessibilite pour(Carte carte, CostModel modele) {
+        synchronized (CACHE) {
+            Map<CostModel, Accessibilite> parModele = CACHE.computeIfAbsent(carte, c -> new HashMap<>());
+            Accessibilite accessibilite = parModele.get(modele);
+            if (accessibilite == null || accessibilite.version != carte.getVersion()) {
+                accessibilite = new Accessibilite(carte, modele);
+                parModele.put(modele, accessibilite);
+            }
+            return accessibilite;
+        }
+    }
+
+    public int getNbComposantes() {
+        return this.nbComposantes;
+    }
+
+    /**
+     * Indique si un robot peut atteindre une case, avec les conventions de aetoile : il peut partir
+     * d'une case interdite et le dernier pas vers une destination interdite est permis.
+     *
+     * @param depart  La case du robot.
+     * @param arrivee La case à atteindre.
+     * @return false si aucun chemin n'existe ; true si un chemin existe, sous la réserve
+     *         donnée dans la description de la classe.
+     */
+    public boolean estAtteignable(Case depart, Case arrivee) {
+        int src = depart.getLigne() * this.nbColonnes + depart.getColonne();
+        int dst = arrivee.getLigne() * this.nbColonnes + arrivee.getColonne();
+        if (src == dst || (this.composante[dst] == -1 && distance(src, dst) == 1)) {
+            return true;
+        }
+        for (int a : cellulesDepart(src)) {
+            for (int b : cellulesArrivee(dst)) {
+                if (a != -1 && b != -1 && this.composante[a] == this.composante[b]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Numérote les composantes. Chaque ligne est découpée en plages de cases praticables
+     * consécutives, trouvées mot par mot ; une plage est unie (union-find) à chaque plage de la
+     * ligne précédente qu'elle chevauche. Un seul passage sur la carte suffit.
+     */
+    private void calculerComposantes() {
+        int[] pere = new int[64];
+        // Plages de toutes les lignes : ligne, première et dernière colonne, numéro provisoire.
+        int[] plages = new int[256];
+        int nbPlages = 0;
+        int debutPrecedente = 0;
+        int finPrecedente = 0;
+        for (int i = 0; i < this.nbLignes; i++) {
+            int debutLigne = nbPlages;
+            int p = debutPrecedente;
+            int j = prochaineColonne(i, 0, true);
+            while (j < this.nbColonnes) {
+                int fin = prochaineColonne(i, j, false) - 1;
+                if (nbPlages == pere.length) {
+                    pere = Arrays.copyOf(pere, 2 * nbPlages);
+                }
+                if (4 * nbPlages + 4 > plages.length) {
+                    plages = Arrays.copyOf(plages, 2 * plages.length);
+                }
+                int numero = nbPlages;
+                pere[numero] = numero;
+                plages[4 * numero] = i;
+                plages[4 * numero + 1] = j;
+                plages[4 * numero + 2] = fin;
+                nbPlages++;
+                // Plages de la ligne précédente qui chevauchent [j, fin].
+                while (p < finPrecedente && plages[4 * p + 2] < j) {
+                    p++;
+                }
+                for (int q = p; q < finPrecedente && plages[4 * q + 1] <= fin; q++) {
+                    unir(pere, numero, q);
+                }
+                j = prochaineColonne(i, fin + 1, true);
+            }
+            debutPrecedente = debutLigne;
+            finPrecedente = nbPlages;
+        }
+        int[] numeros = new int[nbPlages];
+        Arrays.fill(numeros, -1);
+        for (int k = 0; k < nbPlages; k++) {
+            int racine = trouver(pere, k);
+            if (numeros[racine] == -1) {
+                numeros[racine] = this.nbComposantes++;
+            }
+            int base = plages[4 * k] * this.nbColonnes;
+            Arrays.fill(this.composante, base + plages[4 * k + 1], base + plages[4 * k + 2] + 1, numeros[racine]);
+        }
+    }
+
+    private static int trouver(int[] pere, int x) {
+        while (pere[x] != x) {
+            pere[x] = pere[pere[x]];
+            x = pere[x];
+        }
+        return x;
+    }
+
+    private static void unir(int[] pere, int a, int b) {
+        int ra = trouver(pere, a);
+        int rb = trouver(pere, b);
+        if (ra != rb) {
+            pere[Math.max(ra, rb)] = Math.min(ra, rb);
+        }
+    }
+
+    /**
+     * Retourne la première colonne à partir de j dont la case est praticable (ou ne l'est pas),
+     * en sautant 64 cases à la fois ; nbColonnes s'il n'y en a pas.
+     */
+    private int prochaineColonne(int ligne, int j, boolean praticable) {
+        if (j >= this.nbColonnes) {
+            return this.nbColonnes;
+        }
+        int k = j >>> 6;
+        long mot = this.praticable[ligne * this.nbMots + k];
+        mot = (praticable ? mot : ~mot) & (-1L << j);
+        while (mot == 0) {
+            if (++k == this.nbMots) {
+                return this.nbColonnes;
+            }
+            mot = this.praticable[ligne * this.nbMots + k];
+            if (!praticable) {
+                mot = ~mot;
+            }
+        }
+        return Math.min(this.nbColonnes, (k << 6) + Long.numberOfTrailingZeros(mot));
+    }
+
+    /**
+     * Cases praticables d'où part le robot : sa case, ou ses voisines s'il est sur une case interdite.
+     */
+    private int[] cellulesDepart(int src) {
+        return this.composante[src] != -1 ? new int[] {src} : voisinsPraticables(src);
+    }
+
+    /**
+     * Cases praticables où le robot peut finir : la destination, ou ses voisines si elle est interdite.
+     */
+    private int[] cellulesArrivee(int dst) {
+        return this.composante[dst] != -1 ? new int[] {dst} : voisinsPraticables(dst);
+    }
+
+    private int[] voisinsPraticables(int cellule) {
+        int i = cellule / this.nbColonnes;
+        int j = cellule % this.nbColonnes;
+        int[] voisins = {
+            i > 0 ? cellule - this.nbColonnes : -1,
+            i + 1 < this.nbLignes ? cellule + this.nbColonnes : -1,
+            j + 1 < this.nbColonnes ? cellule + 1 : -1,
+            j > 0 ? cellule - 1 : -1
+        };
+        for (int k = 0; k < voisins.length; k++) {
+            if (voisins[k] != -1 && this.composante[voisins[k]] == -1) {
+                voisins[k] = -1;
+            }
+        }
+        return voisins;
+    }
+
+    private int distance(int depart, int arrivee) {
+        return Math.abs(depart / this.nbColonnes - arrivee / this.nbColonnes)
+                + Math.abs(depart % this.nbColonnes - arrivee % this.nbColonnes);
+    }
+}
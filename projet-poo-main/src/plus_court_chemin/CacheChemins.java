@@ -0,0 +1,181 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Stack;
+import robots.CostModel;
+
+/**
+ * La classe CacheChemins garde les derniers résultats de aetoile, indexés par classe de coût,
+ * case de départ et case d'arrivée. Deux robots de la même classe posent la même question dès
+ * qu'ils sont sur la même case, et un robot qui n'a pas bougé la repose à chaque tour du chef
+ * pompier : la réponse est alors lue dans le cache au lieu d'être recalculée.
+ *
+ * Le cache est borné : au-delà de sa capacité, l'entrée utilisée le moins récemment est retirée.
+ * Il ne sert que pour une carte à la fois et est vidé dès que la version de la carte change.
+ * Les compteurs de succès, d'échecs et de retraits permettent d'en choisir la capacité.
+ */
+public class CacheChemins {
+
+    private final int capacite;
+    private final LinkedHashMap<Cle, Entree> entrees;
+    private Carte carte;
+    private int version;
+    private long nbSucces;
+    private long nbEchecs;
+    private long nbRetraits;
+    private long nbInvalidations;
+
+    /**
+     * Crée un cache vide.
+     *
+     * @param capacite Le nombre maximal de trajets gardés.
+     */
+    public CacheChemins(int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être positive : " + capacite);
+        }
+        this.capacite = capacite;
+        // Ordre d'accès : la première entrée est celle utilisée le moins récemment.
+        this.entrees = new LinkedHashMap<Cle, Entree>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Cle, Entree> plusAncienne) {
+                if (size() > CacheChemins.this.capacite) {
+                    CacheChemins.this.nbRetraits++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cherche un trajet dans le cache.
+     *
+     * @return L'entrée trouvée, ou null si le trajet n'a pas été calculé depuis la dernière
+     *         modification de la carte.
+     */
+    synchronized Entree chercher(Carte carte, CostModel modele, int src, int dst) {
+        verifierVersion(carte);
+        Entree entree = this.entrees.get(new Cle(modele, src, dst));
+        if (entree == null) {
+            this.nbEchecs++;
+        } else {
+            this.nbSucces++;
+        }
+        return entree;
+    }
+
+    /**
+     * Ajoute un trajet au cache. Le chemin est copié : l'appelant peut dépiler le sien.
+     */
+    synchronized void memoriser(Carte carte, CostModel modele, int src, int dst, int time, Stack<Direction> chemin) {
+        verifierVersion(carte);
+        this.entrees.put(new Cle(modele, src, dst), new Entree(time, copier(chemin)));
+    }
+
+    private void verifierVersion(Carte carte) {
+        if (carte != this.carte || carte.getVersion() != this.version) {
+            if (!this.entrees.isEmpty()) {
+                this.nbInvalidations++;
+                this.entrees.clear();
+            }
+            this.carte = carte;
+            this.version = carte.getVersion();
+        }
+    }
+
+    static Stack<Direction> copier(Stack<Direction> chemin) {
+        if (chemin == null) {
+            return null;
+        }
+        Stack<Direction> copie = new Stack<>();
+        copie.addAll(chemin);
+        return copie;
+    }
+
+    /**
+     * Vide le cache, sans remettre les compteurs à zéro.
+     */
+    public synchronized void vider() {
+        this.entrees.clear();
+    }
+
+    public int getCapacite() {
+        return this.capacite;
+    }
+
+    public synchronized int getTaille() {
+        return this.entrees.size();
+    }
+
+    public synchronized long getNbSucces() {
+        return this.nbSucces;
+    }
+
+    public synchronized long getNbEchecs() {
+        return this.nbEchecs;
+    }
+
+    /**
+     * @return Le nombre d'entrées retirées parce que le cache était plein.
+     */
+    public synchronized long getNbRetraits() {
+        return this.nbRetraits;
+    }
+
+    /**
+     * @return Le nombre de fois où le cache a été vidé parce que la carte avait changé.
+     */
+    public synchronized long getNbInvalidations() {
+        return this.nbInvalidations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long nbRequetes = this.nbSucces + this.nbEchecs;
+        return String.format("%d/%d entrées, %d succès, %d échecs (%.1f %%), %d retraits, %d invalidations",
+                this.entrees.size(), this.capacite, this.nbSucces, this.nbEchecs,
+                nbRequetes == 0 ? 0.0 : 100.0 * this.nbSucces / nbRequetes, this.nbRetraits, this.nbInvalidations);
+    }
+
+    /**
+     * Un trajet mémorisé : le temps et le chemin rendus par aetoile.
+     */
+    static final class Entree {
+        final int time;
+        final Stack<Direction> chemin;
+
+        Entree(int time, Stack<Direction> chemin) {
+            this.time = time;
+            this.chemin = chemin;
+        }
+    }
+
+    private static final class Cle {
+        private final CostModel modele;
+        private final int src;
+        private final int dst;
+
+        Cle(CostModel modele, int src, int dst) {
+            this.modele = modele;
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        public boolean equals(Object objet) {
+            if (!(objet instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) objet;
+            return this.src == autre.src && this.dst == autre.dst && this.modele.equals(autre.modele);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * this.modele.hashCode() + this.src) + this.dst;
+        }
+    }
+}
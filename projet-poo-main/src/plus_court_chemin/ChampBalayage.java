@@ -0,0 +1,339 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import robots.CostModel;
+
+/**
+ * La classe ChampBalayage construit les mêmes champs de distances que ChampDistance, mais par
+ * balayage rapide (fast sweeping) au lieu d'un Dijkstra.
+ *
+ * La grille des temps part de 0 sur les sources et d'un infini partout ailleurs ; chaque itération
+ * la balaie dans les quatre sens et remplace chaque temps par la durée du pas vers une voisine plus
+ * le temps de celle-ci, quand c'est plus petit. On s'arrête quand une itération ne change plus rien.
+ * Les balayages vers le nord et vers le sud relâchent une ligne entière à partir de la précédente :
+ * les cases d'une ligne sont indépendantes et le relâchement est confié à un NoyauBalayage, vectoriel
+ * si l'API Vector est disponible. Pour les balayages est et ouest, la grille est transposée afin que
+ * les colonnes deviennent des lignes et profitent du même noyau.
+ *
+ * Le nombre d'itérations croît avec le nombre de changements de sens des plus courts chemins : le
+ * balayage convient aux cartes ouvertes, beaucoup moins aux labyrinthes. Les durées des pas sont
+ * tirées du CostModel de la classe de robots ; comme dans ChampDistance, une case sur laquelle
+ * le robot ne peut pas se tenir reçoit un temps mais ne sert jamais d'étape.
+ */
+public class ChampBalayage {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Assez grand pour ne jamais être atteint, assez petit pour que INFINI + INFINI tienne dans un int.
+    private static final int INFINI = Integer.MAX_VALUE / 4;
+    private static final String MODULE_VECTEURS = "jdk.incubator.vector";
+    private static final NoyauBalayage NOYAU_PAR_DEFAUT = choisirNoyau();
+
+    private final NoyauBalayage noyau;
+    private int nbIterations;
+
+    /**
+     * Crée un constructeur de champs qui utilise l'API Vector si elle est disponible.
+     */
+    public ChampBalayage() {
+        this(true);
+    }
+
+    /**
+     * Crée un constructeur de champs.
+     *
+     * @param vecteursAutorises false pour toujours utiliser le noyau scalaire.
+     */
+    public ChampBalayage(boolean vecteursAutorises) {
+        this.noyau = vecteursAutorises ? NOYAU_PAR_DEFAUT : new NoyauBalayageScalaire();
+    }
+
+    /**
+     * Charge le noyau vectoriel si le module incubateur a été ajouté à la JVM
+     * (--add-modules jdk.incubator.vector) et si la classe a été compilée, le noyau scalaire sinon.
+     * Le noyau vectoriel n'est chargé que par réflexion, pour que cette classe ne dépende pas du module.
+     */
+    private static NoyauBalayage choisirNoyau() {
+        if (ModuleLayer.boot().findModule(MODULE_VECTEURS).isPresent()) {
+            try {
+                return (NoyauBalayage) Class.forName("plus_court_chemin.NoyauBalayageVectoriel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Classe absente ou module inutilisable : on se contente du noyau scalaire.
+            }
+        }
+        return new NoyauBalayageScalaire();
+    }
+
+    /**
+     * Indique si les champs sont relâchés avec l'API Vector.
+     *
+     * @return true si le noyau vectoriel est utilisé.
+     */
+    public boolean estVectoriel() {
+        return !(this.noyau instanceof NoyauBalayageScalaire);
+    }
+
+    /**
+     * Retourne le nombre d'itérations (de quatre balayages chacune) du dernier champ construit,
+     * y compris la dernière, qui ne change plus rien.
+     *
+     * @return Le nombre d'itérations.
+     */
+    public int getNbIterations() {
+        return this.nbIterations;
+    }
+
+    /**
+     * Construit le champ des temps de trajet vers une case, comme ChampDistance.versCase.
+     *
+     * @param carte  La carte sur laquelle calculer le champ.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     * @param cible  La case à atteindre.
+     * @return Le champ des temps de trajet vers la cible.
+     */
+    public ChampDistance versCase(Carte carte, CostModel modele, Case cible) {
+        return construire(carte, modele, new int[] {cible.getLigne() * carte.getNbColonnes() + cible.getColonne()});
+    }
+
+    /**
+     * Construit le champ des temps de trajet vers le point de remplissage le plus proche,
+     * comme ChampDistance.versEau.
+     *
+     * @param carte  La carte sur laquelle calculer le champ.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     * @return Le champ des temps de trajet vers le point de remplissage le plus proche.
+     */
+    public ChampDistance versEau(Carte carte, CostModel modele) {
+        int nbColonnes = carte.getNbColonnes();
+        boolean surEau = modele.estAccessible(NatureTerrain.EAU);
+        int[] sources = new int[4 * carte.getCasesEau().size()];
+        int nbSources = 0;
+        for (Case eau : carte.getCasesEau()) {
+            if (surEau) {
+                sources[nbSources++] = eau.getLigne() * nbColonnes + eau.getColonne();
+                continue;
+            }
+            for (Direction direction : DIRECTIONS) {
+                if (carte.voisinExiste(eau, direction)) {
+                    Case voisin = carte.getVoisin(eau, direction);
+                    if (modele.estAccessible(voisin.getNature())) {
+                        sources[nbSources++] = voisin.getLigne() * nbColonnes + voisin.getColonne();
+                    }
+                }
+            }
+        }
+        return construire(carte, modele, Arrays.copyOf(sources, nbSources));
+    }
+
+    private ChampDistance construire(Carte carte, CostModel modele, int[] sources) {
+        Couts couts = Couts.pour(carte, modele);
+        int nbLignes = couts.nbLignes;
+        int nbColonnes = couts.nbColonnes;
+        int nbCases = nbLignes * nbColonnes;
+        int[] temps = new int[nbCases];
+        Arrays.fill(temps, INFINI);
+        for (int source : sources) {
+            temps[source] = 0;
+        }
+        int[] tempsTransposes = new int[nbCases];
+        this.nbIterations = 0;
+        boolean change = true;
+        while (change) {
+            this.nbIterations++;
+            change = this.noyau.relaxer(temps, couts.versNord, nbLignes, nbColonnes, true);
+            change |= this.noyau.relaxer(temps, couts.versSud, nbLignes, nbColonnes, false);
+            transposer(temps, nbLignes, nbColonnes, tempsTransposes);
+            change |= this.noyau.relaxer(tempsTransposes, couts.versOuestTransposes, nbColonnes, nbLignes, true);
+            change |= this.noyau.relaxer(tempsTransposes, couts.versEstTransposes, nbColonnes, nbLignes, false);
+            transposer(tempsTransposes, nbColonnes, nbLignes, temps);
+        }
+        return new ChampDistance(nbColonnes, temps, orienter(temps, couts, sources));
+    }
+
+    /**
+     * Choisit le premier pas de chaque case. Un pas v -> w est serré si sa durée plus le temps de w
+     * vaut le temps de v ; avec des durées nulles, suivre n'importe quel pas serré pourrait tourner
+     * en rond. On parcourt donc en largeur, depuis les sources, le graphe des pas serrés : chaque
+     * case est orientée vers une case atteinte avant elle.
+     */
+    private static byte[] orienter(int[] temps, Couts couts, int[] sources) {
+        int nbLignes = couts.nbLignes;
+        int nbColonnes = couts.nbColonnes;
+        int nbCases = temps.length;
+        byte[] directions = new byte[nbCases];
+        Arrays.fill(directions, (byte) -1);
+        boolean[] atteinte = new boolean[nbCases];
+        int[] file = new int[nbCases];
+        int debut = 0;
+        int fin = 0;
+        for (int source : sources) {
+            if (!atteinte[source]) {
+                atteinte[source] = true;
+                file[fin++] = source;
+            }
+        }
+        while (debut < fin) {
+            int w = file[debut++];
+            if (!couts.relais[w]) {
+                continue;
+            }
+            for (Direction direction : DIRECTIONS) {
+                int v = voisin(w, direction, nbLignes, nbColonnes);
+                if (v == -1 || atteinte[v]) {
+                    continue;
+                }
+                // Le pas de v vers w va dans la direction opposée.
+                Direction retour = opposee(direction);
+                int cout = couts.duree(v, retour);
+                if (cout != INFINI && cout + temps[w] == temps[v]) {
+                    atteinte[v] = true;
+                    directions[v] = (byte) retour.ordinal();
+                    file[fin++] = v;
+                }
+            }
+        }
+        for (int v = 0; v < nbCases; v++) {
+            if (temps[v] >= INFINI) {
+                temps[v] = -1;
+            }
+        }
+        return directions;
+    }
+
+    /**
+     * Transpose une grille nbLignes x nbColonnes, par blocs pour rester dans le cache.
+     */
+    private static int[] transposer(int[] grille, int nbLignes, int nbColonnes, int[] resultat) {
+        if (resultat == null) {
+            resultat = new int[grille.length];
+        }
+        final int bloc = 32;
+        for (int i0 = 0; i0 < nbLignes; i0 += bloc) {
+            for (int j0 = 0; j0 < nbColonnes; j0 += bloc) {
+                int iFin = Math.min(nbLignes, i0 + bloc);
+                int jFin = Math.min(nbColonnes, j0 + bloc);
+                for (int i = i0; i < iFin; i++) {
+                    for (int j = j0; j < jFin; j++) {
+                        resultat[j * nbLignes + i] = grille[i * nbColonnes + j];
+                    }
+                }
+            }
+        }
+        return resultat;
+    }
+
+    private static Direction opposee(Direction direction) {
+        switch (direction) {
+            case NORD:
+                return Direction.SUD;
+            case SUD:
+                return Direction.NORD;
+            case EST:
+                return Direction.OUEST;
+            default:
+                return Direction.EST;
+        }
+    }
+
+    private static int voisin(int cellule, Direction direction, int nbLignes, int nbColonnes) {
+        int ligne = cellule / nbColonnes;
+        int colonne = cellule % nbColonnes;
+        switch (direction) {
+            case NORD:
+                return ligne > 0 ? cellule - nbColonnes : -1;
+            case SUD:
+                return ligne + 1 < nbLignes ? cellule + nbColonnes : -1;
+            case EST:
+                return colonne + 1 < nbColonnes ? cellule + 1 : -1;
+            default:
+                return colonne > 0 ? cellule - 1 : -1;
+        }
+    }
+
+    /**
+     * Les durées des pas d'une classe de coût sur une carte, rangées pour les balayages. Elles ne
+     * dépendent pas des sources : elles sont gardées tant que la carte n'est pas modifiée et
+     * servent à tous les champs de la classe.
+     */
+    private static final class Couts {
+
+        private static final Map<Carte, Map<CostModel, Couts>> CACHE =
+                Collections.synchronizedMap(new WeakHashMap<>());
+
+        private final int version;
+        final int nbLignes;
+        final int nbColonnes;
+        final boolean[] relais;
+        // versNord[v] : durée du pas de v vers sa voisine du nord, INFINI si ce pas est impossible
+        // ou si la voisine ne peut pas servir d'étape ; de même pour les autres directions.
+        final int[] versNord;
+        final int[] versSud;
+        final int[] versEst;
+        final int[] versOuest;
+        // Les durées vers l'est et vers l'ouest, colonne par colonne, pour la grille transposée.
+        final int[] versEstTransposes;
+        final int[] versOuestTransposes;
+
+        private Couts(Carte carte, CostModel modele) {
+            this.version = carte.getVersion();
+            this.nbLignes = carte.getNbLignes();
+            this.nbColonnes = carte.getNbColonnes();
+            int nbCases = this.nbLignes * this.nbColonnes;
+            int[] natures = new int[nbCases];
+            this.relais = new boolean[nbCases];
+            for (int i = 0; i < this.nbLignes; i++) {
+                for (int j = 0; j < this.nbColonnes; j++) {
+                    NatureTerrain nature = carte.getNature(i, j);
+                    natures[i * this.nbColonnes + j] = nature.ordinal();
+                    this.relais[i * this.nbColonnes + j] = modele.estAccessible(nature);
+                }
+            }
+            this.versNord = remplir(Direction.NORD, natures, modele);
+            this.versSud = remplir(Direction.SUD, natures, modele);
+            this.versEst = remplir(Direction.EST, natures, modele);
+            this.versOuest = remplir(Direction.OUEST, natures, modele);
+            this.versEstTransposes = transposer(this.versEst, this.nbLignes, this.nbColonnes, null);
+            this.versOuestTransposes = transposer(this.versOuest, this.nbLignes, this.nbColonnes, null);
+        }
+
+        static Couts pour(Carte carte, CostModel modele) {
+            synchronized (CACHE) {
+                Map<CostModel, Couts> parModele = CACHE.computeIfAbsent(carte, c -> new HashMap<>());
+                Couts couts = parModele.get(modele);
+                if (couts == null || couts.version != carte.getVersion()) {
+                    couts = new Couts(carte, modele);
+                    parModele.put(modele, couts);
+                }
+                return couts;
+            }
+        }
+
+        private int[] remplir(Direction direction, int[] natures, CostModel modele) {
+            int[] durees = new int[natures.length];
+            for (int v = 0; v < natures.length; v++) {
+                int w = voisin(v, direction, this.nbLignes, this.nbColonnes);
+                int duree = (w == -1 || !this.relais[w]) ? -1 : modele.getDuree(natures[v], natures[w]);
+                durees[v] = duree == -1 ? INFINI : duree;
+            }
+            return durees;
+        }
+
+        int duree(int cellule, Direction direction) {
+            switch (direction) {
+                case NORD:
+                    return this.versNord[cellule];
+                case SUD:
+                    return this.versSud[cellule];
+                case EST:
+                    return this.versEst[cellule];
+                default:
+                    return this.versOuest[cellule];
+            }
+        }
+    }
+}
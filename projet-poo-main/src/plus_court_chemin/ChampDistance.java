@@ -0,0 +1,234 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Stack;
+import robots.CostModel;
+
+/**
+ * La classe ChampDistance stocke, pour chaque case de la carte, le temps de trajet
+ * jusqu'à une cible et la direction du premier pas à faire pour s'en approcher.
+ * Le champ est calculé par un algorithme de Dijkstra inversé, lancé depuis la cible
+ * (ou depuis plusieurs cibles à la fois) en suivant les déplacements à rebours.
+ * Il ne dépend que de la classe de coût du robot : une fois construit, le temps de
+ * trajet et le chemin de n'importe quel robot de cette classe s'obtiennent sans
+ * nouvelle recherche.
+ */
+public class ChampDistance {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Les clés d'un Dijkstra sont croissantes et les durées sont de petits entiers.
+    private static final TypeFile TYPE_FILE = TypeFile.DIAL;
+
+    private final int nbColonnes;
+    private final int[] temps;
+    private final byte[] directions;
+
+    private ChampDistance(int nbLignes, int nbColonnes) {
+        this.nbColonnes = nbColonnes;
+        this.temps = new int[nbLignes * nbColonnes];
+        this.directions = new byte[nbLignes * nbColonnes];
+        Arrays.fill(this.temps, -1);
+        Arrays.fill(this.directions, (byte) -1);
+    }
+
+    /**
+     * Crée un champ à partir de tableaux déjà remplis (voir ChampBalayage).
+     */
+    ChampDistance(int nbColonnes, int[] temps, byte[] directions) {
+        this.nbColonnes = nbColonnes;
+        this.temps = temps;
+        this.directions = directions;
+    }
+
+    /**
+     * Construit le champ des temps de trajet vers une case, pour une classe de coût.
+     * Le robot doit pouvoir se tenir sur la case cible : si ce n'est pas le cas,
+     * seule la cible elle-même est considérée comme atteinte.
+     *
+     * @param carte  La carte sur laquelle calculer le champ.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     * @param cible  La case à atteindre.
+     * @return Le champ des temps de trajet vers la cible.
+     */
+    public static ChampDistance versCase(Carte carte, CostModel modele, Case cible) {
+        ChampDistance champ = new ChampDistance(carte.getNbLignes(), carte.getNbColonnes());
+        ContexteRecherche contexte = ContexteRecherche.courant(carte.getNbLignes() * carte.getNbColonnes(),
+                TYPE_FILE, modele.getCoutMax());
+        int id = cible.getLigne() * carte.getNbColonnes() + cible.getColonne();
+        champ.temps[id] = 0;
+        contexte.ouvrir(id, 0, 0, id);
+        champ.propager(carte, modele, contexte);
+        return champ;
+    }
+
+    /**
+     * Construit le champ des temps de trajet vers le point de remplissage le plus proche,
+     * pour une classe de coût. Un robot qui peut se tenir sur l'eau (un drone) se remplit
+     * sur une case d'eau ; les autres se remplissent depuis une case praticable voisine
+     * d'une case d'eau. Toutes ces cases servent de sources à un unique Dijkstra inversé.
+     *
+     * @param carte  La carte sur laquelle calculer le champ.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     * @return Le champ des temps de trajet vers le point de remplissage le plus proche.
+     */
+    public static ChampDistance versEau(Carte carte, CostModel modele) {
+        ChampDistance champ = new ChampDistance(carte.getNbLignes(), carte.getNbColonnes());
+        ContexteRecherche contexte = ContexteRecherche.courant(carte.getNbLignes() * carte.getNbColonnes(),
+                TYPE_FILE, modele.getCoutMax());
+        boolean surEau = modele.estAccessible(NatureTerrain.EAU);
+        for (Case eau : carte.getCasesEau()) {
+            if (surEau) {
+                champ.ajouterSource(contexte, eau);
+                continue;
+            }
+            for (Direction direction : DIRECTIONS) {
+                if (carte.voisinExiste(eau, direction)) {
+                    Case voisin = carte.getVoisin(eau, direction);
+                    if (modele.estAccessible(voisin.getNature())) {
+                        champ.ajouterSource(contexte, voisin);
+                    }
+                }
+            }
+        }
+        champ.propager(carte, modele, contexte);
+        return champ;
+    }
+
+    private void ajouterSource(ContexteRecherche contexte, Case source) {
+        int id = source.getLigne() * this.nbColonnes + source.getColonne();
+        if (this.temps[id] != 0) {
+            this.temps[id] = 0;
+            contexte.ouvrir(id, 0, 0, id);
+        }
+    }
+
+    /**
+     * Propage les temps de trajet à rebours depuis les cases déjà ouvertes dans le contexte.
+     * Une case sur laquelle le robot ne peut pas se tenir reçoit un temps (le robot peut y
+     * avoir été posé) mais ne sert jamais d'étape vers une autre case.
+     *
+     * @param carte   La carte.
+     * @param modele  La table des durées de déplacement.
+     * @param contexte Le contexte de recherche contenant les sources.
+     */
+    private void propager(Carte carte, CostModel modele, ContexteRecherche contexte) {
+        int nbLignes = carte.getNbLignes();
+        while (!contexte.fileVide()) {
+            int courant = contexte.extraire();
+            if (contexte.estFerme(courant)) {
+                continue;
+            }
+            contexte.fermer(courant);
+            int i = courant / this.nbColonnes;
+            int j = courant % this.nbColonnes;
+            NatureTerrain nature = carte.getNature(i, j);
+            if (!modele.estAccessible(nature)) {
+                continue;
+            }
+            int natureCourante = nature.ordinal();
+            for (Direction direction : DIRECTIONS) {
+                // On cherche le prédécesseur situé dans la direction donnée : il rejoint
+                // la case courante en se déplaçant dans la direction opposée.
+                int iPrec = i;
+                int jPrec = j;
+                Direction retour;
+                switch (direction) {
+                    case NORD:
+                        iPrec--;
+                        retour = Direction.SUD;
+                        break;
+                    case SUD:
+                        iPrec++;
+                        retour = Direction.NORD;
+                        break;
+                    case EST:
+                        jPrec++;
+                        retour = Direction.OUEST;
+                        break;
+                    default:
+                        jPrec--;
+                        retour = Direction.EST;
+                }
+                if (iPrec < 0 || iPrec >= nbLignes || jPrec < 0 || jPrec >= this.nbColonnes) {
+                    continue;
+                }
+                int prec = iPrec * this.nbColonnes + jPrec;
+                if (contexte.estFerme(prec)) {
+                    continue;
+                }
+                int duree = modele.getDuree(carte.getNatureOrdinal(iPrec, jPrec), natureCourante);
+                if (duree == -1) {
+                    continue;
+                }
+                int tempsNouveau = this.temps[courant] + duree;
+                if (this.temps[prec] == -1 || tempsNouveau < this.temps[prec]) {
+                    this.temps[prec] = tempsNouveau;
+                    this.directions[prec] = (byte) retour.ordinal();
+                    contexte.ouvrir(prec, tempsNouveau, tempsNouveau, courant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retourne le temps de trajet depuis une case jusqu'à la cible du champ.
+     *
+     * @param ligne   La ligne de la case de départ.
+     * @param colonne La colonne de la case de départ.
+     * @return Le temps de trajet, ou -1 si la cible est inaccessible depuis cette case.
+     */
+    public int getTemps(int ligne, int colonne) {
+        return this.temps[ligne * this.nbColonnes + colonne];
+    }
+
+    /**
+     * Retourne la direction du premier pas à faire depuis une case pour rejoindre la cible.
+     *
+     * @param ligne   La ligne de la case de départ.
+     * @param colonne La colonne de la case de départ.
+     * @return La direction à suivre, ou null si la case est la cible ou si elle est inaccessible.
+     */
+    public Direction getDirection(int ligne, int colonne) {
+        byte direction = this.directions[ligne * this.nbColonnes + colonne];
+        return direction == -1 ? null : DIRECTIONS[direction];
+    }
+
+    /**
+     * Retourne le chemin depuis une case jusqu'à la cible, sous la même forme que
+     * celui calculé par aetoile : la première direction à suivre est au sommet de la pile.
+     *
+     * @param ligne   La ligne de la case de départ.
+     * @param colonne La colonne de la case de départ.
+     * @return La pile des directions du chemin, ou null si la cible est inaccessible.
+     */
+    public Stack<Direction> getChemin(int ligne, int colonne) {
+        if (getTemps(ligne, colonne) == -1) {
+            return null;
+        }
+        Stack<Direction> chemin = new Stack<>();
+        Direction direction = getDirection(ligne, colonne);
+        while (direction != null) {
+            chemin.push(direction);
+            switch (direction) {
+                case NORD:
+                    ligne--;
+                    break;
+                case SUD:
+                    ligne++;
+                    break;
+                case EST:
+                    colonne++;
+                    break;
+                default:
+                    colonne--;
+            }
+            direction = getDirection(ligne, colonne);
+        }
+        // Les pas ont été empilés dans l'ordre du trajet : on retourne la pile
+        // pour que le premier pas se retrouve au sommet.
+        Collections.reverse(chemin);
+        return chemin;
+    }
+}
@@ -0,0 +1,142 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Stack;
+
+/**
+ * La classe CheminsMultiples contient le résultat d'une recherche d'un robot vers plusieurs cibles
+ * (voir aetoile.rechercheVersCibles) : le temps de trajet vers chaque cible atteinte, et l'arbre des
+ * prédécesseurs réduit aux chemins vers ces cibles, à partir duquel le chemin vers une cible n'est
+ * construit que lorsqu'on le demande.
+ *
+ * Les cibles atteintes sont rangées par identifiant croissant et retrouvées par dichotomie. Chaque
+ * case de l'arbre est un noeud, qui connaît l'indice du noeud précédent (-1 pour le départ) ; les
+ * chemins qui passent par les mêmes cases partagent leurs noeuds.
+ */
+public class CheminsMultiples {
+
+    private final int nbColonnes;
+    private final int src;
+    // Cibles atteintes par identifiant croissant, avec leur temps de trajet et leur noeud dans l'arbre.
+    private final int[] cibles;
+    private final int[] temps;
+    private final int[] noeudsCibles;
+    // L'arbre : identifiant de la case de chaque noeud et indice de son noeud précédent.
+    private final int[] cellules;
+    private final int[] peres;
+
+    /**
+     * Extrait le résultat d'une recherche terminée. Les marques et le tableau des prédécesseurs
+     * du contexte servent à construire l'arbre et ne sont plus utilisables ensuite.
+     *
+     * @param contexte    Le contexte de la recherche.
+     * @param nbColonnes  Le nombre de colonnes de la carte.
+     * @param src         L'identifiant de la case de départ.
+     * @param atteintes   Les identifiants des cibles atteintes.
+     * @param temps       Les temps de trajet correspondants.
+     * @param nbAtteintes Le nombre de cibles atteintes.
+     */
+    CheminsMultiples(ContexteRecherche contexte, int nbColonnes, int src, int[] atteintes, int[] temps,
+            int nbAtteintes) {
+        this.nbColonnes = nbColonnes;
+        this.src = src;
+        long[] triees = new long[nbAtteintes];
+        for (int k = 0; k < nbAtteintes; k++) {
+            triees[k] = (long) atteintes[k] << 32 | temps[k];
+        }
+        Arrays.sort(triees);
+        this.cibles = new int[nbAtteintes];
+        this.temps = new int[nbAtteintes];
+        this.noeudsCibles = new int[nbAtteintes];
+
+        // Une case déjà copiée est marquée, et son entrée de contexte.parent reçoit l'indice de son noeud.
+        contexte.effacerMarques();
+        int[] cellules = new int[Math.max(16, nbAtteintes)];
+        int[] peres = new int[cellules.length];
+        int[] montee = new int[16];
+        int nbNoeuds = 0;
+        for (int k = 0; k < nbAtteintes; k++) {
+            this.cibles[k] = (int) (triees[k] >>> 32);
+            this.temps[k] = (int) triees[k];
+            // On remonte jusqu'au départ ou jusqu'à une case déjà copiée...
+            int nbMontee = 0;
+            int courant = this.cibles[k];
+            while (courant != src && !contexte.estMarque(courant)) {
+                if (nbMontee == montee.length) {
+                    montee = Arrays.copyOf(montee, 2 * nbMontee);
+                }
+                montee[nbMontee++] = courant;
+                courant = contexte.parent[courant];
+            }
+            int pere = courant == src ? -1 : contexte.parent[courant];
+            if (nbNoeuds + nbMontee > cellules.length) {
+                int taille = Math.max(2 * cellules.length, nbNoeuds + nbMontee);
+                cellules = Arrays.copyOf(cellules, taille);
+                peres = Arrays.copyOf(peres, taille);
+            }
+            // ... puis on redescend en créant les noeuds des cases rencontrées.
+            for (int m = nbMontee - 1; m >= 0; m--) {
+                cellules[nbNoeuds] = montee[m];
+                peres[nbNoeuds] = pere;
+                contexte.marquer(montee[m]);
+                contexte.parent[montee[m]] = nbNoeuds;
+                pere = nbNoeuds++;
+            }
+            this.noeudsCibles[k] = pere;
+        }
+        this.cellules = Arrays.copyOf(cellules, nbNoeuds);
+        this.peres = Arrays.copyOf(peres, nbNoeuds);
+    }
+
+    CheminsMultiples(int nbColonnes, int src) {
+        this.nbColonnes = nbColonnes;
+        this.src = src;
+        this.cibles = new int[0];
+        this.temps = new int[0];
+        this.noeudsCibles = new int[0];
+        this.cellules = new int[0];
+        this.peres = new int[0];
+    }
+
+    /**
+     * Retourne le temps de trajet vers une cible.
+     *
+     * @param cible Une des cibles de la recherche.
+     * @return Le temps de trajet, ou -1 si la cible est inaccessible ou au-delà de la borne de la recherche.
+     */
+    public int getTemps(Case cible) {
+        int k = Arrays.binarySearch(this.cibles, cible.getLigne() * this.nbColonnes + cible.getColonne());
+        return k < 0 ? -1 : this.temps[k];
+    }
+
+    /**
+     * Construit le chemin vers une cible, sous la même forme que aetoile.getChemin :
+     * la première direction à suivre est au sommet de la pile. Une nouvelle pile est
+     * construite à chaque appel.
+     *
+     * @param cible Une des cibles de la recherche.
+     * @return La pile des directions, ou null si la cible n'a pas été atteinte.
+     */
+    public Stack<Direction> getChemin(Case cible) {
+        int k = Arrays.binarySearch(this.cibles, cible.getLigne() * this.nbColonnes + cible.getColonne());
+        if (k < 0) {
+            return null;
+        }
+        Stack<Direction> chemin = new Stack<>();
+        for (int noeud = this.noeudsCibles[k]; noeud != -1; noeud = this.peres[noeud]) {
+            int pere = this.peres[noeud] == -1 ? this.src : this.cellules[this.peres[noeud]];
+            chemin.push(aetoile.directionEntre(pere, this.cellules[noeud], this.nbColonnes));
+        }
+        return chemin;
+    }
+
+    /**
+     * Retourne le nombre de cibles atteintes.
+     *
+     * @return Le nombre de cibles pour lesquelles un temps a été trouvé.
+     */
+    public int getNbCiblesAtteintes() {
+        return this.cibles.length;
+    }
+}
@@ -0,0 +1,169 @@
+package plus_court_chemin;
+
+import java.util.Arrays;
+
+/**
+ * La classe ContexteRecherche regroupe les tableaux de travail d'une recherche de chemin.
+ * Chaque case de la carte est identifiée par l'entier ligne * nbColonnes + colonne,
+ * ce qui permet de stocker l'état de la recherche dans des tableaux plats de primitifs.
+ *
+ * Un contexte est réutilisé d'une recherche à l'autre par le même thread : au lieu de
+ * réinitialiser les tableaux, on incrémente un compteur de génération et une case n'est
+ * considérée comme visitée (ou fermée) que si sa marque vaut la génération courante.
+ * Une recherche en régime établi n'alloue donc rien.
+ */
+final class ContexteRecherche {
+
+    private static final ThreadLocal<ContexteRecherche> CONTEXTES =
+            ThreadLocal.withInitial(ContexteRecherche::new);
+    private static final ThreadLocal<ContexteRecherche> CONTEXTES_INVERSES =
+            ThreadLocal.withInitial(ContexteRecherche::new);
+
+    /** Coût du meilleur chemin connu depuis le départ, valide si vu[id] == generation. */
+    int[] g;
+
+    /** Identifiant de la case précédente sur le meilleur chemin connu. */
+    int[] parent;
+
+    private int[] vu;
+    private int[] ferme;
+    private int generation;
+    private int[] marque;
+    private int generationMarques;
+
+    private final TasBinaire tas = new TasBinaire();
+    private final FileDial fileDial = new FileDial();
+    private FilePriorite file = this.tas;
+
+    private ContexteRecherche() {
+        allouer(0);
+    }
+
+    /**
+     * Retourne le contexte du thread courant, prêt pour une nouvelle recherche
+     * sur une carte comportant le nombre de cases donné.
+     *
+     * @param nbCases  Le nombre de cases de la carte (nbLignes * nbColonnes).
+     * @param typeFile La file de priorité à utiliser.
+     * @param ecartMax Le plus grand écart entre la clé extraite et une clé insérée ensuite,
+     *                 utilisé pour dimensionner la file de Dial.
+     * @return Le contexte du thread courant.
+     */
+    static ContexteRecherche courant(int nbCases, TypeFile typeFile, int ecartMax) {
+        return initialiser(CONTEXTES.get(), nbCases, typeFile, ecartMax);
+    }
+
+    /**
+     * Retourne le second contexte du thread courant, pour les recherches qui ont besoin de deux
+     * jeux de tableaux à la fois (la recherche arrière de RechercheBidirectionnelle).
+     * Ses paramètres sont ceux de courant.
+     */
+    static ContexteRecherche inverse(int nbCases, TypeFile typeFile, int ecartMax) {
+        return initialiser(CONTEXTES_INVERSES.get(), nbCases, typeFile, ecartMax);
+    }
+
+    private static ContexteRecherche initialiser(ContexteRecherche contexte, int nbCases, TypeFile typeFile,
+            int ecartMax) {
+        contexte.preparer(nbCases);
+        contexte.file = (typeFile == TypeFile.DIAL) ? contexte.fileDial : contexte.tas;
+        contexte.file.vider(ecartMax);
+        return contexte;
+    }
+
+    private void allouer(int nbCases) {
+        this.g = new int[nbCases];
+        this.parent = new int[nbCases];
+        this.vu = new int[nbCases];
+        this.ferme = new int[nbCases];
+        this.generation = 0;
+        this.marque = new int[nbCases];
+        this.generationMarques = 0;
+    }
+
+    private void preparer(int nbCases) {
+        if (this.g.length < nbCases) {
+            allouer(nbCases);
+        }
+        if (this.generation == Integer.MAX_VALUE) {
+            // On a épuisé les générations : on repart de marques vierges.
+            Arrays.fill(this.vu, 0);
+            Arrays.fill(this.ferme, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+        effacerMarques();
+    }
+
+    /**
+     * Efface les marques posées par marquer, sans toucher à l'état de la recherche.
+     * C'est fait automatiquement au début de chaque recherche.
+     */
+    void effacerMarques() {
+        if (this.generationMarques == Integer.MAX_VALUE) {
+            Arrays.fill(this.marque, 0);
+            this.generationMarques = 0;
+        }
+        this.generationMarques++;
+    }
+
+    /**
+     * Marque une case, par exemple comme cible de la recherche.
+     */
+    void marquer(int id) {
+        this.marque[id] = this.generationMarques;
+    }
+
+    /**
+     * Indique si la case a été marquée depuis le dernier effacement des marques.
+     */
+    boolean estMarque(int id) {
+        return this.marque[id] == this.generationMarques;
+    }
+
+    /**
+     * Indique si la case a reçu un coût lors de la recherche courante.
+     */
+    boolean estVu(int id) {
+        return this.vu[id] == this.generation;
+    }
+
+    /**
+     * Indique si la case a été définitivement traitée lors de la recherche courante.
+     */
+    boolean estFerme(int id) {
+        return this.ferme[id] == this.generation;
+    }
+
+    /**
+     * Marque la case comme définitivement traitée.
+     */
+    void fermer(int id) {
+        this.ferme[id] = this.generation;
+    }
+
+    /**
+     * Enregistre un nouveau meilleur coût pour une case et l'insère dans la file.
+     *
+     * @param id     L'identifiant de la case.
+     * @param cout   Le coût depuis le départ.
+     * @param cle    La priorité de la case dans la file (f = g + h).
+     * @param pere   L'identifiant de la case précédente.
+     */
+    void ouvrir(int id, int cout, int cle, int pere) {
+        this.vu[id] = this.generation;
+        this.g[id] = cout;
+        this.parent[id] = pere;
+        this.file.inserer(id, cle);
+    }
+
+    boolean fileVide() {
+        return this.file.estVide();
+    }
+
+    /**
+     * Retire et retourne la case de plus petite clé de la file.
+     */
+    int extraire() {
+        return this.file.extraire();
+    }
+}
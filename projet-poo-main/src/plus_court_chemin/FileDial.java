@@ -0,0 +1,121 @@
+package plus_court_chemin;
+
+import java.util.Arrays;
+
+/**
+ * La classe FileDial implémente la file à seaux de Dial. Tant que toutes les clés présentes
+ * dans la file sont comprises entre la plus petite clé c et c + ecartMax, il suffit d'un seau
+ * par valeur de clé, rangés de manière circulaire : l'insertion et l'extraction se font en
+ * temps constant, sans comparaison.
+ *
+ * Les entrées sont chaînées dans des tableaux d'entiers et recyclées par une liste libre.
+ * Une clé plus éloignée que prévu fait doubler le nombre de seaux ; une clé inférieure
+ * à la dernière clé extraite est une erreur de l'appelant.
+ */
+final class FileDial implements FilePriorite {
+
+    private int[] tetes = new int[0];
+    private int masque;
+
+    private int[] entreeNoeud = new int[64];
+    private int[] entreeCle = new int[64];
+    private int[] entreeSuivante = new int[64];
+    private int nbEntrees;
+    private int libre = -1;
+
+    private int cleCourante; // La dernière clé extraite, ou la première clé insérée.
+    private boolean premiereInsertion;
+    private int taille;
+
+    @Override
+    public void vider(int ecartMax) {
+        int nbSeaux = Integer.highestOneBit(Math.max(1, ecartMax)) << 1;
+        if (this.tetes.length < nbSeaux) {
+            this.tetes = new int[nbSeaux];
+        }
+        this.masque = nbSeaux - 1;
+        Arrays.fill(this.tetes, 0, nbSeaux, -1);
+        this.nbEntrees = 0;
+        this.libre = -1;
+        this.taille = 0;
+        this.premiereInsertion = true;
+    }
+
+    @Override
+    public boolean estVide() {
+        return this.taille == 0;
+    }
+
+    @Override
+    public void inserer(int id, int cle) {
+        if (this.premiereInsertion) {
+            this.cleCourante = cle;
+            this.premiereInsertion = false;
+        } else if (cle < this.cleCourante) {
+            throw new IllegalStateException("Clé " + cle + " inférieure à la clé courante " + this.cleCourante);
+        }
+        if (cle - this.cleCourante > this.masque) {
+            agrandir(cle - this.cleCourante);
+        }
+        int entree = nouvelleEntree();
+        this.entreeNoeud[entree] = id;
+        this.entreeCle[entree] = cle;
+        int seau = cle & this.masque;
+        this.entreeSuivante[entree] = this.tetes[seau];
+        this.tetes[seau] = entree;
+        this.taille++;
+    }
+
+    @Override
+    public int extraire() {
+        int seau = this.cleCourante & this.masque;
+        while (this.tetes[seau] == -1) {
+            this.cleCourante++;
+            seau = this.cleCourante & this.masque;
+        }
+        int entree = this.tetes[seau];
+        this.tetes[seau] = this.entreeSuivante[entree];
+        this.entreeSuivante[entree] = this.libre;
+        this.libre = entree;
+        this.taille--;
+        return this.entreeNoeud[entree];
+    }
+
+    private int nouvelleEntree() {
+        if (this.libre != -1) {
+            int entree = this.libre;
+            this.libre = this.entreeSuivante[entree];
+            return entree;
+        }
+        if (this.nbEntrees == this.entreeNoeud.length) {
+            int capacite = 2 * this.nbEntrees;
+            this.entreeNoeud = Arrays.copyOf(this.entreeNoeud, capacite);
+            this.entreeCle = Arrays.copyOf(this.entreeCle, capacite);
+            this.entreeSuivante = Arrays.copyOf(this.entreeSuivante, capacite);
+        }
+        return this.nbEntrees++;
+    }
+
+    /**
+     * Augmente le nombre de seaux pour accueillir un écart de clés plus grand,
+     * puis répartit de nouveau les entrées présentes.
+     */
+    private void agrandir(int ecart) {
+        int ancienNbSeaux = this.masque + 1;
+        int[] anciennesTetes = Arrays.copyOf(this.tetes, ancienNbSeaux);
+        int nbSeaux = Integer.highestOneBit(ecart) << 1;
+        this.tetes = new int[nbSeaux];
+        Arrays.fill(this.tetes, -1);
+        this.masque = nbSeaux - 1;
+        for (int seau = 0; seau < ancienNbSeaux; seau++) {
+            int entree = anciennesTetes[seau];
+            while (entree != -1) {
+                int suivante = this.entreeSuivante[entree];
+                int nouveauSeau = this.entreeCle[entree] & this.masque;
+                this.entreeSuivante[entree] = this.tetes[nouveauSeau];
+                this.tetes[nouveauSeau] = entree;
+                entree = suivante;
+            }
+        }
+    }
+}
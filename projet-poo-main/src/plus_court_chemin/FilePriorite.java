@@ -0,0 +1,39 @@
+package plus_court_chemin;
+
+/**
+ * L'interface FilePriorite décrit la file de priorité d'identifiants de cases utilisée
+ * par les recherches de chemin. Les clés sont des entiers (des durées) et une même case
+ * peut être insérée plusieurs fois : c'est à l'appelant d'ignorer les entrées périmées.
+ */
+interface FilePriorite {
+
+    /**
+     * Vide la file avant une nouvelle recherche.
+     *
+     * @param ecartMax Le plus grand écart possible entre la plus petite clé de la file
+     *                 et une clé insérée ensuite.
+     */
+    void vider(int ecartMax);
+
+    /**
+     * Insère une case dans la file.
+     *
+     * @param id  L'identifiant de la case.
+     * @param cle La priorité de la case.
+     */
+    void inserer(int id, int cle);
+
+    /**
+     * Retire et retourne la case de plus petite clé.
+     *
+     * @return L'identifiant de la case.
+     */
+    int extraire();
+
+    /**
+     * Indique si la file est vide.
+     *
+     * @return true si la file ne contient plus aucune case.
+     */
+    boolean estVide();
+}
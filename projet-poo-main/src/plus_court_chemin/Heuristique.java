@@ -0,0 +1,12 @@
+package plus_court_chemin;
+
+/**
+ * L'énumération Heuristique liste les minorants du temps de trajet utilisables par aetoile.
+ * MANHATTAN multiplie la distance de Manhattan par la durée du déplacement le plus rapide.
+ * REPERES y ajoute les bornes de l'inégalité triangulaire calculées à partir des distances
+ * exactes à quelques cases repères (ReperesDistances) : elles sont bien plus proches du vrai
+ * coût sur les terrains lents, au prix d'un précalcul par carte et par classe de coût.
+ */
+public enum Heuristique {
+    MANHATTAN, REPERES
+}
@@ -0,0 +1,739 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import java.util.TreeSet;
+import robots.CostModel;
+
+/**
+ * La classe HierarchieChemins implémente une recherche de chemin hiérarchique (HPA*)
+ * destinée aux très grandes cartes, pour une classe de coût donnée.
+ *
+ * La carte est découpée en clusters carrés. Sur chaque frontière entre deux clusters voisins,
+ * chaque suite de paires de cases praticables des deux côtés forme une entrée, représentée par
+ * une transition en son milieu (ou deux transitions à ses extrémités si elle est longue).
+ * Les cases des transitions sont les noeuds d'un graphe abstrait orienté : un arc relie les deux
+ * cases d'une transition, et deux noeuds d'un même cluster sont reliés par un arc dont le coût
+ * est calculé par un Dijkstra restreint au cluster.
+ *
+ * Une requête relie temporairement le départ et la destination aux noeuds de leur cluster,
+ * cherche un chemin dans le graphe abstrait puis ne raffine que les arcs de ce chemin, par des
+ * recherches restreintes à un cluster. Le coût d'une requête dépend donc de la longueur du trajet
+ * et non de la surface de la carte. Le chemin obtenu est valide mais seulement quasi optimal.
+ *
+ * La hiérarchie s'enregistre comme observateur de la carte : quand une case change de nature,
+ * seuls son cluster et ses quatre voisins sont reconstruits, au début de la requête suivante.
+ * Une hiérarchie n'est pas prévue pour être utilisée par plusieurs threads à la fois.
+ */
+public class HierarchieChemins implements ObservateurCarte {
+
+    /** Taille par défaut du côté d'un cluster, en nombre de cases. */
+    public static final int TAILLE_CLUSTER_DEFAUT = 16;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // À partir de cette longueur, une entrée reçoit une transition à chacune de ses extrémités.
+    private static final int LONGUEUR_ENTREE_DOUBLE = 6;
+
+    /**
+     * Un noeud du graphe abstrait, placé sur une case de transition
+     * (ou, le temps d'une requête, sur le départ ou la destination).
+     */
+    private static final class Noeud {
+        final int cellule;
+        final int cluster;
+        final int index;
+        final boolean temporaire;
+        final List<Arc> arcs = new ArrayList<>();
+
+        Noeud(int cellule, int cluster, int index, boolean temporaire) {
+            this.cellule = cellule;
+            this.cluster = cluster;
+            this.index = index;
+            this.temporaire = temporaire;
+        }
+
+        boolean aUneTransition() {
+            for (Arc arc : this.arcs) {
+                if (arc.transition) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Un arc du graphe abstrait. Un arc de transition relie deux cases voisines et correspond
+     * à un seul pas ; les autres relient deux noeuds d'un même cluster.
+     */
+    private static final class Arc {
+        final Noeud cible;
+        final int cout;
+        final boolean transition;
+
+        Arc(Noeud cible, int cout, boolean transition) {
+            this.cible = cible;
+            this.cout = cout;
+            this.transition = transition;
+        }
+    }
+
+    private final Carte carte;
+    private final CostModel modele;
+    private final int tailleCluster;
+    private final int nbLignes;
+    private final int nbColonnes;
+    private final int nbClustersLignes;
+    private final int nbClustersColonnes;
+
+    private final Map<Integer, Noeud> noeuds = new HashMap<>();
+    private final List<List<Noeud>> noeudsParCluster;
+    private final Set<Integer> clustersModifies = new TreeSet<>();
+
+    // Recherche dans le graphe abstrait, indexée par Noeud.index.
+    private Noeud[] parIndex = new Noeud[64];
+    private final ArrayDeque<Integer> indexLibres = new ArrayDeque<>();
+    private int nbIndex;
+    private int[] g = new int[64];
+    private int[] parent = new int[64];
+    private Arc[] arcParent = new Arc[64];
+    private int[] vu = new int[64];
+    private int[] ferme = new int[64];
+    private int generation;
+    private final TasBinaire tas = new TasBinaire();
+
+    // Recherches restreintes à un cluster, indexées localement dans le rectangle du cluster.
+    private final int[] distLocale;
+    private final int[] parentLocal;
+    private final int[] vuLocal;
+    private final int[] fermeLocal;
+    private int generationLocale;
+    private int ligneLocale;
+    private int colonneLocale;
+    private int largeurLocale;
+    private final FileDial fileLocale = new FileDial();
+
+    private int time;
+    private Stack<Direction> chemin;
+
+    /**
+     * Construit la hiérarchie d'une carte pour une classe de coût, avec des clusters
+     * de taille TAILLE_CLUSTER_DEFAUT.
+     *
+     * @param carte  La carte.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     */
+    public HierarchieChemins(Carte carte, CostModel modele) {
+        this(carte, modele, TAILLE_CLUSTER_DEFAUT);
+    }
+
+    /**
+     * Construit la hiérarchie d'une carte pour une classe de coût.
+     *
+     * @param carte         La carte.
+     * @param modele        La table des durées de déplacement de la classe de robots.
+     * @param tailleCluster Le côté d'un cluster, en nombre de cases.
+     */
+    public HierarchieChemins(Carte carte, CostModel modele, int tailleCluster) {
+        if (tailleCluster < 2) {
+            throw new IllegalArgumentException("Taille de cluster invalide : " + tailleCluster);
+        }
+        this.carte = carte;
+        this.modele = modele;
+        this.tailleCluster = tailleCluster;
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        this.nbClustersLignes = (this.nbLignes + tailleCluster - 1) / tailleCluster;
+        this.nbClustersColonnes = (this.nbColonnes + tailleCluster - 1) / tailleCluster;
+        int nbClusters = this.nbClustersLignes * this.nbClustersColonnes;
+        this.noeudsParCluster = new ArrayList<>(nbClusters);
+        for (int c = 0; c < nbClusters; c++) {
+            this.noeudsParCluster.add(new ArrayList<>());
+        }
+        int surface = tailleCluster * tailleCluster;
+        this.distLocale = new int[surface];
+        this.parentLocal = new int[surface];
+        this.vuLocal = new int[surface];
+        this.fermeLocal = new int[surface];
+        this.time = -1;
+
+        for (int cluster = 0; cluster < nbClusters; cluster++) {
+            if (cluster % this.nbClustersColonnes + 1 < this.nbClustersColonnes) {
+                construireBord(cluster, true);
+            }
+            if (cluster / this.nbClustersColonnes + 1 < this.nbClustersLignes) {
+                construireBord(cluster, false);
+            }
+        }
+        for (int cluster = 0; cluster < nbClusters; cluster++) {
+            calculerArcsInternes(cluster);
+        }
+        carte.ajouterObservateur(this);
+    }
+
+    /**
+     * Indique si la hiérarchie peut répondre aux recherches d'un robot sur une carte.
+     *
+     * @param carte  La carte de la recherche.
+     * @param modele La table des durées de déplacement du robot.
+     * @return true si la hiérarchie a été construite pour cette carte et cette classe de coût.
+     */
+    public boolean accepte(Carte carte, CostModel modele) {
+        return this.carte == carte && this.modele.equals(modele);
+    }
+
+    /**
+     * Désinscrit la hiérarchie de la carte : elle ne sera plus tenue à jour.
+     */
+    public void detacher() {
+        this.carte.retirerObservateur(this);
+    }
+
+    @Override
+    public void caseModifiee(int ligne, int colonne) {
+        this.clustersModifies.add(clusterDe(ligne * this.nbColonnes + colonne));
+    }
+
+    /**
+     * Retourne le nombre de noeuds permanents du graphe abstrait.
+     *
+     * @return Le nombre de noeuds.
+     */
+    public int getNbNoeuds() {
+        appliquerModifications();
+        return this.noeuds.size();
+    }
+
+    /**
+     * Retourne le temps du dernier trajet trouvé.
+     *
+     * @return Le temps total, ou -1 si aucun chemin n'a été trouvé.
+     */
+    public int getTime() {
+        return this.time;
+    }
+
+    /**
+     * Retourne le dernier chemin trouvé, la première direction à suivre étant au sommet de la pile.
+     *
+     * @return La pile des directions du chemin, ou null si aucun chemin n'a été trouvé.
+     */
+    public Stack<Direction> getChemin() {
+        return this.chemin;
+    }
+
+    /**
+     * Cherche un chemin entre deux cases, avec les mêmes conventions que aetoile :
+     * la dernière étape vers une destination sur laquelle le robot ne peut pas se tenir
+     * est autorisée et ne coûte rien.
+     *
+     * @param depart  La case de départ.
+     * @param arrivee La case de destination.
+     */
+    public void chercher(Case depart, Case arrivee) {
+        this.time = -1;
+        this.chemin = null;
+        appliquerModifications();
+
+        int src = depart.getLigne() * this.nbColonnes + depart.getColonne();
+        int dst = arrivee.getLigne() * this.nbColonnes + arrivee.getColonne();
+        if (src == dst) {
+            this.time = 0;
+            this.chemin = new Stack<>();
+            return;
+        }
+
+        List<Noeud> temporaires = new ArrayList<>();
+        List<Noeud> proprietaires = new ArrayList<>();
+        List<Arc> arcsAjoutes = new ArrayList<>();
+        try {
+            Noeud noeudDepart = noeudPourRequete(src, temporaires);
+            Noeud but = noeudPourRequete(dst, temporaires);
+            boolean dstInterdite = !accessible(dst);
+
+            // Les noeuds depuis lesquels on quitte le départ : lui-même, ou ses voisins praticables
+            // si le robot a été posé sur une case où il ne peut pas se tenir (il ne peut alors
+            // qu'en sortir, éventuellement vers un autre cluster).
+            List<Noeud> sorties = new ArrayList<>();
+            if (accessible(src)) {
+                sorties.add(noeudDepart);
+            } else {
+                for (Direction direction : DIRECTIONS) {
+                    int voisin = voisin(src, direction);
+                    if (voisin != -1 && accessible(voisin)) {
+                        Noeud sortie = noeudPourRequete(voisin, temporaires);
+                        ajouterArc(noeudDepart, new Arc(sortie, duree(src, voisin), true), proprietaires, arcsAjoutes);
+                        sorties.add(sortie);
+                    }
+                }
+            }
+
+            // Les noeuds par lesquels on atteint la destination : elle-même, ou ses voisins
+            // praticables si le robot ne peut pas s'y tenir.
+            List<Noeud> entrees = new ArrayList<>();
+            if (!dstInterdite) {
+                entrees.add(but);
+            } else {
+                for (Direction direction : DIRECTIONS) {
+                    int voisin = voisin(dst, direction);
+                    if (voisin != -1 && (accessible(voisin) || voisin == src)) {
+                        Noeud entree = noeudPourRequete(voisin, temporaires);
+                        ajouterArc(entree, new Arc(but, 0, true), proprietaires, arcsAjoutes);
+                        entrees.add(entree);
+                    }
+                }
+            }
+
+            for (Noeud sortie : sorties) {
+                if (!sortie.temporaire) {
+                    continue;
+                }
+                dijkstraLocal(sortie.cluster, sortie.cellule, false, -1);
+                for (Noeud autre : this.noeudsParCluster.get(sortie.cluster)) {
+                    int distance = distanceLocale(autre.cellule);
+                    if (autre != sortie && distance >= 0) {
+                        ajouterArc(sortie, new Arc(autre, distance, false), proprietaires, arcsAjoutes);
+                    }
+                }
+            }
+            for (Noeud entree : entrees) {
+                if (!entree.temporaire) {
+                    continue;
+                }
+                dijkstraLocal(entree.cluster, entree.cellule, true, -1);
+                for (Noeud autre : this.noeudsParCluster.get(entree.cluster)) {
+                    int distance = distanceLocale(autre.cellule);
+                    if (autre != entree && distance >= 0) {
+                        ajouterArc(autre, new Arc(entree, distance, false), proprietaires, arcsAjoutes);
+                    }
+                }
+            }
+
+            if (rechercheAbstraite(noeudDepart, but, dst, dstInterdite)) {
+                this.time = this.g[but.index];
+                this.chemin = raffiner(noeudDepart, but);
+            }
+        } finally {
+            for (int k = 0; k < arcsAjoutes.size(); k++) {
+                proprietaires.get(k).arcs.remove(arcsAjoutes.get(k));
+            }
+            for (Noeud temporaire : temporaires) {
+                supprimerNoeud(temporaire);
+            }
+        }
+    }
+
+    /**
+     * A* dans le graphe abstrait, avec la même heuristique que aetoile.
+     *
+     * @return true si la destination a été atteinte.
+     */
+    private boolean rechercheAbstraite(Noeud depart, Noeud but, int dst, boolean dstInterdite) {
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.vu, 0);
+            Arrays.fill(this.ferme, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+        this.tas.vider(0);
+        this.vu[depart.index] = this.generation;
+        this.g[depart.index] = 0;
+        this.tas.inserer(depart.index, heuristique(depart.cellule, dst, dstInterdite));
+        while (!this.tas.estVide()) {
+            int courant = this.tas.extraire();
+            if (this.ferme[courant] == this.generation) {
+                continue;
+            }
+            this.ferme[courant] = this.generation;
+            if (courant == but.index) {
+                return true;
+            }
+            for (Arc arc : this.parIndex[courant].arcs) {
+                int suivant = arc.cible.index;
+                if (this.ferme[suivant] == this.generation) {
+                    continue;
+                }
+                int gNouveau = this.g[courant] + arc.cout;
+                if (this.vu[suivant] != this.generation || gNouveau < this.g[suivant]) {
+                    this.vu[suivant] = this.generation;
+                    this.g[suivant] = gNouveau;
+                    this.parent[suivant] = courant;
+                    this.arcParent[suivant] = arc;
+                    this.tas.inserer(suivant, gNouveau + heuristique(arc.cible.cellule, dst, dstInterdite));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transforme le chemin abstrait trouvé en pile de directions, en ne relançant une
+     * recherche que dans les clusters traversés.
+     */
+    private Stack<Direction> raffiner(Noeud depart, Noeud but) {
+        Stack<Direction> directions = new Stack<>();
+        Noeud courant = but;
+        while (courant != depart) {
+            Noeud pere = this.parIndex[this.parent[courant.index]];
+            if (this.arcParent[courant.index].transition) {
+                directions.push(aetoile.directionEntre(pere.cellule, courant.cellule, this.nbColonnes));
+            } else {
+                dijkstraLocal(pere.cluster, pere.cellule, false, courant.cellule);
+                int cellule = courant.cellule;
+                while (cellule != pere.cellule) {
+                    int precedente = versGlobal(this.parentLocal[versLocal(cellule)]);
+                    directions.push(aetoile.directionEntre(precedente, cellule, this.nbColonnes));
+                    cellule = precedente;
+                }
+            }
+            courant = pere;
+        }
+        return directions;
+    }
+
+    /**
+     * Reconstruit les clusters dont une case a changé depuis la dernière requête,
+     * ainsi que leurs voisins dont les frontières ont pu changer.
+     */
+    private void appliquerModifications() {
+        if (this.clustersModifies.isEmpty()) {
+            return;
+        }
+        Set<Integer> touches = new TreeSet<>();
+        for (int cluster : this.clustersModifies) {
+            touches.add(cluster);
+            int ligne = cluster / this.nbClustersColonnes;
+            int colonne = cluster % this.nbClustersColonnes;
+            if (ligne > 0) {
+                reconstruireBord(cluster - this.nbClustersColonnes, false, touches);
+            }
+            if (ligne + 1 < this.nbClustersLignes) {
+                reconstruireBord(cluster, false, touches);
+            }
+            if (colonne > 0) {
+                reconstruireBord(cluster - 1, true, touches);
+            }
+            if (colonne + 1 < this.nbClustersColonnes) {
+                reconstruireBord(cluster, true, touches);
+            }
+        }
+        this.clustersModifies.clear();
+        for (int cluster : touches) {
+            for (Noeud noeud : new ArrayList<>(this.noeudsParCluster.get(cluster))) {
+                if (!noeud.aUneTransition()) {
+                    supprimerNoeud(noeud);
+                }
+            }
+        }
+        for (int cluster : touches) {
+            calculerArcsInternes(cluster);
+        }
+    }
+
+    // Remplace les transitions de la frontière entre un cluster et son voisin de droite ou du dessous.
+    private void reconstruireBord(int premier, boolean verticale, Set<Integer> touches) {
+        int second = premier + (verticale ? 1 : this.nbClustersColonnes);
+        supprimerBord(premier, second);
+        construireBord(premier, verticale);
+        touches.add(premier);
+        touches.add(second);
+    }
+
+    /**
+     * Place les transitions sur la frontière entre un cluster et son voisin de droite (frontière
+     * verticale) ou du dessous (frontière horizontale). L'orientation est donnée explicitement :
+     * quand il n'y a qu'une colonne de clusters, le voisin du dessous suit aussi le cluster.
+     */
+    private void construireBord(int premier, boolean verticale) {
+        int lignePremier = premier / this.nbClustersColonnes;
+        int colonnePremier = premier % this.nbClustersColonnes;
+        int celluleInitiale;
+        int pas;
+        int decalage;
+        int longueur;
+        if (verticale) {
+            // Frontière verticale : le second cluster est à droite.
+            int ligneDebut = lignePremier * this.tailleCluster;
+            int colonne = (colonnePremier + 1) * this.tailleCluster - 1;
+            celluleInitiale = ligneDebut * this.nbColonnes + colonne;
+            pas = this.nbColonnes;
+            decalage = 1;
+            longueur = Math.min(this.tailleCluster, this.nbLignes - ligneDebut);
+        } else {
+            // Frontière horizontale : le second cluster est en dessous.
+            int ligne = (lignePremier + 1) * this.tailleCluster - 1;
+            int colonneDebut = colonnePremier * this.tailleCluster;
+            celluleInitiale = ligne * this.nbColonnes + colonneDebut;
+            pas = 1;
+            decalage = this.nbColonnes;
+            longueur = Math.min(this.tailleCluster, this.nbColonnes - colonneDebut);
+        }
+
+        int debutEntree = -1;
+        for (int k = 0; k <= longueur; k++) {
+            int cellule = celluleInitiale + k * pas;
+            boolean ouverte = k < longueur && accessible(cellule) && accessible(cellule + decalage);
+            if (ouverte && debutEntree == -1) {
+                debutEntree = k;
+            } else if (!ouverte && debutEntree != -1) {
+                int finEntree = k - 1;
+                if (finEntree - debutEntree + 1 >= LONGUEUR_ENTREE_DOUBLE) {
+                    ajouterTransition(celluleInitiale + debutEntree * pas, decalage);
+                    ajouterTransition(celluleInitiale + finEntree * pas, decalage);
+                } else {
+                    ajouterTransition(celluleInitiale + (debutEntree + finEntree) / 2 * pas, decalage);
+                }
+                debutEntree = -1;
+            }
+        }
+    }
+
+    private void ajouterTransition(int cellule, int decalage) {
+        Noeud premier = obtenirNoeud(cellule);
+        Noeud second = obtenirNoeud(cellule + decalage);
+        premier.arcs.add(new Arc(second, duree(cellule, cellule + decalage), true));
+        second.arcs.add(new Arc(premier, duree(cellule + decalage, cellule), true));
+    }
+
+    private void supprimerBord(int premier, int second) {
+        for (Noeud noeud : this.noeudsParCluster.get(premier)) {
+            noeud.arcs.removeIf(arc -> arc.transition && arc.cible.cluster == second);
+        }
+        for (Noeud noeud : this.noeudsParCluster.get(second)) {
+            noeud.arcs.removeIf(arc -> arc.transition && arc.cible.cluster == premier);
+        }
+    }
+
+    /**
+     * Recalcule les arcs reliant les noeuds d'un cluster entre eux.
+     */
+    private void calculerArcsInternes(int cluster) {
+        List<Noeud> membres = this.noeudsParCluster.get(cluster);
+        for (Noeud noeud : membres) {
+            noeud.arcs.removeIf(arc -> !arc.transition);
+        }
+        for (Noeud noeud : membres) {
+            dijkstraLocal(cluster, noeud.cellule, false, -1);
+            for (Noeud autre : membres) {
+                int distance = distanceLocale(autre.cellule);
+                if (autre != noeud && distance >= 0) {
+                    noeud.arcs.add(new Arc(autre, distance, false));
+                }
+            }
+        }
+    }
+
+    /**
+     * Dijkstra restreint au rectangle d'un cluster. En sens inverse, les distances calculées
+     * sont celles des trajets qui mènent à la source.
+     *
+     * @param cluster Le cluster dans lequel chercher.
+     * @param source  La case source (identifiant global).
+     * @param inverse true pour suivre les déplacements à rebours.
+     * @param arret   Une case à laquelle s'arrêter dès qu'elle est fermée, ou -1.
+     */
+    private void dijkstraLocal(int cluster, int source, boolean inverse, int arret) {
+        this.ligneLocale = (cluster / this.nbClustersColonnes) * this.tailleCluster;
+        this.colonneLocale = (cluster % this.nbClustersColonnes) * this.tailleCluster;
+        int ligneFin = Math.min(this.ligneLocale + this.tailleCluster, this.nbLignes);
+        int colonneFin = Math.min(this.colonneLocale + this.tailleCluster, this.nbColonnes);
+        this.largeurLocale = colonneFin - this.colonneLocale;
+        if (this.generationLocale == Integer.MAX_VALUE) {
+            Arrays.fill(this.vuLocal, 0);
+            Arrays.fill(this.fermeLocal, 0);
+            this.generationLocale = 0;
+        }
+        this.generationLocale++;
+        this.fileLocale.vider(this.modele.getCoutMax());
+
+        int idSource = versLocal(source);
+        this.vuLocal[idSource] = this.generationLocale;
+        this.distLocale[idSource] = 0;
+        this.fileLocale.inserer(idSource, 0);
+        while (!this.fileLocale.estVide()) {
+            int courant = this.fileLocale.extraire();
+            if (this.fermeLocal[courant] == this.generationLocale) {
+                continue;
+            }
+            this.fermeLocal[courant] = this.generationLocale;
+            int cellule = versGlobal(courant);
+            if (cellule == arret) {
+                return;
+            }
+            int i = cellule / this.nbColonnes;
+            int j = cellule % this.nbColonnes;
+            int natureCourante = nature(cellule);
+            for (Direction direction : DIRECTIONS) {
+                int iVoisin = i;
+                int jVoisin = j;
+                switch (direction) {
+                    case NORD:
+                        iVoisin--;
+                        break;
+                    case SUD:
+                        iVoisin++;
+                        break;
+                    case EST:
+                        jVoisin++;
+                        break;
+                    default:
+                        jVoisin--;
+                }
+                if (iVoisin < this.ligneLocale || iVoisin >= ligneFin
+                        || jVoisin < this.colonneLocale || jVoisin >= colonneFin) {
+                    continue;
+                }
+                int voisin = (iVoisin - this.ligneLocale) * this.largeurLocale + (jVoisin - this.colonneLocale);
+                if (this.fermeLocal[voisin] == this.generationLocale) {
+                    continue;
+                }
+                int natureVoisin = this.carte.getNatureOrdinal(iVoisin, jVoisin);
+                int duree = inverse ? this.modele.getDuree(natureVoisin, natureCourante)
+                        : this.modele.getDuree(natureCourante, natureVoisin);
+                if (duree == -1) {
+                    continue;
+                }
+                int distance = this.distLocale[courant] + duree;
+                if (this.vuLocal[voisin] != this.generationLocale || distance < this.distLocale[voisin]) {
+                    this.vuLocal[voisin] = this.generationLocale;
+                    this.distLocale[voisin] = distance;
+                    this.parentLocal[voisin] = courant;
+                    this.fileLocale.inserer(voisin, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retourne la distance calculée par le dernier dijkstraLocal, ou -1 si la case n'a pas été atteinte.
+     */
+    private int distanceLocale(int cellule) {
+        int id = versLocal(cellule);
+        return this.vuLocal[id] == this.generationLocale ? this.distLocale[id] : -1;
+    }
+
+    private int versLocal(int cellule) {
+        return (cellule / this.nbColonnes - this.ligneLocale) * this.largeurLocale
+                + (cellule % this.nbColonnes - this.colonneLocale);
+    }
+
+    private int versGlobal(int local) {
+        return (this.ligneLocale + local / this.largeurLocale) * this.nbColonnes
+                + this.colonneLocale + local % this.largeurLocale;
+    }
+
+    private Noeud noeudPourRequete(int cellule, List<Noeud> temporaires) {
+        Noeud noeud = this.noeuds.get(cellule);
+        if (noeud == null) {
+            for (Noeud temporaire : temporaires) {
+                if (temporaire.cellule == cellule) {
+                    return temporaire;
+                }
+            }
+            noeud = creerNoeud(cellule, true);
+            temporaires.add(noeud);
+        }
+        return noeud;
+    }
+
+    private void ajouterArc(Noeud origine, Arc arc, List<Noeud> proprietaires, List<Arc> arcsAjoutes) {
+        origine.arcs.add(arc);
+        proprietaires.add(origine);
+        arcsAjoutes.add(arc);
+    }
+
+    private Noeud obtenirNoeud(int cellule) {
+        Noeud noeud = this.noeuds.get(cellule);
+        if (noeud == null) {
+            noeud = creerNoeud(cellule, false);
+            this.noeuds.put(cellule, noeud);
+        }
+        return noeud;
+    }
+
+    private Noeud creerNoeud(int cellule, boolean temporaire) {
+        int index;
+        if (!this.indexLibres.isEmpty()) {
+            index = this.indexLibres.pop();
+        } else {
+            index = this.nbIndex++;
+            if (index == this.parIndex.length) {
+                int taille = 2 * index;
+                this.parIndex = Arrays.copyOf(this.parIndex, taille);
+                this.g = Arrays.copyOf(this.g, taille);
+                this.parent = Arrays.copyOf(this.parent, taille);
+                this.arcParent = Arrays.copyOf(this.arcParent, taille);
+                this.vu = Arrays.copyOf(this.vu, taille);
+                this.ferme = Arrays.copyOf(this.ferme, taille);
+            }
+        }
+        Noeud noeud = new Noeud(cellule, clusterDe(cellule), index, temporaire);
+        this.parIndex[index] = noeud;
+        this.noeudsParCluster.get(noeud.cluster).add(noeud);
+        return noeud;
+    }
+
+    private void supprimerNoeud(Noeud noeud) {
+        if (!noeud.temporaire) {
+            this.noeuds.remove(noeud.cellule);
+        }
+        this.noeudsParCluster.get(noeud.cluster).remove(noeud);
+        this.parIndex[noeud.index] = null;
+        this.arcParent[noeud.index] = null;
+        this.indexLibres.push(noeud.index);
+    }
+
+    /**
+     * Retourne les clusters voisins de droite et du dessous, c'est-à-dire ceux avec lesquels
+     * le cluster partage une frontière dont il est le premier côté.
+     */
+    private int clusterDe(int cellule) {
+        int ligne = cellule / this.nbColonnes;
+        int colonne = cellule % this.nbColonnes;
+        return (ligne / this.tailleCluster) * this.nbClustersColonnes + colonne / this.tailleCluster;
+    }
+
+    private int voisin(int cellule, Direction direction) {
+        int ligne = cellule / this.nbColonnes;
+        int colonne = cellule % this.nbColonnes;
+        switch (direction) {
+            case NORD:
+                return ligne > 0 ? cellule - this.nbColonnes : -1;
+            case SUD:
+                return ligne + 1 < this.nbLignes ? cellule + this.nbColonnes : -1;
+            case EST:
+                return colonne + 1 < this.nbColonnes ? cellule + 1 : -1;
+            default:
+                return colonne > 0 ? cellule - 1 : -1;
+        }
+    }
+
+    private int heuristique(int cellule, int dst, boolean dstInterdite) {
+        int distance = Math.abs(cellule / this.nbColonnes - dst / this.nbColonnes)
+                + Math.abs(cellule % this.nbColonnes - dst % this.nbColonnes);
+        if (dstInterdite && distance > 0) {
+            distance--;
+        }
+        return distance * this.modele.getCoutMin();
+    }
+
+    private int nature(int cellule) {
+        return this.carte.getNatureOrdinal(cellule / this.nbColonnes, cellule % this.nbColonnes);
+    }
+
+    private boolean accessible(int cellule) {
+        return this.modele.estAccessible(this.carte.getNature(cellule / this.nbColonnes,
+                cellule % this.nbColonnes));
+    }
+
+    private int duree(int depart, int arrivee) {
+        return this.modele.getDuree(nature(depart), nature(arrivee));
+    }
+}
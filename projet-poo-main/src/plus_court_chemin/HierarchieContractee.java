@@ -0,0 +1,734 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Stack;
+import java.util.WeakHashMap;
+import robots.CostModel;
+
+/**
+ * La classe HierarchieContractee implémente une hiérarchie de contraction (contraction hierarchies)
+ * du graphe des cases d'une carte, pour une classe de coût. Elle est faite pour les cartes qui ne
+ * changent pas : le précalcul est long, mais une requête ne coûte ensuite que quelques microsecondes
+ * sur les petites cartes, quelques dizaines sur une grille de 200 x 200, et son résultat est exact,
+ * contrairement à celui de HierarchieChemins. Sur une carte où tous les pas ont la même durée (un
+ * drone), le haut de la hiérarchie devient dense et la recherche par points de saut reste plus
+ * rapide : aetoile ne s'en sert pas.
+ *
+ * Les cases praticables sont contractées une à une, de la moins importante à la plus importante.
+ * Contracter une case la retire du graphe ; pour chaque couple de voisins u -> v -> w dont le plus
+ * court chemin passe par v, un raccourci u -> w de même durée est ajouté. Une recherche locale
+ * bornée (recherche de témoin) évite d'ajouter les raccourcis inutiles. L'importance d'une case
+ * mélange le nombre de raccourcis que sa contraction ajoute moins le nombre d'arcs qu'elle retire,
+ * le nombre de ses voisins déjà contractés et sa profondeur dans la hiérarchie ; elle est
+ * recalculée paresseusement au moment de contracter la case.
+ *
+ * Une requête est un Dijkstra bidirectionnel qui ne suit que les arcs montant vers des cases plus
+ * importantes, depuis le départ comme depuis la destination ; une case atteinte plus court par un
+ * arc descendant depuis une case déjà vue n'est pas propagée (stall-on-demand). Le temps est connu
+ * dès la fin de la recherche ; le chemin en directions n'est déroulé, raccourci par raccourci, que
+ * lorsqu'il est demandé. Les conventions sont celles de aetoile : le dernier pas vers une destination sur laquelle
+ * le robot ne peut pas se tenir ne coûte rien, et le robot peut partir d'une case interdite.
+ *
+ * Une hiérarchie ne suit pas les modifications de la carte : accepte rend false dès que la version
+ * de la carte a changé. Après le précalcul elle n'est plus modifiée ; chaque thread garde l'état de
+ * sa dernière requête, si bien qu'une hiérarchie peut être partagée entre plusieurs threads.
+ */
+public class HierarchieContractee {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final Map<Carte, Map<CostModel, HierarchieContractee>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    // Nombre de cases traitées au plus par une recherche de témoin : au-delà, le raccourci est
+    // ajouté, peut-être inutilement, ce qui ne change pas les temps trouvés.
+    private static final int LIMITE_TEMOINS = 500;
+    // Limite plus basse quand on ne fait qu'estimer l'importance d'une case.
+    private static final int LIMITE_SIMULATION = 20;
+
+    private final Carte carte;
+    private final CostModel modele;
+    private final int version;
+    private final int nbLignes;
+    private final int nbColonnes;
+    private final boolean[] praticable;
+    private final int[] natures;
+
+    // Les arcs, originaux et raccourcis. Un raccourci retient les deux arcs qu'il remplace.
+    private int nbArcs;
+    private int nbRaccourcis;
+    private int[] origine = new int[1024];
+    private int[] extremite = new int[1024];
+    private int[] cout = new int[1024];
+    private int[] premier = new int[1024];
+    private int[] second = new int[1024];
+
+    // Graphe de recherche : arcs montants de chaque case, et arcs descendants rangés à leur extrémité.
+    private final int[] rang;
+    private final int[] debutMontants;
+    private final int[] arcsMontants;
+    private final int[] debutDescendants;
+    private final int[] arcsDescendants;
+
+    private final long dureePretraitement;
+    private final ThreadLocal<Requete> requetes;
+
+    /**
+     * Construit la hiérarchie d'une carte pour une classe de coût.
+     *
+     * @param carte  La carte, qui ne doit plus changer.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     */
+    public HierarchieContractee(Carte carte, CostModel modele) {
+        long debut = System.nanoTime();
+        this.carte = carte;
+        this.modele = modele;
+        this.version = carte.getVersion();
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        int nbCases = this.nbLignes * this.nbColonnes;
+        this.natures = new int[nbCases];
+        this.praticable = new boolean[nbCases];
+        for (int i = 0; i < this.nbLignes; i++) {
+            for (int j = 0; j < this.nbColonnes; j++) {
+                NatureTerrain nature = carte.getNature(i, j);
+                this.natures[i * this.nbColonnes + j] = nature.ordinal();
+                this.praticable[i * this.nbColonnes + j] = modele.estAccessible(nature);
+            }
+        }
+        this.rang = new Contraction().contracter();
+
+        // On range chaque arc selon le sens dans lequel il monte dans la hiérarchie.
+        this.debutMontants = new int[nbCases + 1];
+        this.debutDescendants = new int[nbCases + 1];
+        for (int e = 0; e < this.nbArcs; e++) {
+            if (this.rang[this.origine[e]] < this.rang[this.extremite[e]]) {
+                this.debutMontants[this.origine[e] + 1]++;
+            } else {
+                this.debutDescendants[this.extremite[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < nbCases; v++) {
+            this.debutMontants[v + 1] += this.debutMontants[v];
+            this.debutDescendants[v + 1] += this.debutDescendants[v];
+        }
+        this.arcsMontants = new int[this.debutMontants[nbCases]];
+        this.arcsDescendants = new int[this.debutDescendants[nbCases]];
+        int[] remplisMontants = Arrays.copyOf(this.debutMontants, nbCases);
+        int[] remplisDescendants = Arrays.copyOf(this.debutDescendants, nbCases);
+        for (int e = 0; e < this.nbArcs; e++) {
+            if (this.rang[this.origine[e]] < this.rang[this.extremite[e]]) {
+                this.arcsMontants[remplisMontants[this.origine[e]]++] = e;
+            } else {
+                this.arcsDescendants[remplisDescendants[this.extremite[e]]++] = e;
+            }
+        }
+        this.origine = Arrays.copyOf(this.origine, this.nbArcs);
+        this.extremite = Arrays.copyOf(this.extremite, this.nbArcs);
+        this.cout = Arrays.copyOf(this.cout, this.nbArcs);
+        this.premier = Arrays.copyOf(this.premier, this.nbArcs);
+        this.second = Arrays.copyOf(this.second, this.nbArcs);
+        this.requetes = ThreadLocal.withInitial(Requete::new);
+        this.dureePretraitement = System.nanoTime() - debut;
+    }
+
+    /**
+     * Retourne la hiérarchie d'une carte pour une classe de coût, en la construisant si elle
+     * n'existe pas encore ou si la carte a changé depuis sa construction.
+     *
+     * @param carte  La carte.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     * @return La hiérarchie à jour.
+     */
+    public static HierarchieContractee pour(Carte carte, CostModel modele) {
+        synchronized (CACHE) {
+            Map<CostModel, HierarchieContractee> parModele = CACHE.computeIfAbsent(carte, c -> new HashMap<>());
+            HierarchieContractee hierarchie = parModele.get(modele);
+            if (hierarchie == null || hierarchie.version != carte.getVersion()) {
+                hierarchie = new HierarchieContractee(carte, modele);
+                parModele.put(modele, hierarchie);
+            }
+            return hierarchie;
+        }
+    }
+
+    /**
+     * Indique si la hiérarchie peut répondre aux recherches d'un robot sur une carte.
+     *
+     * @param carte  La carte de la recherche.
+     * @param modele La table des durées de déplacement du robot.
+     * @return true si la hiérarchie a été construite pour cette carte, dans son état actuel,
+     *         et pour cette classe de coût.
+     */
+    public boolean accepte(Carte carte, CostModel modele) {
+        return this.carte == carte && this.version == carte.getVersion() && this.modele.equals(modele);
+    }
+
+    /**
+     * Cherche le temps de trajet entre deux cases. Le chemin correspondant est déroulé
+     * par getChemin.
+     *
+     * @param depart  La case de départ.
+     * @param arrivee La case de destination.
+     */
+    public void chercher(Case depart, Case arrivee) {
+        this.requetes.get().chercher(depart.getLigne() * this.nbColonnes + depart.getColonne(),
+                arrivee.getLigne() * this.nbColonnes + arrivee.getColonne());
+    }
+
+    /**
+     * Retourne le temps du dernier trajet cherché par le thread courant.
+     *
+     * @return Le temps total, ou -1 si aucun chemin n'a été trouvé.
+     */
+    public int getTime() {
+        return this.requetes.get().time;
+    }
+
+    /**
+     * Déroule le dernier chemin cherché par le thread courant, la première direction à suivre
+     * étant au sommet de la pile. Chaque appel rend une nouvelle pile.
+     *
+     * @return La pile des directions du chemin, ou null si aucun chemin n'a été trouvé.
+     */
+    public Stack<Direction> getChemin() {
+        return this.requetes.get().derouler();
+    }
+
+    /**
+     * @return La durée du précalcul, en millisecondes.
+     */
+    public double getDureePretraitement() {
+        return this.dureePretraitement / 1e6;
+    }
+
+    /**
+     * @return Le nombre d'arcs de la hiérarchie, raccourcis compris.
+     */
+    public int getNbArcs() {
+        return this.nbArcs;
+    }
+
+    /**
+     * @return Le nombre de raccourcis ajoutés par la contraction.
+     */
+    public int getNbRaccourcis() {
+        return this.nbRaccourcis;
+    }
+
+    /**
+     * Estime la mémoire occupée par la hiérarchie : tableaux des arcs, des rangs et des listes
+     * d'arcs, plus les tableaux d'une requête pour chaque thread qui en a fait.
+     *
+     * @return Le nombre approximatif d'octets.
+     */
+    public long getMemoire() {
+        long nbCases = (long) this.nbLignes * this.nbColonnes;
+        long arcs = 5L * this.nbArcs + this.arcsMontants.length + this.arcsDescendants.length;
+        long cases = 4 * nbCases + 2; // natures, rangs, débuts des deux listes
+        return 4 * (arcs + cases) + nbCases;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cases, %d arcs dont %d raccourcis, %.0f ms, %.1f Mo",
+                this.nbLignes * this.nbColonnes, this.nbArcs, this.nbRaccourcis, getDureePretraitement(),
+                getMemoire() / 1e6);
+    }
+
+    private int ajouterArc(int u, int w, int duree, int arc1, int arc2) {
+        if (this.nbArcs == this.origine.length) {
+            int capacite = 2 * this.nbArcs;
+            this.origine = Arrays.copyOf(this.origine, capacite);
+            this.extremite = Arrays.copyOf(this.extremite, capacite);
+            this.cout = Arrays.copyOf(this.cout, capacite);
+            this.premier = Arrays.copyOf(this.premier, capacite);
+            this.second = Arrays.copyOf(this.second, capacite);
+        }
+        int e = this.nbArcs++;
+        this.origine[e] = u;
+        this.extremite[e] = w;
+        this.cout[e] = duree;
+        this.premier[e] = arc1;
+        this.second[e] = arc2;
+        return e;
+    }
+
+    private int voisin(int cellule, Direction direction) {
+        int ligne = cellule / this.nbColonnes;
+        int colonne = cellule % this.nbColonnes;
+        switch (direction) {
+            case NORD:
+                return ligne > 0 ? cellule - this.nbColonnes : -1;
+            case SUD:
+                return ligne + 1 < this.nbLignes ? cellule + this.nbColonnes : -1;
+            case EST:
+                return colonne + 1 < this.nbColonnes ? cellule + 1 : -1;
+            default:
+                return colonne > 0 ? cellule - 1 : -1;
+        }
+    }
+
+    private int duree(int depart, int arrivee) {
+        return this.modele.getDuree(this.natures[depart], this.natures[arrivee]);
+    }
+
+    /**
+     * L'état de la contraction, abandonné une fois le rang de chaque case connu.
+     */
+    private final class Contraction {
+        private final int nbCases = nbLignes * nbColonnes;
+        // Arcs entrants et sortants de chaque case, vers des cases qui ne sont pas encore contractées.
+        private final int[][] entrants = new int[this.nbCases][];
+        private final int[] nbEntrants = new int[this.nbCases];
+        private final int[][] sortants = new int[this.nbCases][];
+        private final int[] nbSortants = new int[this.nbCases];
+        private final boolean[] contractee = new boolean[this.nbCases];
+        private final int[] priorite = new int[this.nbCases];
+        private final int[] voisinsContractes = new int[this.nbCases];
+        private final int[] profondeur = new int[this.nbCases];
+
+        // Recherche de témoins.
+        private final int[] distance = new int[this.nbCases];
+        private final int[] vu = new int[this.nbCases];
+        private int generation;
+        private final TasBinaire tas = new TasBinaire();
+
+        int[] contracter() {
+            int[] rangs = new int[this.nbCases];
+            Arrays.fill(rangs, -1);
+            for (int v = 0; v < this.nbCases; v++) {
+                this.entrants[v] = new int[4];
+                this.sortants[v] = new int[4];
+            }
+            for (int v = 0; v < this.nbCases; v++) {
+                if (!praticable[v]) {
+                    continue;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    int w = voisin(v, direction);
+                    if (w != -1 && praticable[w] && duree(v, w) != -1) {
+                        relier(ajouterArc(v, w, duree(v, w), -1, -1));
+                    }
+                }
+            }
+            TasBinaire file = new TasBinaire();
+            for (int v = 0; v < this.nbCases; v++) {
+                if (praticable[v]) {
+                    this.priorite[v] = evaluer(v);
+                    file.inserer(v, this.priorite[v]);
+                }
+            }
+            // Les cases impraticables ne sont pas dans le graphe : elles restent en bas de la hiérarchie.
+            int rangSuivant = 0;
+            for (int v = 0; v < this.nbCases; v++) {
+                if (!praticable[v]) {
+                    rangs[v] = rangSuivant++;
+                }
+            }
+            while (!file.estVide()) {
+                int cle = file.cleMin();
+                int v = file.extraire();
+                if (this.contractee[v] || cle != this.priorite[v]) {
+                    // Entrée périmée : la priorité de la case a changé depuis son insertion.
+                    continue;
+                }
+                // Mise à jour paresseuse : si la case est devenue plus importante qu'une autre,
+                // elle attend son tour.
+                int nouvelle = evaluer(v);
+                if (nouvelle > cle && !file.estVide() && nouvelle > file.cleMin()) {
+                    this.priorite[v] = nouvelle;
+                    file.inserer(v, nouvelle);
+                    continue;
+                }
+                this.contractee[v] = true;
+                rangs[v] = rangSuivant++;
+                raccourcir(v, false);
+                for (int k = 0; k < this.nbEntrants[v]; k++) {
+                    int u = origine[this.entrants[v][k]];
+                    this.nbSortants[u] = retirer(this.sortants[u], this.nbSortants[u], this.entrants[v][k]);
+                    marquerVoisin(u, v);
+                }
+                for (int k = 0; k < this.nbSortants[v]; k++) {
+                    int w = extremite[this.sortants[v][k]];
+                    this.nbEntrants[w] = retirer(this.entrants[w], this.nbEntrants[w], this.sortants[v][k]);
+                    marquerVoisin(w, v);
+                }
+            }
+            return rangs;
+        }
+
+        /**
+         * Retire un arc d'une liste d'arcs en le remplaçant par le dernier, et retourne la nouvelle taille.
+         */
+        private int retirer(int[] arcs, int taille, int arc) {
+            for (int k = 0; k < taille; k++) {
+                if (arcs[k] == arc) {
+                    arcs[k] = arcs[taille - 1];
+                    return taille - 1;
+                }
+            }
+            return taille;
+        }
+
+        private void marquerVoisin(int w, int v) {
+            if (!this.contractee[w]) {
+                this.voisinsContractes[w]++;
+                this.profondeur[w] = Math.max(this.profondeur[w], this.profondeur[v] + 1);
+            }
+        }
+
+        private int evaluer(int v) {
+            int retires = 0;
+            for (int k = 0; k < this.nbEntrants[v]; k++) {
+                if (!this.contractee[origine[this.entrants[v][k]]]) {
+                    retires++;
+                }
+            }
+            for (int k = 0; k < this.nbSortants[v]; k++) {
+                if (!this.contractee[extremite[this.sortants[v][k]]]) {
+                    retires++;
+                }
+            }
+            int ajoutes = raccourcir(v, true);
+            return 4 * (ajoutes - retires) + this.voisinsContractes[v] + 2 * this.profondeur[v];
+        }
+
+        /**
+         * Ajoute (ou compte seulement, si simulation vaut true) les raccourcis nécessaires
+         * pour retirer la case v du graphe des cases non contractées.
+         */
+        private int raccourcir(int v, boolean simulation) {
+            int nbAjoutes = 0;
+            for (int k = 0; k < this.nbEntrants[v]; k++) {
+                int arcEntrant = this.entrants[v][k];
+                int u = origine[arcEntrant];
+                if (this.contractee[u]) {
+                    continue;
+                }
+                int maximum = -1;
+                for (int l = 0; l < this.nbSortants[v]; l++) {
+                    int w = extremite[this.sortants[v][l]];
+                    if (w != u && !this.contractee[w]) {
+                        maximum = Math.max(maximum, cout[arcEntrant] + cout[this.sortants[v][l]]);
+                    }
+                }
+                if (maximum == -1) {
+                    continue;
+                }
+                chercherTemoins(u, v, maximum, simulation ? LIMITE_SIMULATION : LIMITE_TEMOINS);
+                for (int l = 0; l < this.nbSortants[v]; l++) {
+                    int arcSortant = this.sortants[v][l];
+                    int w = extremite[arcSortant];
+                    if (w == u || this.contractee[w]) {
+                        continue;
+                    }
+                    int duree = cout[arcEntrant] + cout[arcSortant];
+                    if (this.vu[w] == this.generation && this.distance[w] <= duree) {
+                        continue;
+                    }
+                    nbAjoutes++;
+                    if (!simulation) {
+                        ajouterRaccourci(u, w, duree, arcEntrant, arcSortant);
+                    }
+                }
+            }
+            return nbAjoutes;
+        }
+
+        /**
+         * Dijkstra borné depuis u dans le graphe des cases non contractées, sans passer par v.
+         */
+        private void chercherTemoins(int u, int v, int maximum, int limite) {
+            this.generation++;
+            this.tas.vider(0);
+            this.distance[u] = 0;
+            this.vu[u] = this.generation;
+            this.tas.inserer(u, 0);
+            int nbTraitees = 0;
+            while (!this.tas.estVide() && nbTraitees < limite) {
+                int x = this.tas.extraire();
+                int dx = this.distance[x];
+                if (dx > maximum) {
+                    break;
+                }
+                nbTraitees++;
+                for (int k = 0; k < this.nbSortants[x]; k++) {
+                    int arc = this.sortants[x][k];
+                    int y = extremite[arc];
+                    if (y == v || this.contractee[y]) {
+                        continue;
+                    }
+                    int dy = dx + cout[arc];
+                    if (dy <= maximum && (this.vu[y] != this.generation || dy < this.distance[y])) {
+                        this.vu[y] = this.generation;
+                        this.distance[y] = dy;
+                        this.tas.inserer(y, dy);
+                    }
+                }
+            }
+        }
+
+        private void ajouterRaccourci(int u, int w, int duree, int arcEntrant, int arcSortant) {
+            // Un arc u -> w existe peut-être déjà, plus long : on le remplace. Aucun raccourci ne
+            // le référence encore, puisque ni u ni w n'ont été contractées.
+            for (int k = 0; k < this.nbSortants[u]; k++) {
+                int arc = this.sortants[u][k];
+                if (extremite[arc] == w) {
+                    if (duree < cout[arc]) {
+                        cout[arc] = duree;
+                        premier[arc] = arcEntrant;
+                        second[arc] = arcSortant;
+                    }
+                    return;
+                }
+            }
+            nbRaccourcis++;
+            relier(ajouterArc(u, w, duree, arcEntrant, arcSortant));
+        }
+
+        private void relier(int arc) {
+            int u = origine[arc];
+            int w = extremite[arc];
+            if (this.nbSortants[u] == this.sortants[u].length) {
+                this.sortants[u] = Arrays.copyOf(this.sortants[u], 2 * this.nbSortants[u]);
+            }
+            this.sortants[u][this.nbSortants[u]++] = arc;
+            if (this.nbEntrants[w] == this.entrants[w].length) {
+                this.entrants[w] = Arrays.copyOf(this.entrants[w], 2 * this.nbEntrants[w]);
+            }
+            this.entrants[w][this.nbEntrants[w]++] = arc;
+        }
+    }
+
+    /**
+     * L'état d'une requête : les deux recherches montantes et de quoi dérouler le chemin trouvé.
+     */
+    private final class Requete {
+        private final int[] distanceAvant = new int[nbLignes * nbColonnes];
+        private final int[] distanceArriere = new int[nbLignes * nbColonnes];
+        private final int[] arcAvant = new int[nbLignes * nbColonnes];
+        private final int[] arcArriere = new int[nbLignes * nbColonnes];
+        private final int[] vuAvant = new int[nbLignes * nbColonnes];
+        private final int[] vuArriere = new int[nbLignes * nbColonnes];
+        private final int[] fermeAvant = new int[nbLignes * nbColonnes];
+        private final int[] fermeArriere = new int[nbLignes * nbColonnes];
+        private int generation;
+        private final TasBinaire tasAvant = new TasBinaire();
+        private final TasBinaire tasArriere = new TasBinaire();
+
+        int time = -1;
+        private int src;
+        private int dst;
+        // Case où les deux recherches se rejoignent, -1 si le chemin est un pas direct (ou vide).
+        private int rencontre;
+        // Déroulement du chemin : les cases traversées, et une pile d'arcs à dérouler.
+        private int[] cases = new int[64];
+        private int nbCasesChemin;
+        private int[] pile = new int[64];
+
+        void chercher(int src, int dst) {
+            this.time = -1;
+            this.src = src;
+            this.dst = dst;
+            this.rencontre = -1;
+            if (src == dst) {
+                this.time = 0;
+                return;
+            }
+            boolean dstInterdite = !praticable[dst];
+            if (dstInterdite && estVoisine(src, dst)) {
+                // Le dernier pas vers une destination interdite ne coûte rien.
+                this.time = 0;
+                return;
+            }
+            this.generation++;
+            this.tasAvant.vider(0);
+            this.tasArriere.vider(0);
+            // Un robot posé sur une case interdite ne peut qu'en sortir ; une destination interdite
+            // s'atteint gratuitement depuis l'une de ses voisines praticables.
+            if (praticable[src]) {
+                ouvrir(src, 0, -1, true);
+            } else {
+                for (Direction direction : DIRECTIONS) {
+                    int w = voisin(src, direction);
+                    if (w != -1 && praticable[w] && duree(src, w) != -1) {
+                        ouvrir(w, duree(src, w), -1, true);
+                    }
+                }
+            }
+            if (!dstInterdite) {
+                ouvrir(dst, 0, -1, false);
+            } else {
+                for (Direction direction : DIRECTIONS) {
+                    int w = voisin(dst, direction);
+                    if (w != -1 && praticable[w]) {
+                        ouvrir(w, 0, -1, false);
+                    }
+                }
+            }
+
+            int mu = Integer.MAX_VALUE;
+            boolean avantFini = false;
+            boolean arriereFini = false;
+            boolean sensAvant = false;
+            while (true) {
+                avantFini |= this.tasAvant.estVide();
+                arriereFini |= this.tasArriere.estVide();
+                if (avantFini && arriereFini) {
+                    break;
+                }
+                sensAvant = arriereFini || (!avantFini && !sensAvant);
+                TasBinaire tas = sensAvant ? this.tasAvant : this.tasArriere;
+                int[] distance = sensAvant ? this.distanceAvant : this.distanceArriere;
+                int[] ferme = sensAvant ? this.fermeAvant : this.fermeArriere;
+                int x = tas.extraire();
+                int dx = distance[x];
+                if (ferme[x] == this.generation) {
+                    // Entrée périmée : la case a déjà été traitée avec une distance plus petite.
+                    continue;
+                }
+                ferme[x] = this.generation;
+                if (dx >= mu) {
+                    // Toutes les cases restantes de ce côté sont au moins aussi loin que mu.
+                    if (sensAvant) {
+                        avantFini = true;
+                    } else {
+                        arriereFini = true;
+                    }
+                    continue;
+                }
+                int[] autreVu = sensAvant ? this.vuArriere : this.vuAvant;
+                int[] autreDistance = sensAvant ? this.distanceArriere : this.distanceAvant;
+                if (autreVu[x] == this.generation && dx + autreDistance[x] < mu) {
+                    mu = dx + autreDistance[x];
+                    this.rencontre = x;
+                }
+                if (estBloquee(x, dx, sensAvant)) {
+                    continue;
+                }
+                int debut = sensAvant ? debutMontants[x] : debutDescendants[x];
+                int fin = sensAvant ? debutMontants[x + 1] : debutDescendants[x + 1];
+                int[] arcs = sensAvant ? arcsMontants : arcsDescendants;
+                for (int k = debut; k < fin; k++) {
+                    int arc = arcs[k];
+                    ouvrir(sensAvant ? extremite[arc] : origine[arc], dx + cout[arc], arc, sensAvant);
+                }
+            }
+            if (mu != Integer.MAX_VALUE) {
+                this.time = mu;
+            }
+        }
+
+        /**
+         * Indique si une case atteinte par une recherche l'est aussi, plus court, depuis une case
+         * plus importante déjà vue par cette recherche (stall-on-demand) : sa distance n'est alors
+         * pas la bonne et il est inutile de la propager.
+         */
+        private boolean estBloquee(int x, int dx, boolean sensAvant) {
+            int[] vu = sensAvant ? this.vuAvant : this.vuArriere;
+            int[] distance = sensAvant ? this.distanceAvant : this.distanceArriere;
+            // Les arcs qui descendent vers x côté avant sont rangés avec les arcs descendants de x,
+            // et inversement.
+            int debut = sensAvant ? debutDescendants[x] : debutMontants[x];
+            int fin = sensAvant ? debutDescendants[x + 1] : debutMontants[x + 1];
+            int[] arcs = sensAvant ? arcsDescendants : arcsMontants;
+            for (int k = debut; k < fin; k++) {
+                int arc = arcs[k];
+                int y = sensAvant ? origine[arc] : extremite[arc];
+                if (vu[y] == this.generation && distance[y] + cout[arc] < dx) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void ouvrir(int x, int d, int arc, boolean sensAvant) {
+            int[] vu = sensAvant ? this.vuAvant : this.vuArriere;
+            int[] distance = sensAvant ? this.distanceAvant : this.distanceArriere;
+            if (vu[x] != this.generation || d < distance[x]) {
+                vu[x] = this.generation;
+                distance[x] = d;
+                (sensAvant ? this.arcAvant : this.arcArriere)[x] = arc;
+                (sensAvant ? this.tasAvant : this.tasArriere).inserer(x, d);
+            }
+        }
+
+        Stack<Direction> derouler() {
+            if (this.time == -1) {
+                return null;
+            }
+            this.nbCasesChemin = 0;
+            if (this.rencontre != -1) {
+                // Arcs de la recherche avant, empilés de la rencontre vers le départ.
+                int nbArcsAvant = 0;
+                int x = this.rencontre;
+                while (this.arcAvant[x] != -1) {
+                    this.pile = empiler(this.pile, nbArcsAvant++, this.arcAvant[x]);
+                    x = origine[this.arcAvant[x]];
+                }
+                if (x != this.src) {
+                    ajouterCase(this.src);
+                }
+                ajouterCase(x);
+                deroulerPile(nbArcsAvant);
+                x = this.rencontre;
+                while (this.arcArriere[x] != -1) {
+                    this.pile = empiler(this.pile, 0, this.arcArriere[x]);
+                    deroulerPile(1);
+                    x = extremite[this.arcArriere[x]];
+                }
+            } else {
+                ajouterCase(this.src);
+            }
+            if (this.cases[this.nbCasesChemin - 1] != this.dst) {
+                ajouterCase(this.dst);
+            }
+            Stack<Direction> chemin = new Stack<>();
+            chemin.ensureCapacity(this.nbCasesChemin);
+            for (int k = this.nbCasesChemin - 1; k > 0; k--) {
+                chemin.push(aetoile.directionEntre(this.cases[k - 1], this.cases[k], nbColonnes));
+            }
+            return chemin;
+        }
+
+        /**
+         * Dépile les arcs de la pile, dont le premier à suivre est au sommet, et ajoute leurs cases
+         * sauf leur origine, en remplaçant chaque raccourci par les deux arcs qu'il représente.
+         */
+        private void deroulerPile(int taille) {
+            while (taille > 0) {
+                int e = this.pile[--taille];
+                if (premier[e] == -1) {
+                    ajouterCase(extremite[e]);
+                } else {
+                    this.pile = empiler(this.pile, taille++, second[e]);
+                    this.pile = empiler(this.pile, taille++, premier[e]);
+                }
+            }
+        }
+
+        private void ajouterCase(int cellule) {
+            this.cases = empiler(this.cases, this.nbCasesChemin++, cellule);
+        }
+
+        private int[] empiler(int[] tableau, int position, int valeur) {
+            if (position == tableau.length) {
+                tableau = Arrays.copyOf(tableau, 2 * position);
+            }
+            tableau[position] = valeur;
+            return tableau;
+        }
+
+        private boolean estVoisine(int a, int b) {
+            for (Direction direction : DIRECTIONS) {
+                if (voisin(a, direction) == b) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package plus_court_chemin;
+
+/**
+ * L'interface NoyauBalayage décrit l'opération élémentaire de ChampBalayage : relâcher chaque
+ * ligne d'une grille de temps à partir de la ligne précédente, case par case et colonne par colonne.
+ * Toutes les cases d'une ligne sont indépendantes, ce qui permet une implémentation vectorielle.
+ */
+interface NoyauBalayage {
+
+    /**
+     * Parcourt les lignes de la grille dans l'ordre (ou dans l'ordre inverse) et remplace chaque
+     * temps t[i][j] par couts[i][j] + t[i - 1][j] (ou t[i + 1][j]) quand c'est plus petit.
+     *
+     * @param temps      Les temps, ligne par ligne ; modifiés sur place.
+     * @param couts      La durée du pas de chaque case vers la case voisine de la ligne précédente.
+     * @param nbLignes   Le nombre de lignes de la grille.
+     * @param nbColonnes Le nombre de colonnes de la grille.
+     * @param descendant true pour aller de la première ligne à la dernière.
+     * @return true si au moins un temps a diminué.
+     */
+    boolean relaxer(int[] temps, int[] couts, int nbLignes, int nbColonnes, boolean descendant);
+}
@@ -0,0 +1,25 @@
+package plus_court_chemin;
+
+/**
+ * Implémentation case par case de NoyauBalayage, utilisée quand l'API Vector n'est pas disponible.
+ */
+final class NoyauBalayageScalaire implements NoyauBalayage {
+
+    @Override
+    public boolean relaxer(int[] temps, int[] couts, int nbLignes, int nbColonnes, boolean descendant) {
+        boolean change = false;
+        int pas = descendant ? 1 : -1;
+        for (int i = descendant ? 1 : nbLignes - 2; i >= 0 && i < nbLignes; i += pas) {
+            int ligne = i * nbColonnes;
+            int precedente = ligne - pas * nbColonnes;
+            for (int j = 0; j < nbColonnes; j++) {
+                int candidat = couts[ligne + j] + temps[precedente + j];
+                if (candidat < temps[ligne + j]) {
+                    temps[ligne + j] = candidat;
+                    change = true;
+                }
+            }
+        }
+        return change;
+    }
+}
@@ -0,0 +1,48 @@
+package plus_court_chemin;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implémentation de NoyauBalayage avec l'API Vector : une ligne est relâchée par blocs d'autant
+ * de cases que le processeur a de voies entières (8 en AVX2, 16 en AVX-512).
+ *
+ * Cette classe dépend du module incubateur jdk.incubator.vector : elle n'est compilée et chargée
+ * qu'avec l'option --add-modules jdk.incubator.vector (voir la cible benchChamps du Makefile).
+ * ChampBalayage ne la charge que par réflexion, après avoir vérifié que le module est présent.
+ */
+final class NoyauBalayageVectoriel implements NoyauBalayage {
+
+    private static final VectorSpecies<Integer> ESPECE = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean relaxer(int[] temps, int[] couts, int nbLignes, int nbColonnes, boolean descendant) {
+        boolean change = false;
+        int pas = descendant ? 1 : -1;
+        int borne = ESPECE.loopBound(nbColonnes);
+        for (int i = descendant ? 1 : nbLignes - 2; i >= 0 && i < nbLignes; i += pas) {
+            int ligne = i * nbColonnes;
+            int precedente = ligne - pas * nbColonnes;
+            int j = 0;
+            VectorMask<Integer> baisses = ESPECE.maskAll(false);
+            for (; j < borne; j += ESPECE.length()) {
+                IntVector ancien = IntVector.fromArray(ESPECE, temps, ligne + j);
+                IntVector candidat = IntVector.fromArray(ESPECE, couts, ligne + j)
+                        .add(IntVector.fromArray(ESPECE, temps, precedente + j));
+                // On écrit le minimum sans masque et on ne teste les baisses qu'en fin de ligne.
+                baisses = baisses.or(candidat.lt(ancien));
+                ancien.min(candidat).intoArray(temps, ligne + j);
+            }
+            change |= baisses.anyTrue();
+            for (; j < nbColonnes; j++) {
+                int candidat = couts[ligne + j] + temps[precedente + j];
+                if (candidat < temps[ligne + j]) {
+                    temps[ligne + j] = candidat;
+                    change = true;
+                }
+            }
+        }
+        return change;
+    }
+}
@@ -0,0 +1,367 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+import robots.CostModel;
+
+/**
+ * La classe PlanificateurIncremental implémente D* Lite pour un couple robot / destination.
+ *
+ * La recherche part de la destination et remonte vers le robot ; son état (g, rhs et la file)
+ * est conservé d'un appel à l'autre. Quand le robot avance, seule la correction km de la clé change ;
+ * quand une case change de nature, seuls cette case et ses voisins sont remis en cause. La recherche
+ * suivante ne répare donc que la partie de l'arbre touchée par ces changements, au lieu de tout
+ * recalculer comme aetoile.
+ *
+ * D* Lite suppose que tous les déplacements coûtent quelque chose : avec des déplacements de durée
+ * nulle (de petites cases parcourues vite), deux cases voisines peuvent se justifier l'une l'autre
+ * après une modification de la carte. Pour un tel robot, la recherche repart donc de zéro dès qu'une
+ * case a changé ; seul le déplacement du robot reste incrémental.
+ *
+ * Le planificateur s'enregistre comme observateur de la carte ; les modifications reçues sont
+ * prises en compte au prochain appel de calculerChemin. Il faut appeler detacher quand il ne sert
+ * plus. Les conventions de résultat sont celles de aetoile, y compris le dernier pas gratuit vers
+ * une destination sur laquelle le robot ne peut pas se tenir.
+ */
+public class PlanificateurIncremental implements ObservateurCarte {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int INFINI = Integer.MAX_VALUE / 2;
+
+    private final Carte carte;
+    private final CostModel modele;
+    private final int nbLignes;
+    private final int nbColonnes;
+    private final int but;
+    private boolean butInterdit;
+
+    private final int[] g;
+    private final int[] rhs;
+    // Successeur qui donne rhs, -1 s'il n'y en a pas : le chemin suit ces pointeurs.
+    private final int[] suivant;
+    // Clé courante de chaque case présente dans la file, -1 si elle n'y est pas.
+    private final long[] cleFile;
+    private long[] tasCles = new long[64];
+    private int[] tasCases = new int[64];
+    private int tailleTas;
+
+    private int depart;
+    private int dernierDepart;
+    private int km;
+    private final List<Integer> casesModifiees = new ArrayList<>();
+
+    /**
+     * Crée un planificateur entre une case de départ et une destination.
+     *
+     * @param carte       La carte.
+     * @param modele      La table des durées de déplacement du robot.
+     * @param depart      La case de départ du robot.
+     * @param destination La case à atteindre.
+     */
+    public PlanificateurIncremental(Carte carte, CostModel modele, Case depart, Case destination) {
+        this.carte = carte;
+        this.modele = modele;
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        this.but = destination.getLigne() * this.nbColonnes + destination.getColonne();
+        this.butInterdit = !modele.estAccessible(destination.getNature());
+        int nbCases = this.nbLignes * this.nbColonnes;
+        this.g = new int[nbCases];
+        this.rhs = new int[nbCases];
+        this.suivant = new int[nbCases];
+        this.cleFile = new long[nbCases];
+        this.depart = depart.getLigne() * this.nbColonnes + depart.getColonne();
+        reinitialiser();
+        carte.ajouterObservateur(this);
+    }
+
+    /**
+     * Repart d'une recherche vide, depuis la position courante du robot.
+     */
+    private void reinitialiser() {
+        Arrays.fill(this.g, INFINI);
+        Arrays.fill(this.rhs, INFINI);
+        Arrays.fill(this.suivant, -1);
+        Arrays.fill(this.cleFile, -1);
+        this.tailleTas = 0;
+        this.km = 0;
+        this.dernierDepart = this.depart;
+        this.casesModifiees.clear();
+        this.rhs[this.but] = 0;
+        inserer(this.but, cle(this.but));
+    }
+
+    /**
+     * Désinscrit le planificateur de la carte.
+     */
+    public void detacher() {
+        this.carte.retirerObservateur(this);
+    }
+
+    @Override
+    public void caseModifiee(int ligne, int colonne) {
+        this.casesModifiees.add(ligne * this.nbColonnes + colonne);
+    }
+
+    /**
+     * Indique la nouvelle position du robot, par exemple après qu'il a avancé d'une case.
+     *
+     * @param depart La case sur laquelle se trouve le robot.
+     */
+    public void deplacerDepart(Case depart) {
+        this.depart = depart.getLigne() * this.nbColonnes + depart.getColonne();
+    }
+
+    /**
+     * Met à jour la recherche (nouvelle position du robot, cases modifiées) et retourne
+     * le temps de trajet jusqu'à la destination.
+     *
+     * @return Le temps de trajet, ou -1 si la destination est inaccessible.
+     */
+    public int calculerChemin() {
+        boolean interdit = !this.modele.estAccessible(
+                this.carte.getNature(this.but / this.nbColonnes, this.but % this.nbColonnes));
+        if (interdit != this.butInterdit
+                || (this.modele.getCoutMin() == 0 && !this.casesModifiees.isEmpty())) {
+            // Le dernier pas et l'heuristique changent partout, ou des arcs de durée nulle
+            // empêchent la réparation : on repart de zéro.
+            this.butInterdit = interdit;
+            reinitialiser();
+        }
+        if (this.depart != this.dernierDepart) {
+            this.km += heuristique(this.dernierDepart, this.depart);
+            this.dernierDepart = this.depart;
+        }
+        for (int cellule : this.casesModifiees) {
+            // La nature de la case change les durées des arcs qui en partent et qui y arrivent.
+            mettreAJour(cellule);
+            for (Direction direction : DIRECTIONS) {
+                int voisin = voisin(cellule, direction);
+                if (voisin != -1) {
+                    mettreAJour(voisin);
+                }
+            }
+        }
+        this.casesModifiees.clear();
+
+        while (this.tailleTas > 0
+                && (this.tasCles[0] < cle(this.depart) || this.rhs[this.depart] > this.g[this.depart])) {
+            long ancienneCle = this.tasCles[0];
+            int u = this.tasCases[0];
+            long nouvelleCle = cle(u);
+            if (ancienneCle < nouvelleCle) {
+                retirerSommet();
+                inserer(u, nouvelleCle);
+            } else if (this.g[u] > this.rhs[u]) {
+                this.g[u] = this.rhs[u];
+                retirerSommet();
+                for (Direction direction : DIRECTIONS) {
+                    int predecesseur = voisin(u, direction);
+                    if (predecesseur != -1) {
+                        mettreAJour(predecesseur);
+                    }
+                }
+            } else {
+                this.g[u] = INFINI;
+                mettreAJour(u);
+                for (Direction direction : DIRECTIONS) {
+                    int predecesseur = voisin(u, direction);
+                    if (predecesseur != -1) {
+                        mettreAJour(predecesseur);
+                    }
+                }
+            }
+        }
+        return getTime();
+    }
+
+    /**
+     * Retourne le temps de trajet calculé par le dernier appel à calculerChemin.
+     *
+     * @return Le temps de trajet, ou -1 si la destination est inaccessible.
+     */
+    public int getTime() {
+        int temps = this.rhs[this.depart];
+        return temps >= INFINI ? -1 : temps;
+    }
+
+    /**
+     * Retourne le chemin calculé par le dernier appel à calculerChemin, en suivant depuis le départ
+     * le successeur retenu pour chaque case (celui qui minimise durée + g).
+     *
+     * @return La pile des directions, la première à suivre au sommet, ou null si la destination est inaccessible.
+     */
+    public Stack<Direction> getChemin() {
+        if (getTime() == -1) {
+            return null;
+        }
+        List<Direction> pas = new ArrayList<>();
+        int courant = this.depart;
+        while (courant != this.but) {
+            int suivante = this.suivant[courant];
+            // Un chemin plus long que le nombre de cases repasserait par une case : on abandonne.
+            if (suivante == -1 || pas.size() == this.g.length) {
+                return null;
+            }
+            pas.add(aetoile.directionEntre(courant, suivante, this.nbColonnes));
+            courant = suivante;
+        }
+        Stack<Direction> chemin = new Stack<>();
+        for (int k = pas.size() - 1; k >= 0; k--) {
+            chemin.push(pas.get(k));
+        }
+        return chemin;
+    }
+
+    /**
+     * Recalcule rhs(u) à partir de ses successeurs et replace u dans la file s'il est incohérent.
+     * Le successeur retenu n'est remplacé que par un strictement meilleur : avec des durées nulles,
+     * deux cases de même g ne peuvent ainsi pas se désigner l'une l'autre.
+     */
+    private void mettreAJour(int u) {
+        if (u != this.but) {
+            int ancien = this.suivant[u];
+            int meilleur = INFINI;
+            int meilleurSuivant = -1;
+            for (Direction direction : DIRECTIONS) {
+                int voisin = voisin(u, direction);
+                if (voisin == -1) {
+                    continue;
+                }
+                int duree = duree(u, voisin);
+                if (duree != -1 && this.g[voisin] < INFINI) {
+                    int cout = duree + this.g[voisin];
+                    if (cout < meilleur || (cout == meilleur && voisin == ancien)) {
+                        meilleur = cout;
+                        meilleurSuivant = voisin;
+                    }
+                }
+            }
+            this.rhs[u] = meilleur;
+            this.suivant[u] = meilleurSuivant;
+        }
+        if (this.g[u] != this.rhs[u]) {
+            inserer(u, cle(u));
+        } else {
+            // Une entrée éventuellement restée dans la file est désormais périmée.
+            this.cleFile[u] = -1;
+            nettoyerSommet();
+        }
+    }
+
+    /**
+     * Durée du pas de depart vers arrivee, avec le dernier pas gratuit vers un but interdit.
+     */
+    private int duree(int depart, int arrivee) {
+        if (arrivee == this.but && this.butInterdit) {
+            return 0;
+        }
+        return this.modele.getDuree(nature(depart), nature(arrivee));
+    }
+
+    private long cle(int u) {
+        int minimum = Math.min(this.g[u], this.rhs[u]);
+        long k1 = Math.min((long) minimum + heuristique(this.depart, u) + this.km, INFINI);
+        return (k1 << 32) | minimum;
+    }
+
+    /**
+     * Minorant du temps de trajet entre deux cases. Le dernier pas vers un but interdit
+     * ne coûte rien et n'est donc pas compté.
+     */
+    private int heuristique(int depart, int arrivee) {
+        int distance = Math.abs(depart / this.nbColonnes - arrivee / this.nbColonnes)
+                + Math.abs(depart % this.nbColonnes - arrivee % this.nbColonnes);
+        if (arrivee == this.but && this.butInterdit && distance > 0) {
+            distance--;
+        }
+        return distance * this.modele.getCoutMin();
+    }
+
+    private int nature(int cellule) {
+        return this.carte.getNatureOrdinal(cellule / this.nbColonnes, cellule % this.nbColonnes);
+    }
+
+    private int voisin(int cellule, Direction direction) {
+        int ligne = cellule / this.nbColonnes;
+        int colonne = cellule % this.nbColonnes;
+        switch (direction) {
+            case NORD:
+                return ligne > 0 ? cellule - this.nbColonnes : -1;
+            case SUD:
+                return ligne + 1 < this.nbLignes ? cellule + this.nbColonnes : -1;
+            case EST:
+                return colonne + 1 < this.nbColonnes ? cellule + 1 : -1;
+            default:
+                return colonne > 0 ? cellule - 1 : -1;
+        }
+    }
+
+    /**
+     * Insère une case dans le tas avec une nouvelle clé. Les entrées précédentes de la case
+     * restent dans le tas mais sont ignorées, leur clé ne correspondant plus à cleFile.
+     */
+    private void inserer(int cellule, long cle) {
+        this.cleFile[cellule] = cle;
+        if (this.tailleTas == this.tasCles.length) {
+            this.tasCles = Arrays.copyOf(this.tasCles, 2 * this.tailleTas);
+            this.tasCases = Arrays.copyOf(this.tasCases, 2 * this.tailleTas);
+        }
+        int i = this.tailleTas++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (this.tasCles[p] <= cle) {
+                break;
+            }
+            this.tasCles[i] = this.tasCles[p];
+            this.tasCases[i] = this.tasCases[p];
+            i = p;
+        }
+        this.tasCles[i] = cle;
+        this.tasCases[i] = cellule;
+        nettoyerSommet();
+    }
+
+    private void retirerSommet() {
+        this.cleFile[this.tasCases[0]] = -1;
+        extraire();
+        nettoyerSommet();
+    }
+
+    /**
+     * Retire du sommet du tas les entrées périmées, pour que tasCles[0] soit toujours la plus
+     * petite clé valide de la file.
+     */
+    private void nettoyerSommet() {
+        while (this.tailleTas > 0 && this.cleFile[this.tasCases[0]] != this.tasCles[0]) {
+            extraire();
+        }
+    }
+
+    private void extraire() {
+        int n = --this.tailleTas;
+        long cle = this.tasCles[n];
+        int cellule = this.tasCases[n];
+        int i = 0;
+        while (true) {
+            int fils = 2 * i + 1;
+            if (fils >= n) {
+                break;
+            }
+            if (fils + 1 < n && this.tasCles[fils + 1] < this.tasCles[fils]) {
+                fils++;
+            }
+            if (this.tasCles[fils] >= cle) {
+                break;
+            }
+            this.tasCles[i] = this.tasCles[fils];
+            this.tasCases[i] = this.tasCases[fils];
+            i = fils;
+        }
+        this.tasCles[i] = cle;
+        this.tasCases[i] = cellule;
+    }
+}
@@ -0,0 +1,215 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import robots.CostModel;
+
+/**
+ * La classe RechercheBidirectionnelle cherche un plus court chemin avec deux recherches A* menées
+ * en même temps : l'une part du robot, l'autre part de la destination et remonte les déplacements
+ * (un pas de u vers v y coûte la durée du déplacement de u vers v). Quand le chemin serpente dans
+ * toute la carte, chaque recherche ne couvre qu'environ la moitié du rayon d'une recherche simple.
+ *
+ * Les deux recherches utilisent le même potentiel p = (hAvant - hArriere) / 2, où hAvant minore la
+ * distance jusqu'à la destination et hArriere celle depuis le départ (potentiels moyens d'Ikeda) :
+ * la clé d'une case est 2 g + 2 p côté avant et 2 g - 2 p côté arrière (on double tout pour rester
+ * en entiers). Ce sont deux Dijkstra sur les mêmes durées réduites, positives, ce qui garde un
+ * critère d'arrêt simple. Chaque fois qu'une case reçoit un coût d'un côté alors qu'elle en a déjà
+ * un de l'autre, on obtient un chemin complet et on garde le meilleur, mu. Les clés extraites de
+ * chaque file ne décroissent pas ; la recherche s'arrête dès que la somme des dernières clés
+ * extraites atteint la clé d'un chemin de durée mu, aucun chemin plus court ne pouvant alors passer
+ * par une case restant à traiter.
+ *
+ * Les conventions sont celles de aetoile : le dernier pas vers une destination sur laquelle le
+ * robot ne peut pas se tenir ne coûte rien, et le robot peut partir d'une case interdite.
+ */
+final class RechercheBidirectionnelle {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Carte carte;
+    private final CostModel modele;
+    private final TypeFile typeFile;
+    private final int nbLignes;
+    private final int nbColonnes;
+    private int src;
+    private int dst;
+    private boolean dstInterdite;
+
+    private int time;
+    private Stack<Direction> chemin;
+    private int nbDeveloppes;
+
+    RechercheBidirectionnelle(Carte carte, CostModel modele, TypeFile typeFile) {
+        this.carte = carte;
+        this.modele = modele;
+        this.typeFile = typeFile;
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        this.time = -1;
+    }
+
+    int getTime() {
+        return this.time;
+    }
+
+    Stack<Direction> getChemin() {
+        return this.chemin;
+    }
+
+    int getNbDeveloppes() {
+        return this.nbDeveloppes;
+    }
+
+    /**
+     * Cherche le plus court chemin entre deux cases.
+     *
+     * @param src L'identifiant de la case de départ.
+     * @param dst L'identifiant de la case de destination.
+     */
+    void chercher(int src, int dst) {
+        if (src == dst) {
+            this.time = 0;
+            this.chemin = new Stack<>();
+            return;
+        }
+        this.src = src;
+        this.dst = dst;
+        this.dstInterdite = !this.modele.estAccessible(nature(dst));
+        int nbCases = this.nbLignes * this.nbColonnes;
+        // Une durée réduite doublée vaut au plus 2 coutMax + 2 coutMin.
+        int ecartMax = 2 * (this.modele.getCoutMax() + this.modele.getCoutMin());
+        ContexteRecherche avant = ContexteRecherche.courant(nbCases, this.typeFile, ecartMax);
+        ContexteRecherche arriere = ContexteRecherche.inverse(nbCases, this.typeFile, ecartMax);
+        int potentielSrc = potentiel(src);
+        int potentielDst = potentiel(dst);
+        avant.ouvrir(src, 0, 0, src);
+        arriere.ouvrir(dst, 0, 0, dst);
+
+        int mu = Integer.MAX_VALUE;
+        int rencontre = -1;
+        long dernierAvant = 0;
+        long dernierArriere = 0;
+        boolean sensAvant = false;
+        // Si une file se vide, toutes les cases atteignables de ce côté ont été traitées et mu est exact.
+        while (!avant.fileVide() && !arriere.fileVide()
+                && (mu == Integer.MAX_VALUE || dernierAvant + dernierArriere < 2L * mu + potentielDst - potentielSrc)) {
+            // On avance le côté le moins avancé, en alternant en cas d'égalité.
+            sensAvant = dernierAvant < dernierArriere || (dernierAvant == dernierArriere && !sensAvant);
+            ContexteRecherche cote = sensAvant ? avant : arriere;
+            ContexteRecherche autre = sensAvant ? arriere : avant;
+            int courant = cote.extraire();
+            if (cote.estFerme(courant)) {
+                continue;
+            }
+            cote.fermer(courant);
+            this.nbDeveloppes++;
+            int gCourant = cote.g[courant];
+            if (sensAvant) {
+                dernierAvant = 2L * gCourant + potentiel(courant) - potentielSrc;
+                if (courant != src && !this.modele.estAccessible(nature(courant))) {
+                    // La destination interdite est atteinte mais ne sert pas d'étape.
+                    continue;
+                }
+            } else {
+                dernierArriere = 2L * gCourant - potentiel(courant) + potentielDst;
+            }
+
+            for (Direction direction : DIRECTIONS) {
+                int voisin = voisin(courant, direction);
+                if (voisin == -1 || cote.estFerme(voisin)) {
+                    continue;
+                }
+                int duree = sensAvant ? duree(courant, voisin) : duree(voisin, courant);
+                if (duree == -1) {
+                    continue;
+                }
+                int gNew = gCourant + duree;
+                if (!cote.estVu(voisin) || gNew < cote.g[voisin]) {
+                    int cle = sensAvant ? 2 * gNew + potentiel(voisin) - potentielSrc
+                            : 2 * gNew - potentiel(voisin) + potentielDst;
+                    cote.ouvrir(voisin, gNew, cle, courant);
+                }
+                if (autre.estVu(voisin) && gNew + autre.g[voisin] < mu) {
+                    mu = gNew + autre.g[voisin];
+                    rencontre = voisin;
+                }
+            }
+        }
+        if (rencontre != -1) {
+            this.time = mu;
+            this.chemin = tracerChemin(avant, arriere, rencontre);
+        }
+    }
+
+    /**
+     * Durée du pas de depart vers arrivee, avec le dernier pas gratuit vers une destination interdite.
+     */
+    private int duree(int depart, int arrivee) {
+        if (arrivee == this.dst && this.dstInterdite) {
+            return 0;
+        }
+        return this.modele.getDuree(nature(depart).ordinal(), nature(arrivee).ordinal());
+    }
+
+    /**
+     * Potentiel doublé d'une case : hAvant - hArriere. Les deux minorants sont ceux de aetoile ;
+     * le dernier pas vers une destination interdite ne coûtant rien, il n'est compté dans aucun.
+     */
+    private int potentiel(int cellule) {
+        int versDst = distance(cellule, this.dst);
+        if (this.dstInterdite && versDst > 0) {
+            versDst--;
+        }
+        int depuisSrc = distance(this.src, cellule);
+        if (this.dstInterdite && cellule == this.dst) {
+            depuisSrc--;
+        }
+        return (versDst - depuisSrc) * this.modele.getCoutMin();
+    }
+
+    private int distance(int depart, int arrivee) {
+        return Math.abs(depart / this.nbColonnes - arrivee / this.nbColonnes)
+                + Math.abs(depart % this.nbColonnes - arrivee % this.nbColonnes);
+    }
+
+    /**
+     * Assemble le chemin : les parents de la recherche avant mènent du départ à la case de
+     * rencontre, ceux de la recherche arrière de la case de rencontre à la destination.
+     */
+    private Stack<Direction> tracerChemin(ContexteRecherche avant, ContexteRecherche arriere, int rencontre) {
+        List<Direction> fin = new ArrayList<>();
+        for (int courant = rencontre; courant != this.dst; courant = arriere.parent[courant]) {
+            fin.add(aetoile.directionEntre(courant, arriere.parent[courant], this.nbColonnes));
+        }
+        Stack<Direction> path = new Stack<>();
+        for (int k = fin.size() - 1; k >= 0; k--) {
+            path.push(fin.get(k));
+        }
+        for (int courant = rencontre; courant != this.src; courant = avant.parent[courant]) {
+            path.push(aetoile.directionEntre(avant.parent[courant], courant, this.nbColonnes));
+        }
+        return path;
+    }
+
+    private NatureTerrain nature(int cellule) {
+        return this.carte.getNature(cellule / this.nbColonnes, cellule % this.nbColonnes);
+    }
+
+    private int voisin(int cellule, Direction direction) {
+        int ligne = cellule / this.nbColonnes;
+        int colonne = cellule % this.nbColonnes;
+        switch (direction) {
+            case NORD:
+                return ligne > 0 ? cellule - this.nbColonnes : -1;
+            case SUD:
+                return ligne + 1 < this.nbLignes ? cellule + this.nbColonnes : -1;
+            case EST:
+                return colonne + 1 < this.nbColonnes ? cellule + 1 : -1;
+            default:
+                return colonne > 0 ? cellule - 1 : -1;
+        }
+    }
+}
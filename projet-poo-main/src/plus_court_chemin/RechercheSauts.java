@@ -0,0 +1,245 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Stack;
+import robots.CostModel;
+
+/**
+ * La classe RechercheSauts implémente la recherche par points de saut (Jump Point Search)
+ * sur une grille 4-connexe, pour les robots dont tous les déplacements ont la même durée.
+ *
+ * Quand le coût d'un trajet ne dépend que de son nombre de pas, les chemins qui ne diffèrent que
+ * par l'ordre de leurs pas sont équivalents. Au lieu d'ouvrir chaque case, on avance en ligne droite
+ * jusqu'à une case où il faut pouvoir tourner (un voisin apparaît derrière un obstacle) ou jusqu'à
+ * un but, et seules ces cases sont insérées dans la file. Les règles de saut sont celles de la
+ * variante sans diagonales de PathFinding.js : un saut horizontal s'arrête sur un voisin forcé,
+ * un saut vertical s'arrête aussi dès qu'un saut horizontal lancé depuis la case courante aboutit.
+ * Les longueurs des sauts sont lues dans des TablesSauts précalculées.
+ *
+ * Les buts sont la destination, ou ses voisins praticables si le robot ne peut pas s'y tenir :
+ * le dernier pas vers la destination est alors ajouté au chemin et ne coûte rien, comme dans aetoile.
+ */
+final class RechercheSauts {
+
+    // Voisins à explorer : tous au départ ; sinon tout droit et perpendiculairement.
+    private static final int[][] TOUTES = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] VERS_EST = {{-1, 0}, {1, 0}, {0, 1}};
+    private static final int[][] VERS_OUEST = {{-1, 0}, {1, 0}, {0, -1}};
+    private static final int[][] VERS_SUD = {{0, -1}, {0, 1}, {1, 0}};
+    private static final int[][] VERS_NORD = {{0, -1}, {0, 1}, {-1, 0}};
+
+    private final Carte carte;
+    private final CostModel modele;
+    private final int nbColonnes;
+    private final int dst;
+    private final boolean dstInterdite;
+    private TablesSauts tables;
+    private int[] buts;
+
+    private int time;
+    private Stack<Direction> chemin;
+
+    RechercheSauts(Carte carte, CostModel modele, Case destination) {
+        this.carte = carte;
+        this.modele = modele;
+        this.nbColonnes = carte.getNbColonnes();
+        this.dst = destination.getLigne() * this.nbColonnes + destination.getColonne();
+        this.dstInterdite = !modele.estAccessible(destination.getNature());
+        this.time = -1;
+    }
+
+    int getTime() {
+        return this.time;
+    }
+
+    Stack<Direction> getChemin() {
+        return this.chemin;
+    }
+
+    /**
+     * Cherche le plus court chemin depuis une case jusqu'à la destination.
+     *
+     * @param ligneDepart   La ligne de départ.
+     * @param colonneDepart La colonne de départ.
+     */
+    void chercher(int ligneDepart, int colonneDepart) {
+        int src = ligneDepart * this.nbColonnes + colonneDepart;
+        if (src == this.dst) {
+            this.time = 0;
+            this.chemin = new Stack<>();
+            return;
+        }
+        if (this.dstInterdite && distance(src, this.dst) == 1) {
+            this.time = 0;
+            this.chemin = new Stack<>();
+            this.chemin.push(aetoile.directionEntre(src, this.dst, this.nbColonnes));
+            return;
+        }
+        this.tables = TablesSauts.pour(this.carte, this.modele);
+        this.buts = calculerButs();
+
+        int cout = this.modele.getCoutMin();
+        // Les sauts font varier f d'un nombre de cases quelconque : la file de Dial ne convient pas.
+        ContexteRecherche contexte = ContexteRecherche.courant(this.tables.nbLignes * this.nbColonnes,
+                TypeFile.TAS_BINAIRE, 0);
+        contexte.ouvrir(src, 0, heuristique(src, cout), src);
+
+        while (!contexte.fileVide()) {
+            int courant = contexte.extraire();
+            if (contexte.estFerme(courant)) {
+                continue;
+            }
+            contexte.fermer(courant);
+            if (estBut(courant)) {
+                this.time = contexte.g[courant];
+                this.chemin = tracerChemin(contexte, src, courant);
+                return;
+            }
+
+            int i = courant / this.nbColonnes;
+            int j = courant % this.nbColonnes;
+            int pere = contexte.parent[courant];
+            int di = Integer.signum(i - pere / this.nbColonnes);
+            int dj = Integer.signum(j - pere % this.nbColonnes);
+            int[][] directions;
+            if (courant == src) {
+                directions = TOUTES;
+            } else if (dj != 0) {
+                directions = dj > 0 ? VERS_EST : VERS_OUEST;
+            } else {
+                directions = di > 0 ? VERS_SUD : VERS_NORD;
+            }
+            for (int[] direction : directions) {
+                int saut = sauter(i, j, direction[0], direction[1]);
+                if (saut == -1 || contexte.estFerme(saut)) {
+                    continue;
+                }
+                int gNew = contexte.g[courant] + distance(courant, saut) * cout;
+                if (!contexte.estVu(saut) || gNew < contexte.g[saut]) {
+                    contexte.ouvrir(saut, gNew, gNew + heuristique(saut, cout), courant);
+                }
+            }
+        }
+    }
+
+    private int[] calculerButs() {
+        if (!this.dstInterdite) {
+            return new int[] {this.dst};
+        }
+        int i = this.dst / this.nbColonnes;
+        int j = this.dst % this.nbColonnes;
+        int[] voisins = new int[4];
+        int nb = 0;
+        for (int[] decalage : TOUTES) {
+            if (this.tables.estPraticable(i + decalage[0], j + decalage[1])) {
+                voisins[nb++] = (i + decalage[0]) * this.nbColonnes + j + decalage[1];
+            }
+        }
+        return Arrays.copyOf(voisins, nb);
+    }
+
+    private boolean estBut(int cellule) {
+        for (int but : this.buts) {
+            if (but == cellule) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Avance en ligne droite depuis une case et retourne le premier point de saut ou le premier
+     * but rencontré. Un saut vertical s'arrête aussi sur la ligne d'un but si un saut horizontal
+     * lancé depuis cette ligne l'atteint.
+     *
+     * @param i  La ligne de la case de départ.
+     * @param j  La colonne de la case de départ.
+     * @param di Le déplacement vertical (-1, 0 ou 1).
+     * @param dj Le déplacement horizontal (-1, 0 ou 1).
+     * @return L'identifiant de la case d'arrivée, ou -1 si un obstacle ou le bord est atteint avant.
+     */
+    private int sauter(int i, int j, int di, int dj) {
+        int id = i * this.nbColonnes + j;
+        int valeur = valeur(id, di, dj);
+        int portee = Math.abs(valeur);
+        int arret = valeur > 0 ? valeur : Integer.MAX_VALUE;
+        for (int but : this.buts) {
+            int iBut = but / this.nbColonnes;
+            int jBut = but % this.nbColonnes;
+            if (dj != 0) {
+                int pas = (jBut - j) * dj;
+                if (iBut == i && pas >= 1 && pas <= portee) {
+                    arret = Math.min(arret, pas);
+                }
+                continue;
+            }
+            int pas = (iBut - i) * di;
+            if (pas < 1 || pas > portee) {
+                continue;
+            }
+            if (jBut == j) {
+                arret = Math.min(arret, pas);
+            } else {
+                int ligneBut = iBut * this.nbColonnes + j;
+                int horizontal = valeur(ligneBut, 0, jBut > j ? 1 : -1);
+                if (Math.abs(jBut - j) <= Math.abs(horizontal)) {
+                    arret = Math.min(arret, pas);
+                }
+            }
+        }
+        if (arret == Integer.MAX_VALUE) {
+            return -1;
+        }
+        return (i + di * arret) * this.nbColonnes + j + dj * arret;
+    }
+
+    private int valeur(int id, int di, int dj) {
+        if (di == -1) {
+            return this.tables.nord[id];
+        } else if (di == 1) {
+            return this.tables.sud[id];
+        } else if (dj == 1) {
+            return this.tables.est[id];
+        }
+        return this.tables.ouest[id];
+    }
+
+    private int distance(int depart, int arrivee) {
+        return Math.abs(depart / this.nbColonnes - arrivee / this.nbColonnes)
+                + Math.abs(depart % this.nbColonnes - arrivee % this.nbColonnes);
+    }
+
+    private int heuristique(int cellule, int cout) {
+        int distance = distance(cellule, this.dst);
+        if (this.dstInterdite && distance > 0) {
+            distance--;
+        }
+        return distance * cout;
+    }
+
+    /**
+     * Reconstitue le chemin case par case entre les points de saut, qui sont alignés deux à deux.
+     */
+    private Stack<Direction> tracerChemin(ContexteRecherche contexte, int src, int arrivee) {
+        Stack<Direction> path = new Stack<>();
+        if (arrivee != this.dst) {
+            path.push(aetoile.directionEntre(arrivee, this.dst, this.nbColonnes));
+        }
+        int courant = arrivee;
+        while (courant != src) {
+            int pere = contexte.parent[courant];
+            int pas;
+            if (pere / this.nbColonnes == courant / this.nbColonnes) {
+                pas = (courant > pere) ? 1 : -1;
+            } else {
+                pas = (courant > pere) ? this.nbColonnes : -this.nbColonnes;
+            }
+            for (int cellule = courant; cellule != pere; cellule -= pas) {
+                path.push(aetoile.directionEntre(cellule - pas, cellule, this.nbColonnes));
+            }
+            courant = pere;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,226 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import robots.CostModel;
+
+/**
+ * La classe ReperesDistances précalcule l'heuristique ALT (A*, repères et inégalité triangulaire)
+ * d'une carte pour une classe de coût.
+ *
+ * On choisit quelques cases repères L et on calcule, par deux Dijkstra, les temps de trajet exacts
+ * d(L, v) depuis chaque repère et d(v, L) vers chaque repère. Pour toute case v et toute destination t,
+ * l'inégalité triangulaire donne d(v, t) >= d(L, t) - d(L, v) et d(v, t) >= d(v, L) - d(t, L) ;
+ * le plus grand de ces minorants est une heuristique cohérente, exprimée en durée de déplacement.
+ *
+ * Les repères sont choisis par le point le plus éloigné : chaque nouveau repère est la case
+ * accessible qui maximise sa distance au plus proche des repères déjà choisis.
+ * Les tables sont gardées en cache par carte et par classe de coût et recalculées quand la
+ * version de la carte change.
+ */
+public final class ReperesDistances {
+
+    /** Nombre de repères choisis par défaut. */
+    public static final int NB_REPERES = 8;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final Map<Carte, Map<CostModel, ReperesDistances>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int version;
+    private final int[] reperes;
+    // depuis[k][v] = d(repère k, v) et vers[k][v] = d(v, repère k), -1 si inaccessible.
+    private final int[][] depuis;
+    private final int[][] vers;
+
+    private ReperesDistances(Carte carte, CostModel modele, int nbReperes) {
+        this.version = carte.getVersion();
+        int nbLignes = carte.getNbLignes();
+        int nbColonnes = carte.getNbColonnes();
+        int nbCases = nbLignes * nbColonnes;
+
+        // Le premier repère est le plus éloigné d'une case accessible proche du centre.
+        int graine = caseAccessibleProche(carte, modele, nbLignes / 2, nbColonnes / 2);
+        int[] choisis = new int[nbReperes];
+        int nb = 0;
+        int[][] depuis = new int[nbReperes][];
+        int[][] vers = new int[nbReperes][];
+        if (graine != -1) {
+            int[] eloignement = dijkstra(carte, modele, graine, false);
+            int candidat = plusEloignee(eloignement);
+            while (nb < nbReperes && candidat != -1) {
+                choisis[nb] = candidat;
+                depuis[nb] = dijkstra(carte, modele, candidat, false);
+                vers[nb] = dijkstra(carte, modele, candidat, true);
+                if (nb == 0) {
+                    eloignement = depuis[0].clone();
+                } else {
+                    for (int v = 0; v < nbCases; v++) {
+                        if (eloignement[v] >= 0 && depuis[nb][v] >= 0) {
+                            eloignement[v] = Math.min(eloignement[v], depuis[nb][v]);
+                        }
+                    }
+                }
+                nb++;
+                candidat = plusEloignee(eloignement);
+            }
+        }
+        this.reperes = Arrays.copyOf(choisis, nb);
+        this.depuis = Arrays.copyOf(depuis, nb);
+        this.vers = Arrays.copyOf(vers, nb);
+    }
+
+    /**
+     * Retourne les repères d'une carte pour une classe de coût, en les calculant si nécessaire.
+     * L'appeler au chargement de la carte évite de payer le précalcul lors de la première recherche.
+     *
+     * @param carte  La carte.
+     * @param modele La table des durées de déplacement de la classe de robots.
+     * @return Les distances aux repères, à jour pour la version courante de la carte.
+     */
+    public static ReperesDistances pour(Carte carte, CostModel modele) {
+        synchronized (CACHE) {
+            Map<CostModel, ReperesDistances> parModele = CACHE.computeIfAbsent(carte, c -> new HashMap<>());
+            ReperesDistances reperes = parModele.get(modele);
+            if (reperes == null || reperes.version != carte.getVersion()) {
+                reperes = new ReperesDistances(carte, modele, NB_REPERES);
+                parModele.put(modele, reperes);
+            }
+            return reperes;
+        }
+    }
+
+    /**
+     * Retourne le nombre de repères effectivement choisis.
+     *
+     * @return Le nombre de repères.
+     */
+    public int getNbReperes() {
+        return this.reperes.length;
+    }
+
+    /**
+     * Calcule un minorant du temps de trajet entre deux cases.
+     * La destination doit être une case sur laquelle le robot peut se tenir.
+     *
+     * @param v   L'identifiant de la case de départ.
+     * @param dst L'identifiant de la destination.
+     * @return Le minorant, ou -1 si les repères prouvent que la destination est inaccessible depuis v.
+     */
+    int minorant(int v, int dst) {
+        int borne = 0;
+        for (int k = 0; k < this.reperes.length; k++) {
+            int[] depuisRepere = this.depuis[k];
+            int[] versRepere = this.vers[k];
+            // d(v, t) >= d(L, t) - d(L, v). Si L atteint v mais pas t, v n'atteint pas t non plus.
+            if (depuisRepere[v] >= 0) {
+                if (depuisRepere[dst] < 0) {
+                    return -1;
+                }
+                borne = Math.max(borne, depuisRepere[dst] - depuisRepere[v]);
+            }
+            // d(v, t) >= d(v, L) - d(t, L). Si t atteint L mais pas v, v n'atteint pas t non plus.
+            if (versRepere[dst] >= 0) {
+                if (versRepere[v] < 0) {
+                    return -1;
+                }
+                borne = Math.max(borne, versRepere[v] - versRepere[dst]);
+            }
+        }
+        return borne;
+    }
+
+    private static int plusEloignee(int[] eloignement) {
+        int meilleure = -1;
+        for (int v = 0; v < eloignement.length; v++) {
+            if (eloignement[v] > 0 && (meilleure == -1 || eloignement[v] > eloignement[meilleure])) {
+                meilleure = v;
+            }
+        }
+        return meilleure;
+    }
+
+    private static int caseAccessibleProche(Carte carte, CostModel modele, int ligne, int colonne) {
+        int meilleure = -1;
+        int meilleureDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < carte.getNbLignes(); i++) {
+            for (int j = 0; j < carte.getNbColonnes(); j++) {
+                int distance = Math.abs(i - ligne) + Math.abs(j - colonne);
+                if (distance < meilleureDistance && modele.estAccessible(carte.getNature(i, j))) {
+                    meilleure = i * carte.getNbColonnes() + j;
+                    meilleureDistance = distance;
+                }
+            }
+        }
+        return meilleure;
+    }
+
+    /**
+     * Dijkstra depuis une case (ou vers elle si inverse vaut true) sur toute la carte.
+     * En sens inverse, une case sur laquelle le robot ne peut pas se tenir reçoit un temps
+     * (il a pu y être posé) mais ne sert jamais d'étape, comme dans ChampDistance.
+     *
+     * @return Les temps de trajet, -1 pour les cases non atteintes.
+     */
+    private static int[] dijkstra(Carte carte, CostModel modele, int source, boolean inverse) {
+        int nbLignes = carte.getNbLignes();
+        int nbColonnes = carte.getNbColonnes();
+        int[] temps = new int[nbLignes * nbColonnes];
+        Arrays.fill(temps, -1);
+        ContexteRecherche contexte = ContexteRecherche.courant(temps.length, TypeFile.DIAL, modele.getCoutMax());
+        temps[source] = 0;
+        contexte.ouvrir(source, 0, 0, source);
+        while (!contexte.fileVide()) {
+            int courant = contexte.extraire();
+            if (contexte.estFerme(courant)) {
+                continue;
+            }
+            contexte.fermer(courant);
+            int i = courant / nbColonnes;
+            int j = courant % nbColonnes;
+            NatureTerrain nature = carte.getNature(i, j);
+            if (inverse && !modele.estAccessible(nature)) {
+                continue;
+            }
+            for (Direction direction : DIRECTIONS) {
+                int iVoisin = i;
+                int jVoisin = j;
+                switch (direction) {
+                    case NORD:
+                        iVoisin--;
+                        break;
+                    case SUD:
+                        iVoisin++;
+                        break;
+                    case EST:
+                        jVoisin++;
+                        break;
+                    default:
+                        jVoisin--;
+                }
+                if (iVoisin < 0 || iVoisin >= nbLignes || jVoisin < 0 || jVoisin >= nbColonnes) {
+                    continue;
+                }
+                int voisin = iVoisin * nbColonnes + jVoisin;
+                if (contexte.estFerme(voisin)) {
+                    continue;
+                }
+                NatureTerrain natureVoisin = carte.getNature(iVoisin, jVoisin);
+                int duree = inverse ? modele.getDuree(natureVoisin, nature) : modele.getDuree(nature, natureVoisin);
+                if (duree == -1) {
+                    continue;
+                }
+                int tempsNouveau = temps[courant] + duree;
+                if (temps[voisin] == -1 || tempsNouveau < temps[voisin]) {
+                    temps[voisin] = tempsNouveau;
+                    contexte.ouvrir(voisin, tempsNouveau, tempsNouveau, courant);
+                }
+            }
+        }
+        return temps;
+    }
+}
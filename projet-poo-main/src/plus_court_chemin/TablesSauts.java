@@ -0,0 +1,149 @@
+package plus_court_chemin;
+
+import carte.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import robots.CostModel;
+
+/**
+ * La classe TablesSauts précalcule, pour une carte et une classe de coût, la longueur de chaque
+ * saut de la recherche par points de saut : pour chaque case et chaque direction, le nombre de pas
+ * jusqu'au prochain point de saut, ou l'opposé du nombre de pas possibles avant un obstacle s'il n'y
+ * en a pas. Un saut coûte alors une lecture de tableau au lieu d'un parcours case par case.
+ *
+ * Les points de saut ne dépendent que des cases praticables, pas de la destination : celle-ci est
+ * traitée à part par RechercheSauts. Les tables sont gardées en cache par carte et par classe de coût
+ * et recalculées quand la version de la carte change.
+ */
+final class TablesSauts {
+
+    private static final Map<Carte, Map<CostModel, TablesSauts>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int version;
+    final int nbLignes;
+    final int nbColonnes;
+    final boolean[] praticable;
+    final int[] nord;
+    final int[] sud;
+    final int[] est;
+    final int[] ouest;
+
+    private TablesSauts(Carte carte, CostModel modele) {
+        this.version = carte.getVersion();
+        this.nbLignes = carte.getNbLignes();
+        this.nbColonnes = carte.getNbColonnes();
+        int nbCases = this.nbLignes * this.nbColonnes;
+        this.praticable = new boolean[nbCases];
+        // Le terrain est lu par plages de cases de même nature, en une étape par plage.
+        for (int i = 0; i < this.nbLignes; i++) {
+            for (int j = 0; j < this.nbColonnes; ) {
+                int fin = carte.finUniforme(i, j);
+                if (modele.estAccessible(carte.getNature(i, j))) {
+                    Arrays.fill(this.praticable, i * this.nbColonnes + j, i * this.nbColonnes + fin, true);
+                }
+                j = fin;
+            }
+        }
+        this.nord = new int[nbCases];
+        this.sud = new int[nbCases];
+        this.est = new int[nbCases];
+        this.ouest = new int[nbCases];
+        calculerHorizontales();
+        calculerVerticales();
+    }
+
+    /**
+     * Retourne les tables d'une carte pour une classe de coût, en les calculant si nécessaire.
+     *
+     * @param carte  La carte.
+     * @param modele La table des durées de déplacement, dont seules les cases praticables comptent.
+     * @return Les tables à jour.
+     */
+    static TablesSauts pour(Carte carte, CostModel modele) {
+        synchronized (CACHE) {
+            Map<CostModel, TablesSauts> parModele = CACHE.computeIfAbsent(carte, c -> new HashMap<>());
+            TablesSauts tables = parModele.get(modele);
+            if (tables == null || tables.version != carte.getVersion()) {
+                tables = new TablesSauts(carte, modele);
+                parModele.put(modele, tables);
+            }
+            return tables;
+        }
+    }
+
+    boolean estPraticable(int i, int j) {
+        return i >= 0 && i < this.nbLignes && j >= 0 && j < this.nbColonnes
+                && this.praticable[i * this.nbColonnes + j];
+    }
+
+    /**
+     * Un saut horizontal s'arrête sur une case qui a un voisin forcé : une case praticable au-dessus
+     * ou en dessous, alors que la case correspondante d'où l'on vient était bloquée.
+     */
+    private void calculerHorizontales() {
+        for (int i = 0; i < this.nbLignes; i++) {
+            for (int j = this.nbColonnes - 1; j >= 0; j--) {
+                int id = i * this.nbColonnes + j;
+                this.est[id] = suivant(j + 1 < this.nbColonnes && this.praticable[id + 1],
+                        estPraticable(i - 1, j + 1) && !estPraticable(i - 1, j)
+                                || estPraticable(i + 1, j + 1) && !estPraticable(i + 1, j),
+                        j + 1 < this.nbColonnes ? this.est[id + 1] : 0);
+            }
+            for (int j = 0; j < this.nbColonnes; j++) {
+                int id = i * this.nbColonnes + j;
+                this.ouest[id] = suivant(j > 0 && this.praticable[id - 1],
+                        estPraticable(i - 1, j - 1) && !estPraticable(i - 1, j)
+                                || estPraticable(i + 1, j - 1) && !estPraticable(i + 1, j),
+                        j > 0 ? this.ouest[id - 1] : 0);
+            }
+        }
+    }
+
+    /**
+     * Un saut vertical s'arrête sur une case qui a un voisin forcé, ou d'où un saut horizontal
+     * atteint un point de saut.
+     */
+    private void calculerVerticales() {
+        int n = this.nbColonnes;
+        for (int j = 0; j < n; j++) {
+            for (int i = this.nbLignes - 1; i >= 0; i--) {
+                int id = i * n + j;
+                boolean existe = i + 1 < this.nbLignes;
+                this.sud[id] = suivant(existe && this.praticable[id + n],
+                        existe && (estPraticable(i + 1, j - 1) && !estPraticable(i, j - 1)
+                                || estPraticable(i + 1, j + 1) && !estPraticable(i, j + 1)
+                                || this.est[id + n] > 0 || this.ouest[id + n] > 0),
+                        existe ? this.sud[id + n] : 0);
+            }
+            for (int i = 0; i < this.nbLignes; i++) {
+                int id = i * n + j;
+                boolean existe = i > 0;
+                this.nord[id] = suivant(existe && this.praticable[id - n],
+                        existe && (estPraticable(i - 1, j - 1) && !estPraticable(i, j - 1)
+                                || estPraticable(i - 1, j + 1) && !estPraticable(i, j + 1)
+                                || this.est[id - n] > 0 || this.ouest[id - n] > 0),
+                        existe ? this.nord[id - n] : 0);
+            }
+        }
+    }
+
+    /**
+     * Calcule la valeur d'une case à partir de celle de la case suivante dans la direction du saut.
+     *
+     * @param suivantePraticable true si la case suivante existe et est praticable.
+     * @param suivanteSaut       true si la case suivante est un point de saut.
+     * @param valeurSuivante     La valeur déjà calculée pour la case suivante.
+     */
+    private static int suivant(boolean suivantePraticable, boolean suivanteSaut, int valeurSuivante) {
+        if (!suivantePraticable) {
+            return 0;
+        } else if (suivanteSaut) {
+            return 1;
+        }
+        return valeurSuivante > 0 ? valeurSuivante + 1 : valeurSuivante - 1;
+    }
+}
@@ -0,0 +1,81 @@
+package plus_court_chemin;
+
+import java.util.Arrays;
+
+/**
+ * La classe TasBinaire est un tas binaire d'identifiants de cases ordonné par clé croissante,
+ * stocké dans deux tableaux parallèles qui ne sont agrandis que lorsqu'ils sont pleins.
+ */
+final class TasBinaire implements FilePriorite {
+
+    private int[] noeuds = new int[64];
+    private int[] cles = new int[64];
+    private int taille;
+
+    @Override
+    public void vider(int ecartMax) {
+        this.taille = 0;
+    }
+
+    @Override
+    public boolean estVide() {
+        return this.taille == 0;
+    }
+
+    @Override
+    public void inserer(int id, int cle) {
+        if (this.taille == this.noeuds.length) {
+            this.noeuds = Arrays.copyOf(this.noeuds, 2 * this.taille);
+            this.cles = Arrays.copyOf(this.cles, 2 * this.taille);
+        }
+        int i = this.taille++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (this.cles[p] <= cle) {
+                break;
+            }
+            this.noeuds[i] = this.noeuds[p];
+            this.cles[i] = this.cles[p];
+            i = p;
+        }
+        this.noeuds[i] = id;
+        this.cles[i] = cle;
+    }
+
+    /**
+     * Retourne la plus petite clé de la file, sans retirer la case correspondante.
+     * La file ne doit pas être vide.
+     *
+     * @return La clé de la case qu'extraire retournerait.
+     */
+    int cleMin() {
+        return this.cles[0];
+    }
+
+    @Override
+    public int extraire() {
+        int resultat = this.noeuds[0];
+        int n = --this.taille;
+        int id = this.noeuds[n];
+        int cle = this.cles[n];
+        int i = 0;
+        while (true) {
+            int fils = 2 * i + 1;
+            if (fils >= n) {
+                break;
+            }
+            if (fils + 1 < n && this.cles[fils + 1] < this.cles[fils]) {
+                fils++;
+            }
+            if (this.cles[fils] >= cle) {
+                break;
+            }
+            this.noeuds[i] = this.noeuds[fils];
+            this.cles[i] = this.cles[fils];
+            i = fils;
+        }
+        this.noeuds[i] = id;
+        this.cles[i] = cle;
+        return resultat;
+    }
+}
@@ -0,0 +1,12 @@
+package plus_court_chemin;
+
+/**
+ * L'énumération TypeFile liste les files de priorité disponibles pour les recherches de chemin.
+ * TAS_BINAIRE convient à toutes les recherches. DIAL est une file à seaux circulaires qui
+ * exploite le fait que les durées de déplacement sont de petits entiers : elle n'est valable
+ * que si les clés extraites sont croissantes, ce qui est le cas de Dijkstra et de A* avec
+ * une heuristique cohérente.
+ */
+public enum TypeFile {
+    TAS_BINAIRE, DIAL
+}
@@ -1,9 +1,8 @@
 package plus_court_chemin;
 
 import carte.*;
-import java.util.PriorityQueue;
+import java.util.Collection;
 import java.util.Stack;
-import java.util.Arrays;
 import robots.*;
 
 /**
@@ -13,8 +12,19 @@ import robots.*;
  */
 public class aetoile {
 
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     private int time;
     private Stack<Direction> chemin; 
+    private TypeFile typeFile;
+    private HierarchieChemins hierarchie;
+    private boolean contraction;
+    private CacheChemins cache;
+    private boolean rechercheParSauts;
+    private boolean bidirectionnelle;
+    private double epsilon;
+    private Heuristique heuristique;
+    private int nbDeveloppes;
     
     /**
      * Constructeur par défaut de la classe aetoile.
@@ -23,6 +33,116 @@ public class aetoile {
     public aetoile(){
         this.time = -1;
         this.chemin = null;
+        this.typeFile = TypeFile.TAS_BINAIRE;
+        this.rechercheParSauts = true;
+        this.heuristique = Heuristique.MANHATTAN;
+        this.epsilon = 1;
+    }
+
+    /**
+     * Choisit la file de priorité utilisée par les recherches suivantes. Par défaut, un tas binaire
+     * est utilisé : sur les cartes fournies, il est plus rapide que la file de Dial, qui ne prend
+     * l'avantage que sur les très grandes cartes.
+     *
+     * @param typeFile Le type de file de priorité.
+     */
+    public void setTypeFile(TypeFile typeFile){
+        this.typeFile = typeFile;
+    }
+
+    /**
+     * Choisit l'heuristique utilisée par les recherches A* suivantes. Avec REPERES, les distances
+     * aux repères de la carte sont calculées lors de la première recherche d'une classe de coût
+     * (voir ReperesDistances.pour). Si le robot ne peut pas se tenir sur la destination, la
+     * recherche revient à l'heuristique par défaut.
+     *
+     * @param heuristique L'heuristique à utiliser.
+     */
+    public void setHeuristique(Heuristique heuristique){
+        this.heuristique = heuristique;
+    }
+
+    /**
+     * Autorise ou non la recherche par points de saut (RechercheSauts) pour les robots dont tous
+     * les déplacements ont la même durée. Elle est autorisée par défaut et choisie automatiquement
+     * quand le modèle de coût du robot est uniforme ; le résultat est le même qu'avec A*.
+     *
+     * @param rechercheParSauts true pour l'autoriser, false pour toujours utiliser A*.
+     */
+    public void setRechercheParSauts(boolean rechercheParSauts){
+        this.rechercheParSauts = rechercheParSauts;
+    }
+
+    /**
+     * Choisit le poids de l'heuristique des recherches A* suivantes (A* pondéré) : les cases sont
+     * classées selon g + epsilon * h. Avec epsilon > 1, la recherche fonce vers la destination et
+     * développe beaucoup moins de cases, mais le temps rendu peut dépasser l'optimum, d'un facteur
+     * epsilon au plus. Les clés n'étant plus croissantes, la file de Dial n'est pas utilisable et
+     * un tas binaire est toujours utilisé ; le cache n'est ni lu ni rempli. La recherche par points
+     * de saut, la recherche bidirectionnelle et la hiérarchie ne sont pas affectées.
+     * Par défaut, epsilon vaut 1 et la recherche est exacte.
+     *
+     * @param epsilon Le poids de l'heuristique, au moins 1.
+     * @throws IllegalArgumentException si epsilon est inférieur à 1.
+     */
+    public void setEpsilon(double epsilon){
+        if (!(epsilon >= 1)) {
+            throw new IllegalArgumentException("epsilon doit être au moins égal à 1 : " + epsilon);
+        }
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Choisit une recherche bidirectionnelle (RechercheBidirectionnelle) pour les requêtes
+     * suivantes : un Dijkstra depuis le robot et un autre depuis la destination, qui s'arrêtent
+     * quand ils se rejoignent. Elle est utile pour les trajets longs et sinueux, où A* développe
+     * presque toute la carte ; le résultat est le même qu'avec A*. Elle est désactivée par défaut
+     * et passe avant la recherche par points de saut.
+     *
+     * @param bidirectionnelle true pour chercher dans les deux sens.
+     */
+    public void setRechercheBidirectionnelle(boolean bidirectionnelle){
+        this.bidirectionnelle = bidirectionnelle;
+    }
+
+    /**
+     * Associe une hiérarchie de clusters aux recherches suivantes. Les recherches d'un robot
+     * dont la classe de coût correspond à la hiérarchie lui sont déléguées : elles sont bien
+     * plus rapides sur les grandes cartes, mais le chemin rendu n'est que quasi optimal.
+     *
+     * @param hierarchie La hiérarchie à utiliser, ou null pour toujours faire une recherche A* complète.
+     */
+    public void setHierarchie(HierarchieChemins hierarchie){
+        this.hierarchie = hierarchie;
+    }
+
+    /**
+     * Fait passer les recherches suivantes par une hiérarchie de contraction (HierarchieContractee)
+     * de la classe de coût du robot. Elle est construite à la première recherche de chaque classe,
+     * puis reconstruite si la carte change : c'est coûteux, et réservé aux cartes qui ne changent
+     * plus. Les requêtes ne prennent alors que quelques microsecondes et le résultat est le même
+     * qu'avec A*. Désactivée par défaut, elle passe avant la hiérarchie de clusters. Les robots dont
+     * tous les déplacements ont la même durée n'y passent pas : sur leur grille, le haut de la
+     * hiérarchie devient dense et une requête coûte plus cher qu'une recherche par points de saut,
+     * qui leur reste réservée.
+     *
+     * @param contraction true pour utiliser les hiérarchies de contraction.
+     */
+    public void setContraction(boolean contraction){
+        this.contraction = contraction;
+    }
+
+    /**
+     * Associe un cache de trajets aux recherches suivantes : une recherche déjà faite sur la même
+     * version de la carte, pour la même classe de coût et les mêmes cases, n'est pas refaite.
+     * Le cache peut être partagé entre plusieurs instances de aetoile ; il ne faut pas le partager
+     * entre des instances qui n'utilisent pas la même hiérarchie, celle-ci ne rendant que des
+     * chemins quasi optimaux.
+     *
+     * @param cache Le cache à utiliser, ou null pour toujours refaire la recherche.
+     */
+    public void setCache(CacheChemins cache){
+        this.cache = cache;
     }
 
     /**
@@ -34,6 +154,17 @@ public class aetoile {
         return this.time;
     }
 
+    /**
+     * Retourne le nombre de cases développées par la dernière recherche A* ou bidirectionnelle
+     * (0 si elle a été déléguée à une hiérarchie ou à la recherche par points de saut,
+     * ou si son résultat a été lu dans le cache).
+     *
+     * @return Le nombre de cases développées.
+     */
+    public int getNbDeveloppes(){
+        return this.nbDeveloppes;
+    }
+
     /**
      * Retourne la pile des directions représentant le chemin trouvé.
      *
@@ -44,219 +175,350 @@ public class aetoile {
     }
 
     /**
-     * La classe interne node représente un nœud dans la grille de recherche A*.
-     * Elle stocke le parent du nœud et les valeurs des fonctions de coût f, g, et h.
+     * Calcule la valeur heuristique (h) entre deux cases.
+     * On utilise la distance de Manhattan multipliée par la durée du déplacement le plus
+     * rapide du robot : c'est une borne inférieure du temps de trajet, exprimée dans la même
+     * unité que les durées de déplacement. Si le robot ne peut pas se tenir sur la destination,
+     * la dernière étape ne coûte rien et n'est donc pas comptée.
+     *
+     * @param ligne       La ligne de la case de départ.
+     * @param colonne     La colonne de la case de départ.
+     * @param dst         La case de destination.
+     * @param coutMin     La durée minimale d'un déplacement du robot.
+     * @param dstInterdite true si le robot ne peut pas entrer sur la destination.
+     * @return La valeur heuristique (h) entre les deux cases.
      */
-    public class node {
-        public Case parent; 
-        public double f, g, h;
-        public int temps;
+    int calculeValeurH(int ligne, int colonne, Case dst, int coutMin, boolean dstInterdite){
+        int distance = Math.abs(ligne - dst.getLigne()) + Math.abs(colonne - dst.getColonne());
+        if (dstInterdite && distance > 0) {
+            distance--;
+        }
+        return distance * coutMin;
+    }
 
-        /**
-         * Constructeur par défaut qui initialise le nœud avec des valeurs par défaut.
-         */
-        node(){
-            parent = new Case(-1, -1, NatureTerrain.ROCHE);
-            f = -1;
-            g = -1;
-            h = -1;
-            temps = 0; 
+    /**
+     * Trace le chemin en remontant les parents calculés par l'algorithme A*.
+     * Le chemin est représenté par une pile de directions (NORD, SUD, EST, OUEST),
+     * la première direction à suivre étant au sommet de la pile.
+     *
+     * @param contexte   Le contexte de la recherche terminée.
+     * @param src        L'identifiant de la case de départ.
+     * @param dst        L'identifiant de la case de destination.
+     * @param nbColonnes Le nombre de colonnes de la carte.
+     */
+    void tracePath(ContexteRecherche contexte, int src, int dst, int nbColonnes){
+        Stack<Direction> path = new Stack<>();
+        int courant = dst;
+        while (courant != src) {
+            int pere = contexte.parent[courant];
+            path.push(directionEntre(pere, courant, nbColonnes));
+            courant = pere;
         }
+        this.chemin = path;
+    }
 
-        /**
-         * Constructeur qui initialise un nœud avec les valeurs spécifiées.
-         *
-         * @param parent La case parent de ce nœud.
-         * @param f      Valeur de la fonction de coût totale.
-         * @param g      Coût du chemin depuis le point de départ.
-         * @param h      Coût heuristique estimé pour atteindre la destination.
-         * @param temps  Temps nécessaire pour atteindre ce nœud.
-         */
-        public node(Case parent, double f, double g, double h, int temps){
-            this.parent = parent;
-            this.f = f;
-            this.g = g;
-            this.h = h;
-            this.temps = temps; 
+    /**
+     * Retourne la direction à suivre pour passer d'une case à une case voisine.
+     *
+     * @param depart     L'identifiant de la case de départ.
+     * @param arrivee    L'identifiant de la case d'arrivée, voisine de la case de départ.
+     * @param nbColonnes Le nombre de colonnes de la carte.
+     * @return La direction menant de depart à arrivee.
+     */
+    static Direction directionEntre(int depart, int arrivee, int nbColonnes){
+        int ecart = arrivee - depart;
+        if (ecart == -nbColonnes) {
+            return Direction.NORD;
+        } else if (ecart == nbColonnes) {
+            return Direction.SUD;
+        } else if (ecart == 1) {
+            return Direction.EST;
         }
+        return Direction.OUEST;
     }
 
     /**
-     * La classe Details contient les informations concernant une case : 
-     * sa valeur de coût et ses coordonnées (i, j).
+     * Effectue la recherche A* pour trouver le chemin le plus court entre la position
+     * du robot et une case de destination.
+     * La dernière étape vers la destination est toujours autorisée, même si le robot ne
+     * peut pas se tenir sur la case (par exemple une case d'eau pour un robot terrestre) :
+     * elle ne coûte alors rien, le robot s'arrêtant sur la case voisine.
+     * Si aucun chemin n'existe, le temps vaut -1 et le chemin est null.
+     *
+     * @param carte La carte sur laquelle effectuer la recherche.
+     * @param dst   La case de destination.
+     * @param robot Le robot qui effectue la recherche.
      */
-    public static class Details {
-        double value;
-        int i;
-        int j;
+    public void aEtoileSearch(Carte carte, Case dst, Robot robot){
+        if (this.cache == null || this.epsilon > 1) {
+            rechercher(carte, dst, robot);
+            return;
+        }
+        int nbColonnes = carte.getNbColonnes();
+        int src = robot.getLigne() * nbColonnes + robot.getColonne();
+        int cible = dst.getLigne() * nbColonnes + dst.getColonne();
+        CacheChemins.Entree entree = this.cache.chercher(carte, robot.getCostModel(), src, cible);
+        if (entree != null) {
+            this.time = entree.time;
+            this.chemin = CacheChemins.copier(entree.chemin);
+            this.nbDeveloppes = 0;
+            return;
+        }
+        rechercher(carte, dst, robot);
+        this.cache.memoriser(carte, robot.getCostModel(), src, cible, this.time, this.chemin);
+    }
 
-        /**
-         * Constructeur qui initialise les détails d'une case avec les valeurs spécifiées.
-         *
-         * @param value Valeur de coût de la case.
-         * @param i     Coordonnée i (ligne) de la case.
-         * @param j     Coordonnée j (colonne) de la case.
-         */
-        public Details(double value, int i, int j) {
-            this.value = value;
-            this.i = i;
-            this.j = j;
+    private void rechercher(Carte carte, Case dst, Robot robot){
+        this.time = -1;
+        this.chemin = null;
+        this.nbDeveloppes = 0;
+
+        int nbLignes = carte.getNbLignes();
+        int nbColonnes = carte.getNbColonnes();
+        CostModel modele = robot.getCostModel();
+        if (this.contraction && !modele.estUniforme()) {
+            HierarchieContractee contractee = HierarchieContractee.pour(carte, modele);
+            contractee.chercher(carte.getCase(robot.getLigne(), robot.getColonne()), dst);
+            this.time = contractee.getTime();
+            this.chemin = contractee.getChemin();
+            return;
+        }
+        if (this.hierarchie != null && this.hierarchie.accepte(carte, modele)) {
+            this.hierarchie.chercher(carte.getCase(robot.getLigne(), robot.getColonne()), dst);
+            this.time = this.hierarchie.getTime();
+            this.chemin = this.hierarchie.getChemin();
+            return;
+        }
+        if (this.bidirectionnelle) {
+            RechercheBidirectionnelle recherche = new RechercheBidirectionnelle(carte, modele, this.typeFile);
+            recherche.chercher(robot.getLigne() * nbColonnes + robot.getColonne(),
+                    dst.getLigne() * nbColonnes + dst.getColonne());
+            this.time = recherche.getTime();
+            this.chemin = recherche.getChemin();
+            this.nbDeveloppes = recherche.getNbDeveloppes();
+            return;
         }
+        if (this.rechercheParSauts && modele.estUniforme()) {
+            RechercheSauts recherche = new RechercheSauts(carte, modele, dst);
+            recherche.chercher(robot.getLigne(), robot.getColonne());
+            this.time = recherche.getTime();
+            this.chemin = recherche.getChemin();
+            return;
+        }
+        int coutMin = modele.getCoutMin();
+        boolean dstInterdite = !modele.estAccessible(dst.getNature());
+        int src = robot.getLigne() * nbColonnes + robot.getColonne();
+        int cible = dst.getLigne() * nbColonnes + dst.getColonne();
+        ReperesDistances reperes = null;
+        if (this.heuristique == Heuristique.REPERES && !dstInterdite) {
+            reperes = ReperesDistances.pour(carte, modele);
+        }
+        // Avec une heuristique cohérente, f augmente d'au plus coutMax + coutMin à chaque pas
+        // (coutMax de plus pour les repères, dont les bornes varient d'au plus un déplacement).
+        int ecartMax = modele.getCoutMax() + (reperes == null ? coutMin : modele.getCoutMax());
+        // Avec une heuristique pondérée, f peut diminuer d'un pas à l'autre : seul le tas convient.
+        TypeFile file = this.epsilon > 1 ? TypeFile.TAS_BINAIRE : this.typeFile;
+        ContexteRecherche contexte = ContexteRecherche.courant(nbLignes * nbColonnes, file, ecartMax);
 
-        @Override
-        public String toString(){
-            return i + "/ " + j;
+        int hSrc = calculeValeurH(robot.getLigne(), robot.getColonne(), dst, coutMin, dstInterdite);
+        if (reperes != null) {
+            int borne = reperes.minorant(src, cible);
+            if (borne == -1) {
+                return;
+            }
+            hSrc = Math.max(hSrc, borne);
+        }
+        contexte.ouvrir(src, 0, ponderer(hSrc), src);
+
+        while (!contexte.fileVide()) {
+            int courant = contexte.extraire();
+            if (contexte.estFerme(courant)) {
+                // Entrée périmée : la case a déjà été traitée avec un meilleur coût.
+                continue;
+            }
+            contexte.fermer(courant);
+            this.nbDeveloppes++;
+            if (courant == cible) {
+                this.time = contexte.g[courant];
+                tracePath(contexte, src, cible, nbColonnes);
+                return;
+            }
+
+            int i = courant / nbColonnes;
+            int j = courant % nbColonnes;
+            int natureCourante = carte.getNatureOrdinal(i, j);
+            for (Direction direction : DIRECTIONS){
+                int iVoisin = i;
+                int jVoisin = j;
+                switch (direction) {
+                    case NORD:
+                        iVoisin--;
+                        break;
+                    case SUD:
+                        iVoisin++;
+                        break;
+                    case EST:
+                        jVoisin++;
+                        break;
+                    default:
+                        jVoisin--;
+                }
+                if (iVoisin < 0 || iVoisin >= nbLignes || jVoisin < 0 || jVoisin >= nbColonnes) {
+                    continue;
+                }
+                int voisin = iVoisin * nbColonnes + jVoisin;
+                if (contexte.estFerme(voisin)) {
+                    continue;
+                }
+                int temps = modele.getDuree(natureCourante, carte.getNatureOrdinal(iVoisin, jVoisin));
+                if (temps == -1) {
+                    if (voisin != cible) {
+                        continue;
+                    }
+                    temps = 0;
+                }
+                int gNew = contexte.g[courant] + temps;
+                if (!contexte.estVu(voisin) || gNew < contexte.g[voisin]) {
+                    int h = calculeValeurH(iVoisin, jVoisin, dst, coutMin, dstInterdite);
+                    if (reperes != null) {
+                        int borne = reperes.minorant(voisin, cible);
+                        if (borne == -1) {
+                            // Les repères prouvent que la destination est inaccessible depuis ce voisin.
+                            continue;
+                        }
+                        h = Math.max(h, borne);
+                    }
+                    contexte.ouvrir(voisin, gNew, gNew + ponderer(h), courant);
+                }
+            }
         }
     }
 
     /**
-     * Calcule la valeur heuristique (h) entre deux cases.
-     * La distance utilisée ici est la distance euclidienne.
-     *
-     * @param src La case de départ.
-     * @param dst La case de destination.
-     * @return La distance heuristique (h) entre les deux cases.
+     * Applique le poids epsilon à une valeur heuristique. L'arrondi par défaut garde la borne :
+     * une case fermée l'est avec un coût au plus epsilon fois son coût optimal, et on ne la rouvre pas.
      */
-    double calculeValeurH(Case src, Case dst){
-        return Math.sqrt(Math.pow((src.getLigne() - dst.getLigne()), 2.0) + Math.pow((src.getColonne() - dst.getColonne()), 2.0));
+    private int ponderer(int h){
+        if (this.epsilon == 1) {
+            return h;
+        }
+        return (int) Math.min(this.epsilon * h, Integer.MAX_VALUE / 2);
     }
 
     /**
-     * Trace le chemin en utilisant les détails des nœuds calculés par l'algorithme A*.
-     * Le chemin est représenté par une pile de directions (NORD, SUD, EST, OUEST).
+     * Cherche en une seule fois les temps de trajet d'un robot vers plusieurs cibles.
+     * Voir rechercheVersCibles(Carte, Collection, Robot, int).
      *
-     * @param nodeDetails Tableau des nœuds calculés lors de la recherche A*.
-     * @param src         La case de départ.
-     * @param dst         La case de destination.
-     * @param carte       La carte utilisée pour obtenir les cases.
+     * @param carte  La carte sur laquelle effectuer la recherche.
+     * @param cibles Les cases à atteindre.
+     * @param robot  Le robot qui effectue la recherche.
+     * @return Les temps de trajet et les chemins vers les cibles atteintes.
      */
-    void tracePath(node[][] nodeDetails, Case src, Case dst, Carte carte ){
-        Stack<Direction> path = new Stack<>();
-        int col = dst.getColonne();
-        int lig = dst.getLigne();
-        Case nextNode = nodeDetails[lig][col].parent; 
-        Stack<Case> path1 = new Stack<>();
-        do {
-            nextNode = nodeDetails[lig][col].parent;
-            if (lig == nextNode.getLigne() - 1){
-                path.push(Direction.NORD);
-            } else if (lig == nextNode.getLigne() + 1){
-                path.push(Direction.SUD);
-            } else if (col == nextNode.getColonne() - 1){
-                path.push(Direction.OUEST);
-            } else if (col == nextNode.getColonne() + 1){
-                path.push(Direction.EST);
-            } else {
-                System.err.println("err");
-            }
-            path1.push(carte.getCase(lig, col));
-            col = nextNode.getColonne();
-            lig = nextNode.getLigne();
-        } while (nodeDetails[lig][col].parent != nextNode);
-        this.chemin = path; 
+    public CheminsMultiples rechercheVersCibles(Carte carte, Collection<Case> cibles, Robot robot){
+        return rechercheVersCibles(carte, cibles, robot, Integer.MAX_VALUE);
     }
 
     /**
-     * Effectue la recherche A* pour trouver le chemin le plus court entre deux cases.
-     * Cette méthode gère également les déplacements des robots, y compris les drones.
+     * Cherche en une seule fois les temps de trajet d'un robot vers plusieurs cibles.
+     * Un seul Dijkstra est lancé depuis la position du robot ; il s'arrête dès que toutes les cibles
+     * sont atteintes ou que le temps de trajet dépasse la borne. Comme pour aEtoileSearch, le dernier
+     * pas vers une cible sur laquelle le robot ne peut pas se tenir est autorisé et ne coûte rien.
+     * Seuls les chemins vers les cibles atteintes sont copiés dans le résultat, sous la forme de
+     * l'arbre des prédécesseurs qu'ils partagent ; les piles de directions ne sont construites
+     * qu'à la demande.
      *
-     * @param carte La carte sur laquelle effectuer la recherche.
-     * @param dst   La case de destination.
-     * @param robot Le robot qui effectue la recherche.
+     * @param carte  La carte sur laquelle effectuer la recherche.
+     * @param cibles Les cases à atteindre.
+     * @param robot  Le robot qui effectue la recherche.
+     * @param borne  Le temps de trajet au-delà duquel on abandonne les cibles restantes.
+     * @return Les temps de trajet et les chemins vers les cibles atteintes.
      */
-    public void aEtoileSearch(Carte carte, Case dst, Robot robot){
-        // Traitement spécifique pour le robot de type DRONE
-        // if(robot.getClasseRobot() == classeRobot.DRONE){
-        //     Stack<Direction> path = new Stack<>();
-        //     int temps = robot.deplacerenPartantdUneCase(dst, Direction.NORD);
-        //     int i = robot.getLigne();
-        //     int j = robot.getColonne();
-        //     if (i < dst.getLigne()){
-        //         do {
-        //             path.push(Direction.SUD); 
-        //             this.time += temps;
-        //             i++;
-        //         } while (i != dst.getLigne());
-        //     }
-        //     if (i > dst.getLigne()){
-        //         do {
-        //             path.push(Direction.NORD); 
-        //             this.time += temps;
-        //             i++;
-        //         } while (i != dst.getLigne());
-        //     }
-        //     if (j < dst.getColonne()){
-        //         do {
-        //             path.push(Direction.EST); 
-        //             this.time += temps;
-        //             j++;
-        //         } while (j != dst.getColonne());
-        //     }
-        //     if (j > dst.getColonne()){
-        //         do {
-        //             path.push(Direction.OUEST); 
-        //             this.time += temps;
-        //             j++;
-        //         } while (j != dst.getLigne());
-        //     }
-        //     this.chemin = path; 
-        //     this.time = 0;
-        //     return;
-        // }
-        boolean[][] closedList = new boolean[carte.getNbLignes()][carte.getNbColonnes()];
-        node[][] nodeDetails = new node[carte.getNbLignes()][carte.getNbColonnes()];
-        for (int row = 0; row < carte.getNbLignes(); row++) {
-         Arrays.fill(nodeDetails[row], null);  // Initially set all elements to null
+    public CheminsMultiples rechercheVersCibles(Carte carte, Collection<Case> cibles, Robot robot, int borne){
+        int nbLignes = carte.getNbLignes();
+        int nbColonnes = carte.getNbColonnes();
+        int src = robot.getLigne() * nbColonnes + robot.getColonne();
+        if (cibles.isEmpty()) {
+            return new CheminsMultiples(nbColonnes, src);
         }
+        CostModel modele = robot.getCostModel();
+        ContexteRecherche contexte = ContexteRecherche.courant(nbLignes * nbColonnes, this.typeFile,
+                modele.getCoutMax());
+        // Les cibles sont marquées dans le contexte ; une cible donnée deux fois ne compte qu'une fois.
+        int restantes = 0;
+        for (Case cible : cibles) {
+            int id = cible.getLigne() * nbColonnes + cible.getColonne();
+            if (!contexte.estMarque(id)) {
+                contexte.marquer(id);
+                restantes++;
+            }
+        }
+        int[] atteintes = new int[restantes];
+        int[] temps = new int[restantes];
+        int nbAtteintes = 0;
 
-        Case src = carte.getCase(robot.getLigne(), robot.getColonne()); 
-        int i = src.getLigne();
-        int j = src.getColonne();
-        nodeDetails[i][j] = new node();
-        nodeDetails[i][j].f = 0.0;
-        nodeDetails[i][j].g = 0.0;
-        nodeDetails[i][j].h = 0.0;
-        nodeDetails[i][j].parent = carte.getCase(i, j);
-
-        PriorityQueue<Details> openList = new PriorityQueue<>((o1, o2) -> (int) Math.round(o1.value - o2.value));
-        openList.add(new Details(0.0, i, j));
+        contexte.ouvrir(src, 0, 0, src);
+        while (!contexte.fileVide()) {
+            int courant = contexte.extraire();
+            if (contexte.estFerme(courant)) {
+                continue;
+            }
+            if (contexte.g[courant] > borne) {
+                break;
+            }
+            contexte.fermer(courant);
+            if (contexte.estMarque(courant)) {
+                atteintes[nbAtteintes] = courant;
+                temps[nbAtteintes] = contexte.g[courant];
+                nbAtteintes++;
+                if (nbAtteintes == restantes) {
+                    break;
+                }
+            }
 
-        while (!openList.isEmpty()) {
-            Details p = openList.peek();
-            i = p.i;
-            j = p.j;
-            openList.poll();
-            closedList[i][j] = true;
-            Case position = carte.getCase(i, j);
-            for (Direction direction : Direction.values()){
-                if(carte.voisinExiste(position, direction)) {
-                    Case voisin = carte.getVoisin(position, direction);
-                    if(nodeDetails[voisin.getLigne()] == null){ 
-                        nodeDetails[voisin.getLigne()] = new node[carte.getNbColonnes()]; 
-                    }
-                    if (nodeDetails[voisin.getLigne()][voisin.getColonne()] == null) {
-                        nodeDetails[voisin.getLigne()][voisin.getColonne()] = new node();
-                    }
-                    int temps = robot.deplacerenPartantdUneCase(position, direction);
-                    if(voisin.isSame(dst)){
-                        nodeDetails[voisin.getLigne()][voisin.getColonne()].parent = carte.getCase(i, j);
-                        this.time = nodeDetails[position.getLigne()][position.getColonne()].temps + temps;
-                        tracePath(nodeDetails, src, dst, carte);
-                        return; 
-                    } else if (!closedList[voisin.getLigne()][voisin.getColonne()] && temps != -1) {
-                        double gNew = nodeDetails[i][j].g + temps;
-                        double hNew = calculeValeurH(voisin, dst);
-                        double fNew = gNew + hNew;
-                        if (nodeDetails[voisin.getLigne()][voisin.getColonne()].f == -1 || nodeDetails[voisin.getLigne()][voisin.getColonne()].f > fNew){
-                            openList.add(new Details(fNew, voisin.getLigne(), voisin.getColonne()));
-                            nodeDetails[voisin.getLigne()][voisin.getColonne()].f = fNew;
-                            nodeDetails[voisin.getLigne()][voisin.getColonne()].g = gNew;
-                            nodeDetails[voisin.getLigne()][voisin.getColonne()].h = hNew;
-                            nodeDetails[voisin.getLigne()][voisin.getColonne()].parent = carte.getCase(i, j);
-                        }
+            int i = courant / nbColonnes;
+            int j = courant % nbColonnes;
+            NatureTerrain nature = carte.getNature(i, j);
+            if (courant != src && !modele.estAccessible(nature)) {
+                // Une cible interdite est atteinte mais ne sert pas d'étape.
+                continue;
+            }
+            int natureCourante = nature.ordinal();
+            for (Direction direction : DIRECTIONS){
+                int iVoisin = i;
+                int jVoisin = j;
+                switch (direction) {
+                    case NORD:
+                        iVoisin--;
+                        break;
+                    case SUD:
+                        iVoisin++;
+                        break;
+                    case EST:
+                        jVoisin++;
+                        break;
+                    default:
+                        jVoisin--;
+                }
+                if (iVoisin < 0 || iVoisin >= nbLignes || jVoisin < 0 || jVoisin >= nbColonnes) {
+                    continue;
+                }
+                int voisin = iVoisin * nbColonnes + jVoisin;
+                if (contexte.estFerme(voisin)) {
+                    continue;
+                }
+                int duree = modele.getDuree(natureCourante, carte.getNatureOrdinal(iVoisin, jVoisin));
+                if (duree == -1) {
+                    if (!contexte.estMarque(voisin)) {
+                        continue;
                     }
+                    duree = 0;
+                }
+                int gNew = contexte.g[courant] + duree;
+                if (!contexte.estVu(voisin) || gNew < contexte.g[voisin]) {
+                    contexte.ouvrir(voisin, gNew, gNew, courant);
                 }
             }
         }
+        return new CheminsMultiples(contexte, nbColonnes, src, atteintes, temps, nbAtteintes);
     }
 }
@@ -39,6 +39,18 @@ public class Chenille extends Robot {
         return this.vitesse;
     }
 
+    /**
+     * Indique si le robot peut se déplacer sur un type de terrain : l'eau et la roche
+     * lui sont interdites.
+     *
+     * @param natureTerrain Le type de terrain.
+     * @return true si le terrain n'est ni de l'eau ni de la roche, false sinon.
+     */
+    @Override
+    public boolean terrainAccessible(NatureTerrain natureTerrain) {
+        return natureTerrain != NatureTerrain.EAU && natureTerrain != NatureTerrain.ROCHE;
+    }
+
     /**
      * Déplace le robot dans une direction spécifiée.
      *
@@ -49,7 +61,7 @@ public class Chenille extends Robot {
      */
     @Override
     public Evenement deplacer(Direction dir) {
-        Case caseRobot = new Case(this.ligne, this.colonne, NatureTerrain.ROCHE);
+        Case caseRobot = this.carte.getCase(this.ligne, this.colonne);
 
         if (!this.carte.voisinExiste(caseRobot, dir)) {
             throw new IllegalArgumentException("Aucune case voisine n'existe dans cette direction : " + dir);
@@ -57,46 +69,17 @@ public class Chenille extends Robot {
 
         Case caseDarrivee = this.carte.getVoisin(caseRobot, dir);
 
-        if (caseDarrivee.getNature() == NatureTerrain.EAU || caseDarrivee.getNature() == NatureTerrain.ROCHE) {
+        if (!this.estPraticable(caseDarrivee.getLigne(), caseDarrivee.getColonne())) {
             throw new IllegalArgumentException("Le robot ne peut se déplacer que sur un terrain libre ou "
                     + "un habitat. Nature trouvée : " + caseDarrivee.getNature());
         }
 
-        // Calculer la durée de déplacement
-        double vitesseMparSFloat = (int) (this.getVitesse(caseRobot.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        int dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
+        int dureeDeplacement = this.getCostModel().getDuree(caseRobot.getNature(), caseDarrivee.getNature());
         this.ligne = caseDarrivee.getLigne();
         this.colonne = caseDarrivee.getColonne();
         return new EvenementDeplacement(this, dureeDeplacement, caseDarrivee);
     }
 
-    /**
-     * Calcule la durée nécessaire pour déplacer le robot d'une case de départ dans une direction donnée.
-     *
-     * @param caseDepart La case de départ.
-     * @param dir        La direction de déplacement.
-     * @return La durée de déplacement si possible, sinon -1.
-     */
-    @Override
-    public int deplacerenPartantdUneCase(Case caseDepart, Direction dir) {
-        int dureeDeplacement = -1;
-        if (!this.carte.voisinExiste(caseDepart, dir)) {
-            return dureeDeplacement;
-        }
-
-        Case caseDarrivee = this.carte.getVoisin(caseDepart, dir);
-
-        if (caseDarrivee.getNature() == NatureTerrain.EAU || caseDarrivee.getNature() == NatureTerrain.ROCHE) {
-            return dureeDeplacement;
-        }
-
-        double vitesseMparSFloat = (int) (this.getVitesse(caseDepart.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
-        return dureeDeplacement;
-    }
-
     /**
      * Remplit le réservoir du robot en utilisant une case d'eau adjacente.
      *
@@ -107,7 +90,7 @@ public class Chenille extends Robot {
      */
     @Override
     public Evenement remplir(Case caseEau) {
-        Case caseRobot = new Case(this.ligne, this.colonne, NatureTerrain.ROCHE);
+        Case caseRobot = this.carte.getCase(this.ligne, this.colonne);
 
         if (!caseRobot.estVoisine(caseEau)) {
             throw new IllegalArgumentException("Le robot n'est pas voisin de cette case eau");
@@ -0,0 +1,151 @@
+package robots;
+
+import carte.*;
+import java.util.Arrays;
+
+/**
+ * La classe CostModel contient la table des durées de déplacement d'un robot entre deux
+ * cases voisines. La durée d'un déplacement ne dépend que de la classe du robot, de sa vitesse,
+ * de la nature des terrains de départ et d'arrivée et de la taille des cases : elle est donc
+ * calculée une fois pour toutes dans une table 5x5 indexée par les ordinaux de NatureTerrain.
+ * Une durée de -1 signifie que le robot ne peut pas entrer sur le terrain d'arrivée.
+ *
+ * Deux robots dont les tables sont identiques appartiennent à la même classe de coût :
+ * equals et hashCode ne portent que sur la table, ce qui permet de partager les calculs
+ * de chemins entre ces robots.
+ */
+public final class CostModel {
+
+    /** Le nombre de natures de terrain, c'est-à-dire la taille de chaque côté de la table. */
+    public static final int NB_TERRAINS = NatureTerrain.values().length;
+
+    private final int[] durees;
+    private final int coutMin;
+    private final int coutMax;
+    private final boolean uniforme;
+
+    /**
+     * Construit la table des durées d'un robot sur une carte.
+     *
+     * @param robot       Le robot dont on reprend les règles de déplacement.
+     * @param tailleCases La taille des cases de la carte.
+     */
+    CostModel(Robot robot, int tailleCases) {
+        NatureTerrain[] natures = NatureTerrain.values();
+        this.durees = new int[NB_TERRAINS * NB_TERRAINS];
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (NatureTerrain depart : natures) {
+            for (NatureTerrain arrivee : natures) {
+                int duree = -1;
+                if (robot.terrainAccessible(arrivee)) {
+                    double vitesseMparSFloat = (int) (robot.getVitesse(depart) + robot.getVitesse(arrivee)) / (2 * 3.6);
+                    int vitesseMparS = (int) vitesseMparSFloat;
+                    // Une vitesse arrondie à 0 m/s rendrait le déplacement infini.
+                    if (vitesseMparS > 0) {
+                        duree = (tailleCases / 100) / vitesseMparS;
+                        min = Math.min(min, duree);
+                        max = Math.max(max, duree);
+                    }
+                }
+                this.durees[depart.ordinal() * NB_TERRAINS + arrivee.ordinal()] = duree;
+            }
+        }
+        this.coutMin = (min == Integer.MAX_VALUE) ? 0 : min;
+        this.coutMax = max;
+        this.uniforme = calculerUniformite();
+    }
+
+    /**
+     * Le modèle est uniforme si chaque terrain est soit interdit quel que soit le terrain de départ,
+     * soit accessible depuis tous les terrains avec la même durée coutMin.
+     */
+    private boolean calculerUniformite() {
+        if (this.coutMin == 0) {
+            return false;
+        }
+        for (int arrivee = 0; arrivee < NB_TERRAINS; arrivee++) {
+            boolean interdit = this.durees[arrivee] == -1;
+            for (int depart = 0; depart < NB_TERRAINS; depart++) {
+                int duree = this.durees[depart * NB_TERRAINS + arrivee];
+                if (interdit ? duree != -1 : duree != this.coutMin) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne la durée d'un déplacement entre deux terrains voisins.
+     *
+     * @param depart  La nature du terrain de départ.
+     * @param arrivee La nature du terrain d'arrivée.
+     * @return La durée du déplacement, ou -1 si le terrain d'arrivée est interdit.
+     */
+    public int getDuree(NatureTerrain depart, NatureTerrain arrivee) {
+        return this.durees[depart.ordinal() * NB_TERRAINS + arrivee.ordinal()];
+    }
+
+    /**
+     * Retourne la durée d'un déplacement entre deux terrains voisins donnés par leurs ordinaux.
+     * C'est la variante utilisée dans les boucles internes des recherches de chemin.
+     *
+     * @param depart  L'ordinal de la nature du terrain de départ.
+     * @param arrivee L'ordinal de la nature du terrain d'arrivée.
+     * @return La durée du déplacement, ou -1 si le terrain d'arrivée est interdit.
+     */
+    public int getDuree(int depart, int arrivee) {
+        return this.durees[depart * NB_TERRAINS + arrivee];
+    }
+
+    /**
+     * Indique si le robot peut entrer sur un terrain.
+     *
+     * @param terrain La nature du terrain.
+     * @return true si le terrain est accessible, false sinon.
+     */
+    public boolean estAccessible(NatureTerrain terrain) {
+        return this.durees[terrain.ordinal()] != -1;
+    }
+
+    /**
+     * Retourne la plus petite durée d'un déplacement autorisé. Multipliée par une distance
+     * en nombre de cases, elle donne une borne inférieure du temps de trajet.
+     *
+     * @return La durée minimale d'un déplacement.
+     */
+    public int getCoutMin() {
+        return this.coutMin;
+    }
+
+    /**
+     * Retourne la plus grande durée d'un déplacement autorisé.
+     *
+     * @return La durée maximale d'un déplacement.
+     */
+    public int getCoutMax() {
+        return this.coutMax;
+    }
+
+    /**
+     * Indique si tous les déplacements autorisés ont la même durée (getCoutMin()), quels que soient
+     * les terrains de départ et d'arrivée. C'est le cas du drone, et des robots à roues qui roulent
+     * à la même vitesse sur tous les terrains qui leur sont accessibles.
+     *
+     * @return true si le coût d'un trajet ne dépend que de son nombre de pas.
+     */
+    public boolean estUniforme() {
+        return this.uniforme;
+    }
+
+    @Override
+    public boolean equals(Object autre) {
+        return autre instanceof CostModel && Arrays.equals(this.durees, ((CostModel) autre).durees);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.durees);
+    }
+}
@@ -36,6 +36,17 @@ public class Drone extends Robot {
         return this.vitesse;
     }
 
+    /**
+     * Indique si le drone peut survoler un type de terrain : c'est le cas de tous les terrains.
+     *
+     * @param natureTerrain Le type de terrain.
+     * @return true.
+     */
+    @Override
+    public boolean terrainAccessible(NatureTerrain natureTerrain) {
+        return true;
+    }
+
     /**
      * Déplace le drone dans une direction spécifiée.
      *
@@ -54,37 +65,12 @@ public class Drone extends Robot {
 
         Case caseDarrivee = this.carte.getVoisin(caseRobot, dir);
 
-        // Calculer la durée de déplacement
-        double vitesseMparSFloat = (int) (this.getVitesse(caseRobot.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        int dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
+        int dureeDeplacement = this.getCostModel().getDuree(caseRobot.getNature(), caseDarrivee.getNature());
         this.ligne = caseDarrivee.getLigne();
         this.colonne = caseDarrivee.getColonne();
         return new EvenementDeplacement(this, dureeDeplacement, caseDarrivee);
     }
 
-    /**
-     * Calcule la durée nécessaire pour déplacer le drone d'une case de départ dans une direction donnée.
-     *
-     * @param caseDepart La case de départ.
-     * @param dir        La direction de déplacement.
-     * @return La durée de déplacement si possible, sinon -1.
-     */
-    @Override
-    public int deplacerenPartantdUneCase(Case caseDepart, Direction dir) {
-        int dureeDeplacement = -1;
-        if (!this.carte.voisinExiste(caseDepart, dir)) {
-            return dureeDeplacement;
-        }
-
-        Case caseDarrivee = this.carte.getVoisin(caseDepart, dir);
-
-        double vitesseMparSFloat = (int) (this.getVitesse(caseDepart.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
-        return dureeDeplacement;
-    }
-
     /**
      * Remplit le réservoir du drone lorsqu'il est positionné sur une case d'eau.
      *
@@ -95,7 +81,7 @@ public class Drone extends Robot {
      */
     @Override
     public Evenement remplir(Case caseEau) {
-        Case caseRobot = new Case(this.ligne, this.colonne, NatureTerrain.ROCHE);
+        Case caseRobot = this.carte.getCase(this.ligne, this.colonne);
 
         if (!caseRobot.estSuperposee(caseEau)) {
             throw new IllegalArgumentException("Le drone n'est pas sur la case eau");
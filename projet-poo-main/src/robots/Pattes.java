@@ -38,6 +38,17 @@ public class Pattes extends Robot {
         return this.vitesse;
     }
 
+    /**
+     * Indique si le robot peut marcher sur un type de terrain : seule l'eau lui est interdite.
+     *
+     * @param natureTerrain Le type de terrain.
+     * @return true si le terrain n'est pas de l'eau, false sinon.
+     */
+    @Override
+    public boolean terrainAccessible(NatureTerrain natureTerrain) {
+        return natureTerrain != NatureTerrain.EAU;
+    }
+
     /**
      * Déplace le robot dans une direction spécifiée.
      *
@@ -47,7 +58,7 @@ public class Pattes extends Robot {
      */
     @Override
     public Evenement deplacer(Direction dir) {
-        Case caseRobot = new Case(this.ligne, this.colonne, NatureTerrain.ROCHE);
+        Case caseRobot = this.carte.getCase(this.ligne, this.colonne);
 
         if (!this.carte.voisinExiste(caseRobot, dir)) {
             throw new IllegalArgumentException("Aucune case voisine n'existe dans cette direction : " + dir);
@@ -55,44 +66,16 @@ public class Pattes extends Robot {
 
         Case caseDarrivee = this.carte.getVoisin(caseRobot, dir);
 
-        if (caseDarrivee.getNature() == NatureTerrain.EAU) {
+        if (!this.estPraticable(caseDarrivee.getLigne(), caseDarrivee.getColonne())) {
             throw new IllegalArgumentException("Le robot ne peut se déplacer que sur un terrain libre ou un habitat. Nature trouvée : " + caseDarrivee.getNature());
         }
 
-        double vitesseMparSFloat = (int) (this.getVitesse(caseRobot.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        int dureeDeplacement = (this.carte.getTailleCases() / 1000) / vitesseMparS;
+        int dureeDeplacement = this.getCostModel().getDuree(caseRobot.getNature(), caseDarrivee.getNature());
         this.ligne = caseDarrivee.getLigne();
         this.colonne = caseDarrivee.getColonne();
         return new EvenementDeplacement(this, dureeDeplacement, caseDarrivee);
     }
 
-    /**
-     * Calcule la durée nécessaire pour déplacer le robot d'une case de départ dans une direction donnée.
-     *
-     * @param caseDepart La case de départ.
-     * @param dir        La direction de déplacement.
-     * @return La durée de déplacement si possible, sinon -1.
-     */
-    @Override
-    public int deplacerenPartantdUneCase(Case caseDepart, Direction dir) {
-        int dureeDeplacement = -1;
-        if (!this.carte.voisinExiste(caseDepart, dir)) {
-            return dureeDeplacement;
-        }
-
-        Case caseDarrivee = this.carte.getVoisin(caseDepart, dir);
-
-        if (caseDarrivee.getNature() == NatureTerrain.EAU) {
-            return dureeDeplacement;
-        }
-
-        double vitesseMparSFloat = (int) (this.getVitesse(caseDepart.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
-        return dureeDeplacement;
-    }
-
     /**
      * Remplit le réservoir du robot si une case d'eau est voisine.
      *
@@ -102,17 +85,7 @@ public class Pattes extends Robot {
      */
     @Override
     public Evenement remplir(Case caseActuelle) {
-        Case caseRobot = this.carte.getCase(this.ligne, this.colonne);
-
-        Case caseNord = this.carte.getVoisin(caseRobot, Direction.NORD);
-        Case caseSud = this.carte.getVoisin(caseRobot, Direction.SUD);
-        Case caseEst = this.carte.getVoisin(caseRobot, Direction.EST);
-        Case caseOuest = this.carte.getVoisin(caseRobot, Direction.OUEST);
-
-        if ((caseNord != null && caseNord.getNature() == NatureTerrain.EAU) ||
-            (caseSud != null && caseSud.getNature() == NatureTerrain.EAU) ||
-            (caseEst != null && caseEst.getNature() == NatureTerrain.EAU) ||
-            (caseOuest != null && caseOuest.getNature() == NatureTerrain.EAU)) {
+        if (this.carte.estProcheEau(this.ligne, this.colonne)) {
             int dureeRemplissage = 18;
             this.reservoir = this.maxReservoir;
             return new EvenementRemplissage(this, dureeRemplissage, this.reservoir);
@@ -16,6 +16,8 @@ public abstract class Robot {
     protected int id; // L'identifiant unique du robot.
     protected Carte carte; // La carte sur laquelle le robot se déplace.
     protected classeRobot classeRobot; // La classe du robot.
+    private CostModel costModel; // La table des durées de déplacement, construite à la demande.
+    private int masqueTerrains = -1; // Les natures de terrain accessibles (bit k pour l'ordinal k), calculées à la demande.
 
     /**
      * Constructeur de la classe Robot.
@@ -68,6 +70,48 @@ public abstract class Robot {
      */
     public abstract Evenement eteindre(Incendie incendie);
 
+    /**
+     * Indique si le robot peut se déplacer sur un type de terrain.
+     *
+     * @param natureTerrain Le type de terrain.
+     * @return true si le robot peut entrer sur ce terrain, false sinon.
+     */
+    public abstract boolean terrainAccessible(NatureTerrain natureTerrain);
+
+    /**
+     * Renvoie la table des durées de déplacement du robot, construite au premier appel
+     * à partir de ses vitesses et des terrains qui lui sont accessibles.
+     *
+     * @return Le modèle de coût du robot.
+     */
+    public CostModel getCostModel() {
+        if (this.costModel == null) {
+            this.costModel = new CostModel(this, this.carte.getTailleCases());
+        }
+        return this.costModel;
+    }
+
+    /**
+     * Indique si le robot peut se tenir sur une case, en lisant l'ensemble des cases praticables
+     * que la carte tient à jour pour les robots de sa classe.
+     *
+     * @param ligne   La ligne de la case.
+     * @param colonne La colonne de la case.
+     * @return true si le terrain de la case est accessible au robot, false sinon.
+     */
+    public boolean estPraticable(int ligne, int colonne) {
+        if (this.masqueTerrains == -1) {
+            int masque = 0;
+            for (NatureTerrain nature : NatureTerrain.values()) {
+                if (terrainAccessible(nature)) {
+                    masque |= 1 << nature.ordinal();
+                }
+            }
+            this.masqueTerrains = masque;
+        }
+        return this.carte.estPraticable(this.masqueTerrains, ligne, colonne);
+    }
+
     /**
      * Calcule la durée nécessaire pour déplacer le robot d'une case de départ
      * dans une direction donnée.
@@ -76,7 +120,13 @@ public abstract class Robot {
      * @param dir        La direction de déplacement.
      * @return La durée de déplacement si possible, sinon -1.
      */
-    public abstract int deplacerenPartantdUneCase(Case caseDepart, Direction dir);
+    public int deplacerenPartantdUneCase(Case caseDepart, Direction dir) {
+        if (!this.carte.voisinExiste(caseDepart, dir)) {
+            return -1;
+        }
+        Case caseDarrivee = this.carte.getVoisin(caseDepart, dir);
+        return this.getCostModel().getDuree(caseDepart.getNature(), caseDarrivee.getNature());
+    }
 
     /**
      * Renvoie la ligne actuelle du robot.
@@ -38,6 +38,18 @@ public class Roue extends Robot {
         return this.vitesse;
     }
 
+    /**
+     * Indique si le robot peut rouler sur un type de terrain : seuls les terrains libres
+     * et les habitats sont accessibles.
+     *
+     * @param natureTerrain Le type de terrain.
+     * @return true si le terrain est un terrain libre ou un habitat, false sinon.
+     */
+    @Override
+    public boolean terrainAccessible(NatureTerrain natureTerrain) {
+        return natureTerrain == NatureTerrain.HABITAT || natureTerrain == NatureTerrain.TERRAIN_LIBRE;
+    }
+
     /**
      * Déplace le robot dans une direction spécifiée.
      *
@@ -56,47 +68,17 @@ public class Roue extends Robot {
 
         Case caseDarrivee = this.carte.getVoisin(caseRobot, dir);
 
-        if (caseDarrivee.getNature() != NatureTerrain.HABITAT &&
-            caseDarrivee.getNature() != NatureTerrain.TERRAIN_LIBRE) {
+        if (!this.estPraticable(caseDarrivee.getLigne(), caseDarrivee.getColonne())) {
             throw new IllegalArgumentException("Le robot ne peut se déplacer que sur un terrain libre ou un habitat. Nature trouvée : " + caseDarrivee.getNature());
         }
 
-        double vitesseMparSFloat = (int) (this.getVitesse(caseRobot.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        int dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
+        int dureeDeplacement = this.getCostModel().getDuree(caseRobot.getNature(), caseDarrivee.getNature());
 
         this.ligne = caseDarrivee.getLigne();
         this.colonne = caseDarrivee.getColonne();
         return new EvenementDeplacement(this, dureeDeplacement, caseDarrivee);
     }
 
-    /**
-     * Calcule la durée de déplacement d'une case de départ vers une direction donnée.
-     *
-     * @param caseDepart La case de départ.
-     * @param dir        La direction de déplacement.
-     * @return La durée de déplacement si possible, sinon -1.
-     */
-    @Override
-    public int deplacerenPartantdUneCase(Case caseDepart, Direction dir) {
-        int dureeDeplacement = -1;
-        if (!this.carte.voisinExiste(caseDepart, dir)) {
-            return dureeDeplacement;
-        }
-
-        Case caseDarrivee = this.carte.getVoisin(caseDepart, dir);
-
-        if (caseDarrivee.getNature() != NatureTerrain.HABITAT &&
-            caseDarrivee.getNature() != NatureTerrain.TERRAIN_LIBRE) {
-            return dureeDeplacement;
-        }
-
-        double vitesseMparSFloat = (int) (this.getVitesse(caseDepart.getNature()) + this.getVitesse(caseDarrivee.getNature())) / (2 * 3.6);
-        int vitesseMparS = (int) vitesseMparSFloat;
-        dureeDeplacement = (this.carte.getTailleCases() / 100) / vitesseMparS;
-        return dureeDeplacement;
-    }
-
     /**
      * Remplit le réservoir d'eau du robot si une case voisine contient de l'eau.
      *
@@ -106,16 +88,7 @@ public class Roue extends Robot {
      */
     @Override
     public Evenement remplir(Case caseActuelle) {
-        Case caseRobot = this.carte.getCase(this.ligne, this.colonne);
-        Case caseNord = this.carte.getVoisin(caseRobot, Direction.NORD);
-        Case caseSud = this.carte.getVoisin(caseRobot, Direction.SUD);
-        Case caseEst = this.carte.getVoisin(caseRobot, Direction.EST);
-        Case caseOuest = this.carte.getVoisin(caseRobot, Direction.OUEST);
-
-        if ((caseNord != null && caseNord.getNature() == NatureTerrain.EAU) ||
-            (caseSud != null && caseSud.getNature() == NatureTerrain.EAU) ||
-            (caseEst != null && caseEst.getNature() == NatureTerrain.EAU) ||
-            (caseOuest != null && caseOuest.getNature() == NatureTerrain.EAU)) {
+        if (this.carte.estProcheEau(this.ligne, this.colonne)) {
             int dureeRemplissage = 18;
             this.reservoir = this.maxReservoir;
             return new EvenementRemplissage(this, dureeRemplissage, this.reservoir);
@@ -3,36 +3,71 @@ import io.LecteurDonnees;
 import gui.GUISimulator;
 import robots.*;
 import carte.*;
+import plus_court_chemin.Accessibilite;
+import plus_court_chemin.CacheChemins;
+import plus_court_chemin.ChampDistance;
+import plus_court_chemin.CheminsMultiples;
 import plus_court_chemin.aetoile;
 import java.util.Stack;
 import java.io.FileNotFoundException;
 import java.util.zip.DataFormatException;
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public class ChefRobotPompier{
     private Simulateur simulateur;
     private Incendie[] incendies;
     private Robot[] robots;
-    private List<Case> casesEau;
+    // champs des temps de trajet vers chaque incendie, par classe de coût des robots
+    private Map<CostModel, Map<Incendie, ChampDistance>> champsIncendies;
+    // champs des temps de trajet vers le point de remplissage le plus proche, par classe de coût
+    private Map<CostModel, ChampDistance> champsEau;
+    private int versionCarte;
+    // mode par requête : une recherche vers tous les incendies par robot libre, refaite à chaque tour
+    private boolean calculParRequete;
+    private Map<Robot, CheminsMultiples> recherchesRobots;
+    private CacheChemins cache;
+    private double epsilon = 1;
 
     public ChefRobotPompier(Simulateur simulateur) {
         this.simulateur = simulateur;
         this.incendies = simulateur.getDonnees().getIncendies();
         this.robots = simulateur.getDonnees().getRobots();
-        this.casesEau = simulateur.getDonnees().getCarte().getCasesEau();
+        this.champsIncendies = new HashMap<>();
+        this.champsEau = new HashMap<>();
+        this.versionCarte = simulateur.getDonnees().getCarte().getVersion();
+        this.recherchesRobots = new HashMap<>();
+    }
+
+    // par défaut, les temps de trajet sont lus dans des champs de distances gardés en cache ;
+    // en mode par requête, chaque robot libre lance à chaque tour une seule recherche vers
+    // tous les incendies (et vers toutes les cases d'eau pour se remplir), sans rien garder
+    public void setCalculParRequete(boolean calculParRequete) {
+        this.calculParRequete = calculParRequete;
+    }
+
+    // en mode par requête, avec un cache, chaque couple robot / incendie passe par aetoile et
+    // le cache : un robot qui n'a pas bougé depuis le tour précédent ne relance aucune recherche
+    public void setCache(CacheChemins cache) {
+        this.cache = cache;
+    }
+
+    // en mode par requête, avec epsilon > 1, les robots candidats sont départagés par un A*
+    // pondéré (temps au plus epsilon fois l'optimum) ; seul le robot choisi refait une recherche
+    // exacte pour obtenir son chemin
+    public void setEpsilon(double epsilon) {
+        if (!(epsilon >= 1)) {
+            throw new IllegalArgumentException("epsilon doit être au moins égal à 1 : " + epsilon);
+        }
+        this.epsilon = epsilon;
     }
 
     public boolean interventionFinie() {
-        for (int idIncendie = 0; idIncendie < this.incendies.length; idIncendie++) {
-            Incendie incendie = this.incendies[idIncendie];
-            if (incendie.getLitres()!= 0) {
-                return false;
-            }
-        }  
-        return true;
+        return !this.simulateur.getDonnees().getCarte().resteDesIncendies();
     }
 
     public Simulateur getSimulateur() {
@@ -40,6 +75,7 @@ public class ChefRobotPompier{
     }
 
     public void TraitementDuChefPompier() {
+        mettreAJourChamps();
         //on traite incendie par incendie, en choisissant le robot le plus proche
         for (int idIncendie = 0; idIncendie < this.incendies.length; idIncendie++) {
             //si l'incendie n'est pas éteint
@@ -47,7 +83,7 @@ public class ChefRobotPompier{
             if (incendie.getLitres()!= 0) {
                 //on parcourt les robots pour trouver le plus adapté
                 Robot robotChoisi = null;
-                int meilleurTemps = 10000;
+                int meilleurTemps = Integer.MAX_VALUE;
                 Stack<Direction> meilleurChemin = null;
 
                 for (int iRobot = 0; iRobot < this.robots.length; iRobot++) {
@@ -56,17 +92,16 @@ public class ChefRobotPompier{
                     if (this.simulateur.robotEstLibre(robot)&&
                     ((robot.getReservoir()==robot.returnMaxReservoir())||robot.getClasseRobot() == classeRobot.PATTES)) {
 
-                        aetoile cheminRobotIncendie = new aetoile();
-                        cheminRobotIncendie.aEtoileSearch(simulateur.getDonnees().getCarte(), incendie.getPosition(), robot);
-                        if (cheminRobotIncendie.getTime()<meilleurTemps) {
-                            meilleurTemps = cheminRobotIncendie.getTime();
+                        int temps = tempsVersIncendie(robot, incendie);
+                        if (temps >= 0 && temps<meilleurTemps) {
+                            meilleurTemps = temps;
                             robotChoisi = robot;
-                            meilleurChemin = cheminRobotIncendie.getChemin();
                         }
                     }
                 }
                 //on regarde si on a trouvé un robot pour cet incendie :
                 if (robotChoisi != null) {
+                    meilleurChemin = cheminVersIncendie(robotChoisi, incendie);
                     while (!meilleurChemin.isEmpty()) {
                         Direction dir = meilleurChemin.pop();
                         Evenement deplacement = robotChoisi.deplacer(dir);
@@ -88,39 +123,159 @@ public class ChefRobotPompier{
     }
     
 
-    public void remplirCeRobot(Robot robot) {
-        Case caseChoisie = null;
-        int meilleurTemps = 10000;
-        Stack<Direction> meilleurChemin = null;
-        Case[] tabEau = casesEau.toArray(new Case[0]);
-        for (int idEau = 0; idEau < tabEau.length; idEau++) {
-            aetoile cheminRobotEau = new aetoile();
-            cheminRobotEau.aEtoileSearch(simulateur.getDonnees().getCarte(), tabEau[idEau], robot);
-            if (cheminRobotEau.getTime()<meilleurTemps) {
-                meilleurTemps = cheminRobotEau.getTime();
-                caseChoisie = tabEau[idEau];
-                meilleurChemin = cheminRobotEau.getChemin();
-                //vont tous à la case 2/2 parce q
+    // les champs ne dépendent que du terrain et de la position des incendies : on ne les
+    // recalcule que si le terrain a changé, et on oublie ceux des incendies éteints
+    private void mettreAJourChamps() {
+        this.recherchesRobots.clear();
+        Carte carte = this.simulateur.getDonnees().getCarte();
+        if (carte.getVersion() != this.versionCarte) {
+            this.champsIncendies.clear();
+            this.champsEau.clear();
+            this.versionCarte = carte.getVersion();
+        }
+        for (Map<Incendie, ChampDistance> champs : this.champsIncendies.values()) {
+            champs.keySet().removeIf(incendie -> incendie.getLitres() == 0);
+        }
+    }
+
+    // un seul Dijkstra inversé par incendie et par classe de coût, partagé par tous les robots
+    private ChampDistance champVersIncendie(Incendie incendie, CostModel modele) {
+        Map<Incendie, ChampDistance> champs = this.champsIncendies.computeIfAbsent(modele, m -> new HashMap<>());
+        ChampDistance champ = champs.get(incendie);
+        if (champ == null) {
+            champ = ChampDistance.versCase(this.simulateur.getDonnees().getCarte(), modele, incendie.getPosition());
+            champs.put(incendie, champ);
+        }
+        return champ;
+    }
+
+    private int tempsVersIncendie(Robot robot, Incendie incendie) {
+        if (this.calculParRequete && (this.cache != null || this.epsilon > 1)) {
+            aetoile recherche = rechercheVersIncendie(robot, incendie, this.epsilon);
+            return recherche == null ? -1 : recherche.getTime();
+        }
+        if (this.calculParRequete) {
+            return rechercheVersIncendies(robot).getTemps(incendie.getPosition());
+        }
+        return champVersIncendie(incendie, robot.getCostModel()).getTemps(robot.getLigne(), robot.getColonne());
+    }
+
+    private Stack<Direction> cheminVersIncendie(Robot robot, Incendie incendie) {
+        if (this.calculParRequete && (this.cache != null || this.epsilon > 1)) {
+            return rechercheVersIncendie(robot, incendie, 1).getChemin();
+        }
+        if (this.calculParRequete) {
+            return rechercheVersIncendies(robot).getChemin(incendie.getPosition());
+        }
+        return champVersIncendie(incendie, robot.getCostModel()).getChemin(robot.getLigne(), robot.getColonne());
+    }
+
+    // comme avec les champs, un incendie sur une case où le robot ne peut pas se tenir est ignoré
+    // (le cache n'est utilisé que par les recherches exactes)
+    private aetoile rechercheVersIncendie(Robot robot, Incendie incendie, double poids) {
+        if (!peutAtteindre(robot, incendie)) {
+            return null;
+        }
+        aetoile recherche = new aetoile();
+        recherche.setCache(this.cache);
+        recherche.setEpsilon(poids);
+        recherche.aEtoileSearch(this.simulateur.getDonnees().getCarte(), incendie.getPosition(), robot);
+        return recherche;
+    }
+
+    // un incendie hors de la composante connexe du robot est écarté sans lancer de recherche ;
+    // sinon la recherche multiple explorerait toute la composante avant d'abandonner. Les
+    // composantes de la classe du robot sont calculées au premier appel, puis gardées en cache
+    private boolean peutAtteindre(Robot robot, Incendie incendie) {
+        Carte carte = this.simulateur.getDonnees().getCarte();
+        return robot.getCostModel().estAccessible(incendie.getPosition().getNature())
+                && Accessibilite.pour(carte, robot.getCostModel())
+                        .estAtteignable(carte.getCase(robot.getLigne(), robot.getColonne()), incendie.getPosition());
+    }
+
+    // une seule recherche par robot vers tous les incendies qui brûlent encore ; comme avec les
+    // champs, on ne retient que les incendies sur des cases où le robot peut se tenir, et
+    // seulement ceux qu'il peut atteindre
+    private CheminsMultiples rechercheVersIncendies(Robot robot) {
+        CheminsMultiples recherche = this.recherchesRobots.get(robot);
+        if (recherche == null) {
+            List<Case> foyers = new ArrayList<>();
+            for (Incendie incendie : this.incendies) {
+                if (incendie.getLitres() != 0 && peutAtteindre(robot, incendie)) {
+                    foyers.add(incendie.getPosition());
+                }
             }
+            recherche = new aetoile().rechercheVersCibles(this.simulateur.getDonnees().getCarte(), foyers, robot);
+            this.recherchesRobots.put(robot, recherche);
         }
-        if (caseChoisie != null) {
-            while (meilleurChemin.size() > 1) {
-                Direction dir = meilleurChemin.pop();
-                Evenement deplacement = robot.deplacer(dir);
-                this.simulateur.ajouteEvenement(deplacement);
+        return recherche;
+    }
+
+    public void remplirCeRobot(Robot robot) {
+        Stack<Direction> chemin;
+        if (this.calculParRequete) {
+            chemin = cheminVersEau(robot);
+        } else {
+            ChampDistance champ = this.champsEau.get(robot.getCostModel());
+            if (champ == null) {
+                champ = ChampDistance.versEau(this.simulateur.getDonnees().getCarte(), robot.getCostModel());
+                this.champsEau.put(robot.getCostModel(), champ);
             }
+            chemin = champ.getChemin(robot.getLigne(), robot.getColonne());
+        }
+        if (chemin == null) {
+            // aucun point de remplissage n'est accessible pour ce robot
+            return;
+        }
+        while (!chemin.isEmpty()) {
+            Direction dir = chemin.pop();
+            Evenement deplacement = robot.deplacer(dir);
+            this.simulateur.ajouteEvenement(deplacement);
+        }
+        Evenement remplissage = robot.remplir(caseEauAtteinte(robot));
+        this.simulateur.ajouteEvenement(remplissage);
+    }
 
-            if (robot.getClasseRobot()==classeRobot.DRONE) {
-                Direction dir = meilleurChemin.pop();
-                Evenement deplacement = robot.deplacer(dir);
-                this.simulateur.ajouteEvenement(deplacement);
+    // chemin vers la case d'eau la plus proche ; un robot qui ne peut pas aller sur l'eau
+    // s'arrête sur la case voisine, on retire donc le dernier pas (au fond de la pile)
+    private Stack<Direction> cheminVersEau(Robot robot) {
+        Carte carte = this.simulateur.getDonnees().getCarte();
+        CheminsMultiples recherche = new aetoile().rechercheVersCibles(carte, carte.getCasesEau(), robot);
+        Case plusProche = null;
+        int meilleurTemps = Integer.MAX_VALUE;
+        for (Case eau : carte.getCasesEau()) {
+            int temps = recherche.getTemps(eau);
+            if (temps >= 0 && temps < meilleurTemps) {
+                meilleurTemps = temps;
+                plusProche = eau;
             }
+        }
+        if (plusProche == null) {
+            return null;
+        }
+        Stack<Direction> chemin = recherche.getChemin(plusProche);
+        if (!robot.getCostModel().estAccessible(NatureTerrain.EAU) && !chemin.isEmpty()) {
+            chemin.remove(0);
+        }
+        return chemin;
+    }
 
-            Evenement remplissage = robot.remplir(caseChoisie);
-            this.simulateur.ajouteEvenement(remplissage);
+    // le drone est sur la case d'eau, les autres robots sont à côté
+    private Case caseEauAtteinte(Robot robot) {
+        Carte carte = this.simulateur.getDonnees().getCarte();
+        Case position = carte.getCase(robot.getLigne(), robot.getColonne());
+        if (position.getNature() == NatureTerrain.EAU || !carte.estProcheEau(robot.getLigne(), robot.getColonne())) {
+            return position;
+        }
+        for (Direction direction : Direction.values()) {
+            if (carte.voisinExiste(position, direction)) {
+                Case voisin = carte.getVoisin(position, direction);
+                if (voisin.getNature() == NatureTerrain.EAU) {
+                    return voisin;
+                }
+            }
         }
+        return position;
     }
 
 }
-
-    
\ No newline at end of file
@@ -69,7 +69,6 @@ private void sauvegarderEtatInitial() {
         Carte carte = donnees.getCarte();
         int lin = carte.getNbLignes();
         int col = carte.getNbColonnes();
-        Incendie[] incendies = donnees.getIncendies();
         Robot[] robots = donnees.getRobots();
     
         int tailleCaseX = 1000 / col;  
@@ -98,9 +97,8 @@ private void sauvegarderEtatInitial() {
             }
         }
 
-        // Draw fires
-        for (Incendie inc : incendies) {
-            if (inc.getLitres() != 0){
+        // Draw fires (seuls ceux qui brûlent encore)
+        for (Incendie inc : carte.getIncendiesActifs()) {
             Case pos = inc.getPosition();
             int ipos = pos.getLigne();
             int jpos = pos.getColonne();
@@ -113,7 +111,6 @@ private void sauvegarderEtatInitial() {
                         null                            
                     ));
         }
-        }
 
         // Draw robots
         for (Robot rob : robots) {